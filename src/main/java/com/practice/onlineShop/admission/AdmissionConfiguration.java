@@ -0,0 +1,31 @@
+package com.practice.onlineShop.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AdmissionConfiguration {
+
+    @Bean
+    public ConcurrencyLimiter orderWritesLimiter(MeterRegistry meterRegistry,
+                                                 @Value("${shop.admission.orders.initial-limit:20}") int initialLimit,
+                                                 @Value("${shop.admission.orders.min-limit:2}") int minLimit,
+                                                 @Value("${shop.admission.orders.max-limit:100}") int maxLimit,
+                                                 @Value("${shop.admission.orders.latency-threshold-millis:250}") long latencyThresholdMillis,
+                                                 @Value("${shop.admission.orders.backoff-ratio:0.9}") double backoffRatio) {
+        ConcurrencyLimiter limiter = new AimdConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThresholdMillis, backoffRatio);
+        meterRegistry.gauge("shop.admission.orders.limit", limiter, ConcurrencyLimiter::getLimit);
+        meterRegistry.gauge("shop.admission.orders.in-flight", limiter, ConcurrencyLimiter::getInFlight);
+        return limiter;
+    }
+
+    @Bean
+    public ConcurrencyLimiter catalogReadsLimiter(MeterRegistry meterRegistry,
+                                                  @Value("${shop.admission.catalog.max-concurrent:50}") int maxConcurrent) {
+        ConcurrencyLimiter limiter = new FixedConcurrencyLimiter(maxConcurrent);
+        meterRegistry.gauge("shop.admission.catalog.in-flight", limiter, ConcurrencyLimiter::getInFlight);
+        return limiter;
+    }
+}
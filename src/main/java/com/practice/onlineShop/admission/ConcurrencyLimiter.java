@@ -0,0 +1,15 @@
+package com.practice.onlineShop.admission;
+
+public interface ConcurrencyLimiter {
+
+    /**
+     * Never blocks: either a slot is free right now or the request has to be shed.
+     */
+    boolean tryAcquire();
+
+    void release(long latencyNanos, boolean overloaded);
+
+    int getLimit();
+
+    int getInFlight();
+}
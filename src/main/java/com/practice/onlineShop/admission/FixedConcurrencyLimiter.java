@@ -0,0 +1,33 @@
+package com.practice.onlineShop.admission;
+
+import java.util.concurrent.Semaphore;
+
+public class FixedConcurrencyLimiter implements ConcurrencyLimiter {
+    private final int limit;
+    private final Semaphore permits;
+
+    public FixedConcurrencyLimiter(int limit) {
+        this.limit = limit;
+        this.permits = new Semaphore(limit);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    @Override
+    public void release(long latencyNanos, boolean overloaded) {
+        permits.release();
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int getInFlight() {
+        return limit - permits.availablePermits();
+    }
+}
@@ -0,0 +1,88 @@
+package com.practice.onlineShop.archive;
+
+import com.practice.onlineShop.repositories.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Moves the delivered, returned and canceled orders older than shop.orders.archive.min-age-days out of the orders
+ * tables, so that these only hold the recent orders the order operations work on.
+ * Each chunk of shop.orders.archive.chunk-size orders is moved in its own short transaction and the archiver pauses
+ * shop.orders.archive.pause-millis between chunks, leaving room to the orders being placed meanwhile; a run stops after
+ * shop.orders.archive.max-chunks-per-run chunks and the next one carries on.
+ * An archived order that is changed again (a delivered order being returned) is moved back by the order service.
+ */
+@Component
+public class OrderArchiver {
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedOrders;
+    private final Duration minAge;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final int maxChunksPerRun;
+
+    public OrderArchiver(OrderRepository orderRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                         @Value("${shop.orders.archive.min-age-days:90}") int minAgeDays,
+                         @Value("${shop.orders.archive.chunk-size:500}") int chunkSize,
+                         @Value("${shop.orders.archive.pause-millis:200}") long pauseMillis,
+                         @Value("${shop.orders.archive.max-chunks-per-run:100}") int maxChunksPerRun) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedOrders = meterRegistry.counter("shop.orders.archived");
+        this.minAge = Duration.ofDays(minAgeDays);
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.maxChunksPerRun = maxChunksPerRun;
+    }
+
+    @Scheduled(initialDelayString = "${shop.orders.archive.interval-millis:600000}", fixedDelayString = "${shop.orders.archive.interval-millis:600000}")
+    public void archive() {
+        Instant createdBefore = Instant.now().minus(minAge);
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            int archived;
+            try {
+                archived = archiveChunk(createdBefore);
+            } catch (RuntimeException exception) {
+                System.out.println("Could not archive the orders, retrying at the next run: " + exception.getMessage());
+                break;
+            }
+            total += archived;
+            if (archived < chunkSize || !pause()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            System.out.println("Archived " + total + " orders created before " + createdBefore);
+        }
+    }
+
+    int archiveChunk(Instant createdBefore) {
+        Integer archived = transactionTemplate.execute(status -> {
+            List<Long> orderIds = orderRepository.lockArchivableOrderIds(createdBefore, chunkSize);
+            return orderRepository.archiveOrders(orderIds, Instant.now());
+        });
+        archivedOrders.increment(archived);
+        return archived;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.practice.onlineShop.aspects;
+
+import com.practice.onlineShop.admission.ConcurrencyLimiter;
+import com.practice.onlineShop.exceptions.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+/**
+ * Order writes and catalog reads each get their own limiter, so a slow database stalling the
+ * order writes can never take the threads that serve the catalog.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 11)
+public class AdmissionControlAspect {
+    private final ConcurrencyLimiter orderWritesLimiter;
+    private final ConcurrencyLimiter catalogReadsLimiter;
+    private final Counter rejectedOrderWrites;
+    private final Counter rejectedCatalogReads;
+
+    public AdmissionControlAspect(@Qualifier("orderWritesLimiter") ConcurrencyLimiter orderWritesLimiter,
+                                  @Qualifier("catalogReadsLimiter") ConcurrencyLimiter catalogReadsLimiter,
+                                  MeterRegistry meterRegistry) {
+        this.orderWritesLimiter = orderWritesLimiter;
+        this.catalogReadsLimiter = catalogReadsLimiter;
+        this.rejectedOrderWrites = meterRegistry.counter("shop.admission.rejected", "bulkhead", "orders");
+        this.rejectedCatalogReads = meterRegistry.counter("shop.admission.rejected", "bulkhead", "catalog");
+    }
+
+    @Pointcut("execution(* com.practice.onlineShop.controllers.OrderController.addOrder(..)) || " +
+            "execution(* com.practice.onlineShop.controllers.OrderController.deliver(..)) || " +
+            "execution(* com.practice.onlineShop.controllers.OrderController.cancelOrder(..)) || " +
+            "execution(* com.practice.onlineShop.controllers.OrderController.returnOrder(..))")
+    public void orderWritesPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.controllers.ProductController.getProduct*(..)) || " +
+            "execution(* com.practice.onlineShop.controllers.ProductController.searchProducts(..))")
+    public void catalogReadsPointcut() {}
+
+    @Around("com.practice.onlineShop.aspects.AdmissionControlAspect.orderWritesPointcut()")
+    public Object admitOrderWrite(ProceedingJoinPoint joinPoint) throws Throwable {
+        return admit(joinPoint, orderWritesLimiter, rejectedOrderWrites);
+    }
+
+    @Around("com.practice.onlineShop.aspects.AdmissionControlAspect.catalogReadsPointcut()")
+    public Object admitCatalogRead(ProceedingJoinPoint joinPoint) throws Throwable {
+        return admit(joinPoint, catalogReadsLimiter, rejectedCatalogReads);
+    }
+
+    private Object admit(ProceedingJoinPoint joinPoint, ConcurrencyLimiter limiter, Counter rejected) throws Throwable {
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            throw new ServiceOverloadedException();
+        }
+
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return joinPoint.proceed();
+        } catch (DataAccessException | TransactionException exception) {
+            overloaded = true;
+            throw exception;
+        } finally {
+            limiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.practice.onlineShop.aspects;
+
+import com.practice.onlineShop.snapshots.ColumnarCatalog;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Serves the catalog listing and the multi-gets, hence the search and filter results too, from the
+ * columnar catalog once it is loaded, instead of the database. Ordered before the read coalescing and the
+ * transaction advice, which the reads it answers do not need.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "shop.catalog.columnar.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ColumnarCatalogAspect {
+    private final ColumnarCatalog columnarCatalog;
+
+    @Pointcut("execution(* com.practice.onlineShop.services.ProductService.getProducts())")
+    public void getProductsPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.services.ProductService.getProductsByIds(..))")
+    public void getProductsByIdsPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.services.ProductService.getProductsByCodes(..))")
+    public void getProductsByCodesPointcut() {}
+
+    @Around("com.practice.onlineShop.aspects.ColumnarCatalogAspect.getProductsPointcut()")
+    public Object getProducts(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!columnarCatalog.isReady()) {
+            return joinPoint.proceed();
+        }
+        return columnarCatalog.getProducts();
+    }
+
+    @Around("com.practice.onlineShop.aspects.ColumnarCatalogAspect.getProductsByIdsPointcut()")
+    @SuppressWarnings("unchecked")
+    public Object getProductsByIds(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!columnarCatalog.isReady()) {
+            return joinPoint.proceed();
+        }
+        return columnarCatalog.getProductsByIds((Collection<Long>) joinPoint.getArgs()[0]);
+    }
+
+    @Around("com.practice.onlineShop.aspects.ColumnarCatalogAspect.getProductsByCodesPointcut()")
+    @SuppressWarnings("unchecked")
+    public Object getProductsByCodes(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!columnarCatalog.isReady()) {
+            return joinPoint.proceed();
+        }
+        return columnarCatalog.getProductsByCodes((Collection<String>) joinPoint.getArgs()[0]);
+    }
+}
@@ -0,0 +1,86 @@
+package com.practice.onlineShop.aspects;
+
+import com.practice.onlineShop.exceptions.TooManyRequestsException;
+import com.practice.onlineShop.ratelimit.RateLimiter;
+import com.practice.onlineShop.vos.OrderVO;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs on the controllers, so a throttled request is rejected before the SecurityAspect
+ * looks the user up and before any service work. Ordered after Spring's ExposeInvocationInterceptor
+ * (HIGHEST_PRECEDENCE + 1), which the JoinPoint of a before advice needs, and before the admission control.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class RateLimitAspect {
+    private final RateLimiter rateLimiter;
+
+    @Pointcut("execution(* com.practice.onlineShop.controllers.ProductController.addProduct(..))")
+    public void addProductPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.controllers.ProductController.updateProduct(..))")
+    public void updateProductPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.controllers.ProductController.deleteProduct(..))")
+    public void deleteProductPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.controllers.ProductController.addStock(..))")
+    public void addStockPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.controllers.OrderController.addOrder(..))")
+    public void addOrderPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.controllers.OrderController.deliver(..))")
+    public void deliverPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.controllers.OrderController.cancelOrder(..))")
+    public void cancelOrderPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.controllers.OrderController.returnOrder(..))")
+    public void returnOrderPointcut() {}
+
+    @Before("com.practice.onlineShop.aspects.RateLimitAspect.addProductPointcut() || " +
+            "com.practice.onlineShop.aspects.RateLimitAspect.updateProductPointcut() || " +
+            "com.practice.onlineShop.aspects.RateLimitAspect.deleteProductPointcut() || " +
+            "com.practice.onlineShop.aspects.RateLimitAspect.deliverPointcut() || " +
+            "com.practice.onlineShop.aspects.RateLimitAspect.cancelOrderPointcut() || " +
+            "com.practice.onlineShop.aspects.RateLimitAspect.returnOrderPointcut()")
+    public void limitByCustomerIdInSecondArgument(JoinPoint joinPoint) {
+        limit((Long) joinPoint.getArgs()[1], joinPoint);
+    }
+
+    @Before("com.practice.onlineShop.aspects.RateLimitAspect.addStockPointcut()")
+    public void limitBeforeAddingStock(JoinPoint joinPoint) {
+        limit((Long) joinPoint.getArgs()[2], joinPoint);
+    }
+
+    @Before("com.practice.onlineShop.aspects.RateLimitAspect.addOrderPointcut()")
+    public void limitBeforeAddingAnOrder(JoinPoint joinPoint) {
+        OrderVO orderVO = (OrderVO) joinPoint.getArgs()[0];
+        if (orderVO != null && orderVO.getUserId() != null) {
+            limit(orderVO.getUserId().longValue(), joinPoint);
+        }
+    }
+
+    private void limit(Long customerId, JoinPoint joinPoint) {
+        if (customerId == null) {
+            return;
+        }
+        String endpoint = joinPoint.getSignature().toShortString();
+        long waitNanos = rateLimiter.acquire(customerId, endpoint);
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+        }
+    }
+}
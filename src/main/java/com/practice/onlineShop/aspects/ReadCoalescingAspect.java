@@ -0,0 +1,56 @@
+package com.practice.onlineShop.aspects;
+
+import com.practice.onlineShop.concurrency.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Concurrent identical product reads share one database query and mapping. Ordered before the transaction advice,
+ * so that the callers waiting on the leader hold no transaction nor connection, and after the columnar catalog,
+ * which answers the catalog reads without the database once it is loaded.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 21)
+public class ReadCoalescingAspect {
+    private static final String ALL_PRODUCTS = "*";
+
+    private final SingleFlight<String, Object> productReads = new SingleFlight<>();
+    private final SingleFlight<String, Object> catalogReads = new SingleFlight<>();
+
+    public ReadCoalescingAspect(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("shop.reads.coalesced", productReads, SingleFlight::getCoalescedCalls)
+                .tag("read", "product")
+                .register(meterRegistry);
+        FunctionCounter.builder("shop.reads.coalesced", catalogReads, SingleFlight::getCoalescedCalls)
+                .tag("read", "catalog")
+                .register(meterRegistry);
+    }
+
+    @Pointcut("execution(* com.practice.onlineShop.services.ProductService.getProduct(..))")
+    public void getProductPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.services.ProductService.getProducts())")
+    public void getProductsPointcut() {}
+
+    @Around("com.practice.onlineShop.aspects.ReadCoalescingAspect.getProductPointcut()")
+    public Object coalesceProductRead(ProceedingJoinPoint joinPoint) throws Throwable {
+        String productCode = (String) joinPoint.getArgs()[0];
+        if (productCode == null) {
+            return joinPoint.proceed();
+        }
+        return productReads.execute(productCode, joinPoint::proceed);
+    }
+
+    @Around("com.practice.onlineShop.aspects.ReadCoalescingAspect.getProductsPointcut()")
+    public Object coalesceCatalogRead(ProceedingJoinPoint joinPoint) throws Throwable {
+        return catalogReads.execute(ALL_PRODUCTS, joinPoint::proceed);
+    }
+}
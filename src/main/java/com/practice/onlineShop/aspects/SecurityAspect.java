@@ -4,6 +4,7 @@ import com.practice.onlineShop.entities.User;
 import com.practice.onlineShop.enums.Roles;
 import com.practice.onlineShop.exceptions.InvalidCustomerIdException;
 import com.practice.onlineShop.exceptions.InvalidOperationException;
+import com.practice.onlineShop.ratelimit.UserRolesCache;
 import com.practice.onlineShop.repositories.UserRepository;
 import com.practice.onlineShop.vos.OrderVO;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +22,7 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class SecurityAspect {
     private final UserRepository userRepository;
+    private final UserRolesCache userRolesCache;
 
     @Pointcut("execution(* com.practice.onlineShop.services.ProductService.addProduct(..))")
     public void addProduct() {}
@@ -46,10 +48,25 @@ public class SecurityAspect {
     @Pointcut("execution(* com.practice.onlineShop.services.OrderService.returnOrder(..))")
     public void returnOrderPointcut() {}
 
+    @Pointcut("execution(* com.practice.onlineShop.services.OrderExportService.prepareExport(..))")
+    public void exportOrdersPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.services.StockService.setReorderThreshold(..))")
+    public void setReorderThresholdPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.services.OrderSummaryService.getOrderSummary(..))")
+    public void getOrderSummaryPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.services.OrderSummaryService.getOrderSummaries(..))")
+    public void getOrderSummariesPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.services.OrderSummaryService.rebuildOrderSummaries(..))")
+    public void rebuildOrderSummariesPointcut() {}
+
     @Before("com.practice.onlineShop.aspects.SecurityAspect.addProduct()")
     public void checkSecurityBeforeAddingProduct(JoinPoint joinPoint) throws InvalidCustomerIdException, InvalidOperationException {
         Long customerId = (Long) joinPoint.getArgs()[1];
-        Optional<User> userOptional = userRepository.findById(customerId);
+        Optional<User> userOptional = findUser(customerId);
 
         if (!userOptional.isPresent()) {
             throw new InvalidCustomerIdException();
@@ -66,7 +83,7 @@ public class SecurityAspect {
     @Before("com.practice.onlineShop.aspects.SecurityAspect.updateProduct()")
     public void checkSecurityBeforeUpdatingProduct(JoinPoint joinPoint) throws InvalidCustomerIdException, InvalidOperationException {
         Long customerId = (Long) joinPoint.getArgs()[1];
-        Optional<User> userOptional = userRepository.findById(customerId);
+        Optional<User> userOptional = findUser(customerId);
 
         if (!userOptional.isPresent()) {
             throw new InvalidCustomerIdException();
@@ -83,7 +100,7 @@ public class SecurityAspect {
     @Before("com.practice.onlineShop.aspects.SecurityAspect.addStock()")
     public void checkSecurityBeforeAddingStock(JoinPoint joinPoint) throws InvalidCustomerIdException, InvalidOperationException {
         Long customerId = (Long) joinPoint.getArgs()[2];
-        Optional<User> userOptional = userRepository.findById(customerId);
+        Optional<User> userOptional = findUser(customerId);
 
         if (!userOptional.isPresent()) {
             throw new InvalidCustomerIdException();
@@ -100,7 +117,7 @@ public class SecurityAspect {
     @Before("com.practice.onlineShop.aspects.SecurityAspect.deleteProduct()")
     public void checkSecurityBeforeDeletingAProduct(JoinPoint joinPoint) throws InvalidCustomerIdException, InvalidOperationException {
         Long customerId = (Long) joinPoint.getArgs()[1];
-        Optional<User> userOptional = userRepository.findById(customerId);
+        Optional<User> userOptional = findUser(customerId);
 
         if (!userOptional.isPresent()) {
             throw new InvalidCustomerIdException();
@@ -121,7 +138,7 @@ public class SecurityAspect {
         if (orderVO.getUserId() == null){
             throw new InvalidCustomerIdException();
         }
-        Optional<User> userOptional = userRepository.findById(orderVO.getUserId().longValue());
+        Optional<User> userOptional = findUser(orderVO.getUserId().longValue());
         
         
         if (!userOptional.isPresent()) {
@@ -137,7 +154,7 @@ public class SecurityAspect {
     @Before("com.practice.onlineShop.aspects.SecurityAspect.deliverPointcut()")
     public void checkSecurityBeforeDeliver(JoinPoint joinPoint) throws InvalidCustomerIdException, InvalidOperationException {
         Long customerId = (Long) joinPoint.getArgs()[1];
-        Optional<User> userOptional = userRepository.findById(customerId.longValue());
+        Optional<User> userOptional = findUser(customerId.longValue());
 
         if (!userOptional.isPresent()) {
             throw new InvalidCustomerIdException();
@@ -154,7 +171,7 @@ public class SecurityAspect {
     @Before("com.practice.onlineShop.aspects.SecurityAspect.cancelOrderPointcut()")
     public void checkSecurityBeforeCancellingOrder(JoinPoint joinPoint) throws InvalidCustomerIdException, InvalidOperationException {
         Long customerId = (Long) joinPoint.getArgs()[1];
-        Optional<User> userOptional = userRepository.findById(customerId.longValue());
+        Optional<User> userOptional = findUser(customerId.longValue());
 
         if (!userOptional.isPresent()) {
             throw new InvalidCustomerIdException();
@@ -171,7 +188,7 @@ public class SecurityAspect {
     @Before("com.practice.onlineShop.aspects.SecurityAspect.returnOrderPointcut()")
     public void checkSecurityBeforeReturningOrder(JoinPoint joinPoint) throws InvalidCustomerIdException, InvalidOperationException {
         Long customerId = (Long) joinPoint.getArgs()[1];
-        Optional<User> userOptional = userRepository.findById(customerId);
+        Optional<User> userOptional = findUser(customerId);
 
         if (!userOptional.isPresent()) {
             throw new InvalidCustomerIdException();
@@ -185,6 +202,80 @@ public class SecurityAspect {
         System.out.println(customerId);
     }
 
+    @Before("com.practice.onlineShop.aspects.SecurityAspect.exportOrdersPointcut()")
+    public void checkSecurityBeforeExportingOrders(JoinPoint joinPoint) throws InvalidCustomerIdException, InvalidOperationException {
+        Long customerId = (Long) joinPoint.getArgs()[0];
+        Optional<User> userOptional = findUser(customerId);
+
+        if (!userOptional.isPresent()) {
+            throw new InvalidCustomerIdException();
+        }
+        User user = userOptional.get();
+
+        if (userIsNotAllowedToExportOrders(user.getRoles())) {
+            throw new InvalidOperationException();
+        }
+
+        System.out.println(customerId);
+    }
+
+    @Before("com.practice.onlineShop.aspects.SecurityAspect.setReorderThresholdPointcut()")
+    public void checkSecurityBeforeSettingReorderThreshold(JoinPoint joinPoint) throws InvalidCustomerIdException, InvalidOperationException {
+        Long customerId = (Long) joinPoint.getArgs()[2];
+        Optional<User> userOptional = findUser(customerId);
+
+        if (!userOptional.isPresent()) {
+            throw new InvalidCustomerIdException();
+        }
+        User user = userOptional.get();
+
+        if (userIsNotAllowedToSetReorderThreshold(user.getRoles())) {
+            throw new InvalidOperationException();
+        }
+
+        System.out.println(customerId);
+    }
+
+    @Before("com.practice.onlineShop.aspects.SecurityAspect.getOrderSummaryPointcut()")
+    public void checkSecurityBeforeReadingAnOrder(JoinPoint joinPoint) throws InvalidCustomerIdException {
+        Long customerId = (Long) joinPoint.getArgs()[1];
+        // the order is only found among the customer's own orders
+        if (!findUser(customerId).isPresent()) {
+            throw new InvalidCustomerIdException();
+        }
+    }
+
+    @Before("com.practice.onlineShop.aspects.SecurityAspect.getOrderSummariesPointcut()")
+    public void checkSecurityBeforeReadingOrders(JoinPoint joinPoint) throws InvalidCustomerIdException {
+        Long customerId = (Long) joinPoint.getArgs()[0];
+        if (!findUser(customerId).isPresent()) {
+            throw new InvalidCustomerIdException();
+        }
+    }
+
+    @Before("com.practice.onlineShop.aspects.SecurityAspect.rebuildOrderSummariesPointcut()")
+    public void checkSecurityBeforeRebuildingOrderSummaries(JoinPoint joinPoint) throws InvalidCustomerIdException, InvalidOperationException {
+        Long customerId = (Long) joinPoint.getArgs()[0];
+        Optional<User> userOptional = findUser(customerId);
+
+        if (!userOptional.isPresent()) {
+            throw new InvalidCustomerIdException();
+        }
+        User user = userOptional.get();
+
+        if (userIsNotAllowedToRebuildOrderSummaries(user.getRoles())) {
+            throw new InvalidOperationException();
+        }
+
+        System.out.println(customerId);
+    }
+
+    private Optional<User> findUser(Long customerId) {
+        Optional<User> userOptional = userRepository.findById(customerId);
+        userOptional.ifPresent(user -> userRolesCache.put(user.getId(), user.getRoles()));
+        return userOptional;
+    }
+
     private boolean userIsNotAllowedToAddStock(Collection<Roles> roles) {
         return !roles.contains(Roles.ADMIN);
     }
@@ -213,6 +304,18 @@ public class SecurityAspect {
         return !roles.contains(Roles.ADMIN);
     }
 
+    private boolean userIsNotAllowedToExportOrders(Collection<Roles> roles) {
+        return !roles.contains(Roles.ADMIN);
+    }
+
+    private boolean userIsNotAllowedToSetReorderThreshold(Collection<Roles> roles) {
+        return !roles.contains(Roles.ADMIN);
+    }
+
+    private boolean userIsNotAllowedToRebuildOrderSummaries(Collection<Roles> roles) {
+        return !roles.contains(Roles.ADMIN);
+    }
+
     private boolean userIsNotAllowedToUpdateProduct(Collection<Roles> roles) {
         return !roles.contains(Roles.ADMIN) && !roles.contains(Roles.EDITOR);
     }
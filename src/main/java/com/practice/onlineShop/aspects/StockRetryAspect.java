@@ -0,0 +1,83 @@
+package com.practice.onlineShop.aspects;
+
+import com.practice.onlineShop.concurrency.StockLockingStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries the stock changing operations when they lose an optimistic race. Ordered before the
+ * transaction advice so that every attempt runs in a fresh transaction.
+ */
+@Aspect
+@Component
+@Order(0)
+public class StockRetryAspect {
+    private final StockLockingStrategy stockLockingStrategy;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final Counter conflictCounter;
+    private final Counter retryCounter;
+
+    public StockRetryAspect(StockLockingStrategy stockLockingStrategy, MeterRegistry meterRegistry,
+                            @Value("${shop.stock.optimistic.max-attempts:5}") int maxAttempts,
+                            @Value("${shop.stock.optimistic.backoff-millis:10}") long backoffMillis) {
+        this.stockLockingStrategy = stockLockingStrategy;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.conflictCounter = meterRegistry.counter("shop.stock.conflicts");
+        this.retryCounter = meterRegistry.counter("shop.stock.retries");
+    }
+
+    @Pointcut("execution(* com.practice.onlineShop.services.OrderService.addOrder(..))")
+    public void addOrderPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.services.OrderService.returnOrder(..))")
+    public void returnOrderPointcut() {}
+
+    @Pointcut("execution(* com.practice.onlineShop.services.ProductService.addStock(..))")
+    public void addStockPointcut() {}
+
+    @Around("com.practice.onlineShop.aspects.StockRetryAspect.addOrderPointcut() || " +
+            "com.practice.onlineShop.aspects.StockRetryAspect.returnOrderPointcut() || " +
+            "com.practice.onlineShop.aspects.StockRetryAspect.addStockPointcut()")
+    public Object retryOnStockConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!stockLockingStrategy.isRetryingOnConflict()) {
+            return joinPoint.proceed();
+        }
+
+        int attempt = 1;
+        while (true) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException exception) {
+                conflictCounter.increment();
+                if (attempt >= maxAttempts) {
+                    throw exception;
+                }
+                retryCounter.increment();
+                sleepWithJitter(attempt, exception);
+                attempt++;
+            }
+        }
+    }
+
+    private void sleepWithJitter(int attempt, OptimisticLockingFailureException exception) {
+        long maxBackoff = backoffMillis << Math.min(attempt, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxBackoff + 1));
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.practice.onlineShop.caches;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The catalog serialized once for a given catalog version: JSON, gzip compressed JSON and CBOR. Never modified after creation.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CatalogPayload {
+    private final long version;
+    private final byte[] json;
+    private final byte[] gzippedJson;
+    private final byte[] cbor;
+}
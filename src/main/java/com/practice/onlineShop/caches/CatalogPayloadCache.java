@@ -0,0 +1,158 @@
+package com.practice.onlineShop.caches;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.concurrency.SingleFlight;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.events.ProductChangeListener;
+import com.practice.onlineShop.rates.ExchangeRatesChangedEvent;
+import com.practice.onlineShop.services.ProductService;
+import com.practice.onlineShop.vos.ProductVO;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps GET /product serialized. Every committed product change bumps the catalog version and
+ * schedules one background rebuild; readers never wait for it and keep getting the previous payload meanwhile.
+ * Only before the first payload is there, readers wait for the catalog, all of them on one shared rendering.
+ * The catalog converted to a currency is kept the same way, from the first time that currency is asked for;
+ * new exchange rates count as a catalog change.
+ */
+@Component
+public class CatalogPayloadCache implements ProductChangeListener {
+    private final ProductService productService;
+    private final ConvertedPriceTable convertedPriceTable;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborObjectMapper;
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicReference<CatalogPayload> payload = new AtomicReference<>();
+    private final Map<Currencies, AtomicReference<CatalogPayload>> convertedPayloads = new EnumMap<>(Currencies.class);
+    private final SingleFlight<String, CatalogPayload> firstRenders = new SingleFlight<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-payload-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CatalogPayloadCache(ProductService productService, ConvertedPriceTable convertedPriceTable, ObjectMapper objectMapper,
+                               MappingJackson2CborHttpMessageConverter cborHttpMessageConverter) {
+        this.productService = productService;
+        this.convertedPriceTable = convertedPriceTable;
+        this.objectMapper = objectMapper;
+        this.cborObjectMapper = cborHttpMessageConverter.getObjectMapper();
+        for (Currencies currency : Currencies.values()) {
+            convertedPayloads.put(currency, new AtomicReference<>());
+        }
+    }
+
+    /**
+     * @param currency the currency to convert every price to, none if null
+     */
+    public CatalogPayload getPayload(Currencies currency) throws IOException {
+        AtomicReference<CatalogPayload> payloadReference = currency == null ? payload : convertedPayloads.get(currency);
+        CatalogPayload cachedPayload = payloadReference.get();
+        if (cachedPayload != null) {
+            return cachedPayload;
+        }
+        try {
+            return firstRenders.execute(currency == null ? "" : currency.name(), () -> {
+                CatalogPayload renderedPayload = payloadReference.get();
+                return renderedPayload != null ? renderedPayload : render(currency, payloadReference);
+            });
+        } catch (IOException | RuntimeException | Error exception) {
+            throw exception;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        catalogChanged();
+    }
+
+    @Override
+    public void onProductDeleted(Product product) {
+        catalogChanged();
+    }
+
+    @EventListener
+    public void onExchangeRatesChanged(ExchangeRatesChangedEvent exchangeRatesChangedEvent) {
+        catalogChanged();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    render(null, payload);
+                    for (Map.Entry<Currencies, AtomicReference<CatalogPayload>> convertedPayload : convertedPayloads.entrySet()) {
+                        if (convertedPayload.getValue().get() != null) {
+                            render(convertedPayload.getKey(), convertedPayload.getValue());
+                        }
+                    }
+                } catch (Exception exception) {
+                    System.out.println("Could not rebuild the catalog payload: " + exception.getMessage());
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private void catalogChanged() {
+        catalogVersion.incrementAndGet();
+        scheduleRebuild();
+    }
+
+    private CatalogPayload render(Currencies currency, AtomicReference<CatalogPayload> payloadReference) throws IOException {
+        // the version is read before the products: a change committed meanwhile leaves this payload stale, never wrong
+        long version = catalogVersion.get();
+        ProductVO[] products = productService.getProducts().toArray(new ProductVO[]{});
+        if (currency != null) {
+            for (int i = 0; i < products.length; i++) {
+                products[i] = convertedPriceTable.convert(products[i], currency);
+            }
+        }
+        byte[] json = objectMapper.writeValueAsBytes(products);
+        CatalogPayload renderedPayload = new CatalogPayload(version, json, gzip(json), cborObjectMapper.writeValueAsBytes(products));
+
+        CatalogPayload cachedPayload = payloadReference.get();
+        while (cachedPayload == null || cachedPayload.getVersion() < version) {
+            if (payloadReference.compareAndSet(cachedPayload, renderedPayload)) {
+                break;
+            }
+            cachedPayload = payloadReference.get();
+        }
+        return renderedPayload;
+    }
+
+    private byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(json);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,147 @@
+package com.practice.onlineShop.caches;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.events.ProductChangeListener;
+import com.practice.onlineShop.rates.ExchangeRates;
+import com.practice.onlineShop.rates.ExchangeRatesChangedEvent;
+import com.practice.onlineShop.rates.RateTable;
+import com.practice.onlineShop.vos.ProductVO;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The price of every product already converted to every currency, one column per currency. A product
+ * write converts that product only, new exchange rates convert the whole catalog once. A read whose
+ * price does not match the table yet (the change is not committed or not published) is converted on the spot.
+ */
+@Component
+public class ConvertedPriceTable implements ProductChangeListener {
+    private static final Currencies[] CURRENCIES = Currencies.values();
+
+    private final ExchangeRates exchangeRates;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> positionsById = new HashMap<>();
+    private final BitSet usedPositions = new BitSet();
+    private double[] prices = new double[1024];
+    private byte[] currencyOrdinals = new byte[1024];
+    private double[][] convertedPrices = new double[CURRENCIES.length][1024];
+    private RateTable rateTable;
+
+    public ConvertedPriceTable(ExchangeRates exchangeRates) {
+        this.exchangeRates = exchangeRates;
+        this.rateTable = exchangeRates.getRateTable();
+    }
+
+    /**
+     * A copy of the product with its price in the given currency, the product itself if no currency is given.
+     * Never modifies the product: a coalesced read hands the same one to several callers.
+     */
+    public ProductVO convert(ProductVO productVO, Currencies currency) {
+        if (currency == null || productVO.getCurrency() == null || productVO.getCurrency() == currency) {
+            return productVO;
+        }
+
+        double convertedPrice;
+        lock.readLock().lock();
+        try {
+            Integer position = positionsById.get(productVO.getId());
+            if (position != null && rateTable == exchangeRates.getRateTable()
+                    && prices[position] == productVO.getPrice() && currencyOrdinals[position] == productVO.getCurrency().ordinal()) {
+                convertedPrice = convertedPrices[currency.ordinal()][position];
+            } else {
+                convertedPrice = exchangeRates.getRateTable().convert(productVO.getPrice(), productVO.getCurrency(), currency);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        ProductVO convertedProductVO = new ProductVO();
+        convertedProductVO.setId(productVO.getId());
+        convertedProductVO.setCode(productVO.getCode());
+        convertedProductVO.setDescription(productVO.getDescription());
+        convertedProductVO.setStock(productVO.getStock());
+        convertedProductVO.setValid(productVO.isValid());
+        convertedProductVO.setPrice(convertedPrice);
+        convertedProductVO.setCurrency(currency);
+        return convertedProductVO;
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        if (product.getCurrency() == null) {
+            onProductDeleted(product);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer position = positionsById.get(product.getId());
+            if (position == null) {
+                position = usedPositions.nextClearBit(0);
+                if (position == prices.length) {
+                    grow();
+                }
+                usedPositions.set(position);
+                positionsById.put(product.getId(), position);
+            }
+            prices[position] = product.getPrice();
+            currencyOrdinals[position] = (byte) product.getCurrency().ordinal();
+            convert(position);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product product) {
+        lock.writeLock().lock();
+        try {
+            Integer position = positionsById.remove(product.getId());
+            if (position != null) {
+                usedPositions.clear(position);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean requiresInitialLoad() {
+        return true;
+    }
+
+    @EventListener
+    public void onExchangeRatesChanged(ExchangeRatesChangedEvent exchangeRatesChangedEvent) {
+        lock.writeLock().lock();
+        try {
+            rateTable = exchangeRatesChangedEvent.getRateTable();
+            for (int position = usedPositions.nextSetBit(0); position >= 0; position = usedPositions.nextSetBit(position + 1)) {
+                convert(position);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void convert(int position) {
+        Currencies currency = CURRENCIES[currencyOrdinals[position]];
+        for (Currencies targetCurrency : CURRENCIES) {
+            convertedPrices[targetCurrency.ordinal()][position] = rateTable.convert(prices[position], currency, targetCurrency);
+        }
+    }
+
+    private void grow() {
+        int capacity = prices.length * 2;
+        prices = Arrays.copyOf(prices, capacity);
+        currencyOrdinals = Arrays.copyOf(currencyOrdinals, capacity);
+        for (int currency = 0; currency < convertedPrices.length; currency++) {
+            convertedPrices[currency] = Arrays.copyOf(convertedPrices[currency], capacity);
+        }
+    }
+}
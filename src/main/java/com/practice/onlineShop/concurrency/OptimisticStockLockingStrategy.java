@@ -0,0 +1,34 @@
+package com.practice.onlineShop.concurrency;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Takes no lock at all; a concurrent change is detected through {@link Product#getVersion()} when the
+ * transaction flushes, and the whole operation is then retried by the StockRetryAspect.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.stock.concurrency", havingValue = "optimistic", matchIfMissing = true)
+@RequiredArgsConstructor
+public class OptimisticStockLockingStrategy implements StockLockingStrategy {
+    private final ProductRepository productRepository;
+
+    @Override
+    public Map<Long, Product> lockForStockUpdate(Collection<Long> productIds) {
+        Map<Long, Product> products = new LinkedHashMap<>();
+        productRepository.findAllById(productIds).forEach(product -> products.put(product.getId(), product));
+        return products;
+    }
+
+    @Override
+    public boolean isRetryingOnConflict() {
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package com.practice.onlineShop.concurrency;
+
+import com.practice.onlineShop.entities.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes a row lock (select ... for update) on every product before its stock is touched.
+ * The locks are always acquired in ascending id order, so two orders sharing products can never
+ * wait on each other in a cycle.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.stock.concurrency", havingValue = "pessimistic")
+public class PessimisticStockLockingStrategy implements StockLockingStrategy {
+    private final EntityManager entityManager;
+    private final Timer lockWaitTimer;
+    private final Map<String, Object> lockHints;
+
+    public PessimisticStockLockingStrategy(EntityManager entityManager, MeterRegistry meterRegistry,
+                                           @Value("${shop.stock.pessimistic.lock-timeout-millis:3000}") long lockTimeoutMillis) {
+        this.entityManager = entityManager;
+        this.lockWaitTimer = meterRegistry.timer("shop.stock.lock.wait");
+        this.lockHints = Collections.singletonMap("javax.persistence.lock.timeout", lockTimeoutMillis);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Product> lockForStockUpdate(Collection<Long> productIds) {
+        Map<Long, Product> lockedProducts = new LinkedHashMap<>();
+        for (Long productId : new TreeSet<>(productIds)) {
+            long start = System.nanoTime();
+            Product product = entityManager.find(Product.class, productId);
+            if (product != null) {
+                // refresh instead of find(..., lock): the product may already be in the persistence context
+                // with a state read before the lock was taken
+                entityManager.refresh(product, LockModeType.PESSIMISTIC_WRITE, lockHints);
+                lockedProducts.put(productId, product);
+            }
+            lockWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return lockedProducts;
+    }
+
+    @Override
+    public boolean isRetryingOnConflict() {
+        return false;
+    }
+}
@@ -0,0 +1,50 @@
+package com.practice.onlineShop.concurrency;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collapses concurrent calls for the same key: the first caller runs the call, the others wait for it
+ * and get the same result, or the same exception.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlightCalls = new ConcurrentHashMap<>();
+    private final LongAdder coalescedCalls = new LongAdder();
+
+    public V execute(K key, Call<V> call) throws Throwable {
+        CompletableFuture<V> ownCall = new CompletableFuture<>();
+        CompletableFuture<V> runningCall = inFlightCalls.putIfAbsent(key, ownCall);
+
+        if (runningCall != null) {
+            coalescedCalls.increment();
+            try {
+                return runningCall.get();
+            } catch (ExecutionException exception) {
+                throw exception.getCause();
+            }
+        }
+
+        try {
+            V result = call.call();
+            ownCall.complete(result);
+            return result;
+        } catch (Throwable throwable) {
+            ownCall.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            inFlightCalls.remove(key, ownCall);
+        }
+    }
+
+    public long getCoalescedCalls() {
+        return coalescedCalls.sum();
+    }
+
+    @FunctionalInterface
+    public interface Call<V> {
+        V call() throws Throwable;
+    }
+}
@@ -0,0 +1,21 @@
+package com.practice.onlineShop.concurrency;
+
+import com.practice.onlineShop.entities.Product;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface StockLockingStrategy {
+
+    /**
+     * Loads the products whose stock is about to change, guarded according to the strategy.
+     * Must be called inside the transaction which modifies the stock, before any stock is read.
+     * Ids that do not exist are simply absent from the returned map.
+     */
+    Map<Long, Product> lockForStockUpdate(Collection<Long> productIds);
+
+    /**
+     * Whether a stock update which failed on a concurrent modification should be retried.
+     */
+    boolean isRetryingOnConflict();
+}
@@ -0,0 +1,38 @@
+package com.practice.onlineShop.controllers;
+
+import com.practice.onlineShop.exceptions.InvalidProductCodeException;
+import com.practice.onlineShop.exceptions.InvalidStockThresholdException;
+import com.practice.onlineShop.inventory.InventoryValuation;
+import com.practice.onlineShop.inventory.LowStockWatcher;
+import com.practice.onlineShop.services.StockService;
+import com.practice.onlineShop.vos.InventoryValuationVO;
+import com.practice.onlineShop.vos.LowStockProductVO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/inventory")
+@RequiredArgsConstructor
+public class InventoryController {
+    private final InventoryValuation inventoryValuation;
+    private final LowStockWatcher lowStockWatcher;
+    private final StockService stockService;
+
+    @GetMapping("/valuation")
+    public InventoryValuationVO getValuation() {
+        return inventoryValuation.getValuation();
+    }
+
+    @GetMapping("/low-stock")
+    public List<LowStockProductVO> getLowOnStock() {
+        return lowStockWatcher.getLowOnStock();
+    }
+
+    @PutMapping("/low-stock/{productCode}/{threshold}/{customerId}")
+    public void setReorderThreshold(@PathVariable String productCode, @PathVariable Integer threshold, @PathVariable Long customerId)
+            throws InvalidProductCodeException, InvalidStockThresholdException {
+        stockService.setReorderThreshold(productCode, threshold, customerId);
+    }
+}
@@ -1,19 +1,36 @@
 package com.practice.onlineShop.controllers;
 
+import com.practice.onlineShop.enums.ExportFormats;
 import com.practice.onlineShop.exceptions.*;
+import com.practice.onlineShop.indexes.ProductExistenceFilter;
+import com.practice.onlineShop.services.OrderExportService;
 import com.practice.onlineShop.services.OrderService;
+import com.practice.onlineShop.services.OrderSummaryService;
+import com.practice.onlineShop.vos.OrderSummaryVO;
 import com.practice.onlineShop.vos.OrderVO;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/order")
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderSummaryService orderSummaryService;
+    private final ProductExistenceFilter productExistenceFilter;
 
     @PostMapping
     public void addOrder (@RequestBody OrderVO orderVO) throws InvalidProductsException, InvalidCustomerIdException, InvalidProductIdException, NotEnoughStockException {
+        rejectUnknownProducts(orderVO);
         orderService.addOrder(orderVO);
     }
 
@@ -31,6 +48,58 @@ public class OrderController {
     public void returnOrder(@PathVariable Integer orderId, @PathVariable Long customerId) throws InvalidOrderIdException, OrderNotDeliveredYetException, OrderCanceledException {
         orderService.returnOrder(orderId, customerId);
     }
+
+    @GetMapping("/{orderId}/{customerId}")
+    public OrderSummaryVO getOrder(@PathVariable Integer orderId, @PathVariable Long customerId) throws InvalidOrderIdException {
+        return orderSummaryService.getOrderSummary(orderId, customerId);
+    }
+
+    @GetMapping("/user/{customerId}")
+    public List<OrderSummaryVO> getOrders(@PathVariable Long customerId,
+                                          @RequestParam(defaultValue = "0") long afterOrderId,
+                                          @RequestParam(defaultValue = "100") int limit) {
+        return orderSummaryService.getOrderSummaries(customerId, afterOrderId, limit);
+    }
+
+    @PostMapping("/summaries/rebuild/{customerId}")
+    public int rebuildOrderSummaries(@PathVariable Long customerId) {
+        return orderSummaryService.rebuildOrderSummaries(customerId);
+    }
+
+    @GetMapping("/export/{customerId}")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@PathVariable Long customerId,
+                                                              @RequestParam(defaultValue = "CSV") ExportFormats format,
+                                                              @RequestParam(required = false) Long fromOrderId,
+                                                              @RequestParam(required = false) Long toOrderId,
+                                                              @RequestParam(required = false) Instant fromDate,
+                                                              @RequestParam(required = false) Instant toDate,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws InvalidExportRangeException {
+        orderExportService.prepareExport(customerId, fromOrderId, toOrderId, fromDate, toDate);
+
+        boolean gzip = AcceptEncoding.acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format == ExportFormats.NDJSON ? MediaType.parseMediaType("application/x-ndjson") : MediaType.parseMediaType("text/csv;charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + format.name().toLowerCase() + "\"");
+        if (!gzip) {
+            return response.body(outputStream -> orderExportService.export(format, fromOrderId, toOrderId, fromDate, toDate, outputStream));
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(outputStream -> {
+            GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 8192);
+            orderExportService.export(format, fromOrderId, toOrderId, fromDate, toDate, gzipOutputStream);
+            gzipOutputStream.finish();
+        });
+    }
+
+    private void rejectUnknownProducts(OrderVO orderVO) throws InvalidProductIdException {
+        if (orderVO == null || orderVO.getProductsIdsToQuantity() == null) {
+            return;
+        }
+        for (Integer productId : orderVO.getProductsIdsToQuantity().keySet()) {
+            if (productId != null && !productExistenceFilter.mightContainId(productId)) {
+                throw new InvalidProductIdException();
+            }
+        }
+    }
 }
 
 
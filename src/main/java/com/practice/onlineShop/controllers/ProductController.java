@@ -1,16 +1,55 @@
 package com.practice.onlineShop.controllers;
 
+import com.practice.onlineShop.caches.CatalogPayload;
+import com.practice.onlineShop.caches.CatalogPayloadCache;
+import com.practice.onlineShop.caches.ConvertedPriceTable;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.exceptions.InvalidFieldsException;
 import com.practice.onlineShop.exceptions.InvalidProductCodeException;
+import com.practice.onlineShop.exceptions.InvalidProductQueryException;
+import com.practice.onlineShop.exceptions.TooManyProductKeysException;
+import com.practice.onlineShop.indexes.ProductCodeAutocomplete;
+import com.practice.onlineShop.indexes.ProductExistenceFilter;
+import com.practice.onlineShop.services.ProductFacetService;
+import com.practice.onlineShop.services.ProductSearchService;
 import com.practice.onlineShop.services.ProductService;
+import com.practice.onlineShop.vos.ProductBatchVO;
+import com.practice.onlineShop.vos.ProductFacetsResultVO;
+import com.practice.onlineShop.vos.ProductFilterVO;
+import com.practice.onlineShop.vos.ProductSearchResultVO;
 import com.practice.onlineShop.vos.ProductVO;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/product")
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final ProductExistenceFilter productExistenceFilter;
+    private final CatalogPayloadCache catalogPayloadCache;
+    private final ProductSearchService productSearchService;
+    private final ProductCodeAutocomplete productCodeAutocomplete;
+    private final ProductFacetService productFacetService;
+    private final ConvertedPriceTable convertedPriceTable;
+
+    @Value("${shop.product.multi-get.max-keys:100}")
+    private int multiGetMaxKeys;
+
+    @Value("${shop.autocomplete.max-results:50}")
+    private int autocompleteMaxResults;
 
     @PostMapping("/{customerId}")
     public void addProduct(@RequestBody ProductVO productVO, @PathVariable Long customerId) {
@@ -18,13 +57,104 @@ public class ProductController {
     }
 
     @GetMapping("/{productCode}")
-    public ProductVO getProduct(@PathVariable String productCode) throws InvalidProductCodeException {
-        return productService.getProduct(productCode);
+    public ProductVO getProduct(@PathVariable String productCode,
+                                @RequestParam(required = false) Currencies currency) throws InvalidProductCodeException {
+        if (!productExistenceFilter.mightContainCode(productCode)) {
+            throw new InvalidProductCodeException();
+        }
+        return convertedPriceTable.convert(productService.getProduct(productCode), currency);
     }
 
     @GetMapping
-    public ProductVO[] getProducts() {
-        return productService.getProducts().toArray(new ProductVO[]{});
+    public ResponseEntity<byte[]> getProducts(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                              @RequestParam(required = false) Currencies currency) throws IOException {
+        CatalogPayload catalogPayload = catalogPayloadCache.getPayload(currency);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+
+        if (prefersCbor(accept)) {
+            return response.contentType(MediaType.APPLICATION_CBOR).body(catalogPayload.getCbor());
+        }
+        response.contentType(MediaType.APPLICATION_JSON);
+        if (AcceptEncoding.acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(catalogPayload.getGzippedJson());
+        }
+        return response.body(catalogPayload.getJson());
+    }
+
+    @GetMapping(params = "fields")
+    public List<Map<String, Object>> getProductsWithFields(@RequestParam String fields,
+                                                           @RequestParam(required = false) String codes,
+                                                           @RequestParam(required = false) String ids,
+                                                           @RequestParam(required = false) String prefix,
+                                                           @RequestParam(required = false) String q) throws InvalidFieldsException, InvalidProductQueryException {
+        verifyNoOtherQuery(codes, ids, prefix, q);
+        return productService.getProducts(fields);
+    }
+
+    @GetMapping(params = {"codes", "!fields"})
+    public ProductBatchVO getProductsByCodes(@RequestParam List<String> codes,
+                                             @RequestParam(required = false) String ids,
+                                             @RequestParam(required = false) String prefix,
+                                             @RequestParam(required = false) String q) throws TooManyProductKeysException, InvalidProductQueryException {
+        verifyNoOtherQuery(ids, prefix, q);
+        verifyNumberOfKeys(codes);
+        Set<String> codesToLoad = new LinkedHashSet<>();
+        Set<String> unknownCodes = new LinkedHashSet<>();
+        for (String code : codes) {
+            if (productExistenceFilter.mightContainCode(code)) {
+                codesToLoad.add(code);
+            } else {
+                unknownCodes.add(code);
+            }
+        }
+
+        ProductBatchVO productBatchVO = codesToLoad.isEmpty() ? new ProductBatchVO() : productService.getProductsByCodes(codesToLoad);
+        productBatchVO.getMissingKeys().addAll(unknownCodes);
+        sortMissingKeys(productBatchVO, codes);
+        return productBatchVO;
+    }
+
+    @GetMapping(params = {"ids", "!fields", "!codes"})
+    public ProductBatchVO getProductsByIds(@RequestParam List<Long> ids,
+                                           @RequestParam(required = false) String prefix,
+                                           @RequestParam(required = false) String q) throws TooManyProductKeysException, InvalidProductQueryException {
+        verifyNoOtherQuery(prefix, q);
+        verifyNumberOfKeys(ids);
+        Set<Long> idsToLoad = new LinkedHashSet<>();
+        Set<String> unknownIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (productExistenceFilter.mightContainId(id)) {
+                idsToLoad.add(id);
+            } else {
+                unknownIds.add(String.valueOf(id));
+            }
+        }
+
+        ProductBatchVO productBatchVO = idsToLoad.isEmpty() ? new ProductBatchVO() : productService.getProductsByIds(idsToLoad);
+        productBatchVO.getMissingKeys().addAll(unknownIds);
+        sortMissingKeys(productBatchVO, ids);
+        return productBatchVO;
+    }
+
+    @GetMapping("/filter")
+    public ProductFacetsResultVO getProductsByFacets(ProductFilterVO productFilterVO) {
+        return productFacetService.filter(productFilterVO);
+    }
+
+    @GetMapping(params = {"prefix", "!fields", "!codes", "!ids"})
+    public List<String> getProductCodes(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit,
+                                        @RequestParam(required = false) String q) throws InvalidProductQueryException {
+        verifyNoOtherQuery(q);
+        return productCodeAutocomplete.complete(prefix, Math.max(0, Math.min(limit, autocompleteMaxResults)));
+    }
+
+    @GetMapping(params = {"q", "!fields", "!codes", "!ids", "!prefix"})
+    public ProductSearchResultVO searchProducts(@RequestParam String q,
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(defaultValue = "20") int size) {
+        return productSearchService.search(q, page, size);
     }
 
     @PutMapping("/{customerId}")
@@ -41,6 +171,51 @@ public class ProductController {
     public void addStock(@PathVariable String productCode, @PathVariable Integer quantity, @PathVariable Long customerId) throws InvalidProductCodeException {
         productService.addStock(productCode, quantity, customerId);
     }
+
+    // only one of fields, codes, ids, prefix and q per request, each mapping takes the ones after it to reject them
+    private void verifyNoOtherQuery(String... otherQueries) throws InvalidProductQueryException {
+        for (String otherQuery : otherQueries) {
+            if (otherQuery != null) {
+                throw new InvalidProductQueryException();
+            }
+        }
+    }
+
+    private void verifyNumberOfKeys(List<?> keys) throws TooManyProductKeysException {
+        if (keys.size() > multiGetMaxKeys) {
+            throw new TooManyProductKeysException();
+        }
+    }
+
+    // the keys the bloom filter rejected are found before the loaded ones, so put them back in the order they were asked for
+    private void sortMissingKeys(ProductBatchVO productBatchVO, List<?> requestedKeys) {
+        Set<String> missingKeys = new HashSet<>(productBatchVO.getMissingKeys());
+        Set<String> sortedMissingKeys = new LinkedHashSet<>();
+        for (Object requestedKey : requestedKeys) {
+            String key = String.valueOf(requestedKey);
+            if (missingKeys.contains(key)) {
+                sortedMissingKeys.add(key);
+            }
+        }
+        productBatchVO.setMissingKeys(new ArrayList<>(sortedMissingKeys));
+    }
+
+    private boolean prefersCbor(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> acceptedMediaTypes = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptedMediaTypes);
+        for (MediaType acceptedMediaType : acceptedMediaTypes) {
+            if (acceptedMediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+            if (acceptedMediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
 
 
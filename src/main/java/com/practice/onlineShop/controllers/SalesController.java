@@ -0,0 +1,39 @@
+package com.practice.onlineShop.controllers;
+
+import com.practice.onlineShop.sales.SalesCounters;
+import com.practice.onlineShop.sales.SalesTimeSeries;
+import com.practice.onlineShop.vos.ProductSalesVO;
+import com.practice.onlineShop.vos.SalesSeriesVO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@RestController
+@RequestMapping("/sales")
+@RequiredArgsConstructor
+public class SalesController {
+    private final SalesCounters salesCounters;
+    private final SalesTimeSeries salesTimeSeries;
+
+    @GetMapping("/top")
+    public List<ProductSalesVO> getTopSellers(@RequestParam(defaultValue = "10") int limit) {
+        return salesCounters.getTopSellers(Math.max(0, limit));
+    }
+
+    @GetMapping("/series")
+    public SalesSeriesVO getSalesSeries(@RequestParam(required = false) Long productId,
+                                        @RequestParam(required = false) Instant from,
+                                        @RequestParam(required = false) Instant to) {
+        Instant seriesEnd = to == null ? Instant.now() : to;
+        Instant seriesStart = from == null ? seriesEnd.minus(59, ChronoUnit.MINUTES) : from;
+        return salesTimeSeries.getSeries(productId, seriesStart, seriesEnd);
+    }
+
+    @GetMapping("/{productId}")
+    public ProductSalesVO getProductSales(@PathVariable long productId) {
+        return new ProductSalesVO(productId, salesCounters.getUnitsSold(productId));
+    }
+}
@@ -0,0 +1,26 @@
+package com.practice.onlineShop.entities;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ * A closed order moved out of the orders table by the order archiver, under its original id.
+ * Only references the user by id, so that it keeps no constraint on the live tables.
+ */
+@Entity
+@Getter
+@Setter
+public class ArchivedOrder {
+    @Id
+    private long id;
+    private Long userId;
+    private boolean isDelivered;
+    private boolean isReturned;
+    private boolean isCanceled;
+    private Instant createdAt;
+    private Instant archivedAt;
+}
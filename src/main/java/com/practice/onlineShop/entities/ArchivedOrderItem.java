@@ -0,0 +1,30 @@
+package com.practice.onlineShop.entities;
+
+import com.practice.onlineShop.enums.Currencies;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * An item of an {@link ArchivedOrder}, under its original id.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "orderId"))
+@Getter
+@Setter
+public class ArchivedOrderItem {
+    @Id
+    private long id;
+    private long orderId;
+    private Long productId;
+    private int quantity;
+    private Double price;
+    @Enumerated(EnumType.STRING)
+    private Currencies currency;
+}
@@ -1,5 +1,6 @@
 package com.practice.onlineShop.entities;
 
+import com.practice.onlineShop.enums.Currencies;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -18,4 +19,9 @@ public class OrderItem {
     private Product product;
 
     private int quantity;
+
+    // the price of the product when the order was placed, none for the items placed before it was kept
+    private Double price;
+    @Enumerated(EnumType.STRING)
+    private Currencies currency;
 }
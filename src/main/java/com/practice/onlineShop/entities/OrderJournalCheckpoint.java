@@ -0,0 +1,22 @@
+package com.practice.onlineShop.entities;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * The last order journal record applied to the database, saved in the same transaction as the order it placed.
+ * A single row.
+ */
+@Entity
+@Setter
+@Getter
+public class OrderJournalCheckpoint {
+    public static final int ID = 1;
+
+    @Id
+    private int id = ID;
+    private long appliedSequence;
+}
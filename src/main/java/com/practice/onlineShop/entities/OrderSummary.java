@@ -0,0 +1,31 @@
+package com.practice.onlineShop.entities;
+
+import com.practice.onlineShop.enums.OrderStatuses;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * An order as it is read: its status and totals, computed when it is placed and kept up to date by the order service,
+ * so that reading orders never joins their items, products or user. Kept under the order id whether the order is live
+ * or archived. The totals are in cents per currency, at the prices the order was placed at.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "userId, orderId"))
+@Getter
+@Setter
+public class OrderSummary {
+    @Id
+    private long orderId;
+    private long userId;
+    @Enumerated(EnumType.STRING)
+    private OrderStatuses status;
+    private int lineCount;
+    private int totalQuantity;
+    private long totalEurCents;
+    private long totalUsdCents;
+    private long totalRonCents;
+    private Instant createdAt;
+}
@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import javax.persistence.*;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 
@@ -26,5 +27,7 @@ public class Orders {
     private boolean isDelivered;
     private boolean isReturned;
     private boolean isCanceled;
+    @Column(updatable = false)
+    private Instant createdAt;
 
 }
@@ -0,0 +1,30 @@
+package com.practice.onlineShop.entities;
+
+import com.practice.onlineShop.enums.OutboxEventTypes;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * An event for other services, written in the transaction of the change it describes and deleted once the
+ * outbox relay published it. The payload is JSON.
+ */
+@Entity
+@Getter
+@Setter
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Enumerated(EnumType.STRING)
+    private OutboxEventTypes type;
+    private String aggregateType;
+    private long aggregateId;
+    @Lob
+    private String payload;
+    private Instant createdAt;
+}
@@ -21,4 +21,6 @@ public class Product {
     private boolean valid;
     @Enumerated(EnumType.STRING)
     private Currencies currency;
+    @Version
+    private long version;
 }
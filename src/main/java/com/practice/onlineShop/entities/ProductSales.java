@@ -0,0 +1,20 @@
+package com.practice.onlineShop.entities;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Units sold of a product, over all the orders that were neither canceled nor returned.
+ * Maintained by the sales counters, never computed from the orders once filled.
+ */
+@Entity
+@Setter
+@Getter
+public class ProductSales {
+    @Id
+    private long productId;
+    private long unitsSold;
+}
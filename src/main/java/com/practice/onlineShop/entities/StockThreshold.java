@@ -0,0 +1,20 @@
+package com.practice.onlineShop.entities;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Reorder threshold of a product: it is low on stock once its stock is at or below it.
+ * Products without one use shop.inventory.low-stock.default-threshold.
+ */
+@Entity
+@Setter
+@Getter
+public class StockThreshold {
+    @Id
+    private long productId;
+    private int threshold;
+}
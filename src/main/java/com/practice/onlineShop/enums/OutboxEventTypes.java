@@ -0,0 +1,19 @@
+package com.practice.onlineShop.enums;
+
+public enum OutboxEventTypes {
+    ORDER_PLACED("order"),
+    ORDER_DELIVERED("order"),
+    ORDER_CANCELED("order"),
+    ORDER_RETURNED("order"),
+    STOCK_CHANGED("product");
+
+    private final String aggregateType;
+
+    OutboxEventTypes(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+}
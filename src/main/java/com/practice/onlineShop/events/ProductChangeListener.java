@@ -0,0 +1,32 @@
+package com.practice.onlineShop.events;
+
+import com.practice.onlineShop.entities.Product;
+
+/**
+ * Implemented by the in-memory structures kept in step with the product table.
+ * Called once the transaction which changed the product has committed, whichever code path changed it
+ * (services, repositories, dirty checking of a managed product). The product must not be kept around,
+ * only the values read from it.
+ */
+public interface ProductChangeListener {
+
+    default void onProductSaved(Product product) {
+    }
+
+    default void onProductDeleted(Product product) {
+    }
+
+    /**
+     * Listeners answering true are also sent every existing product through {@link #onProductSaved(Product)}
+     * once the application is ready, instead of loading the table themselves.
+     */
+    default boolean requiresInitialLoad() {
+        return false;
+    }
+
+    /**
+     * Called once every existing product was sent, for the listeners requiring the initial load.
+     */
+    default void onInitialLoadCompleted() {
+    }
+}
@@ -0,0 +1,187 @@
+package com.practice.onlineShop.events;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.snapshots.CatalogSnapshot;
+import com.practice.onlineShop.snapshots.WarmStartSnapshot;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Hooks into Hibernate's post-commit events and forwards the product inserts, updates and deletes
+ * to every {@link ProductChangeListener} bean. Rolled back changes are never published.
+ * Until the existing products are loaded into the listeners requiring it, from the warm start snapshot
+ * if there is one or else from the database, the versions already published are remembered so that a
+ * product read by the load never overwrites a newer committed change.
+ */
+@Component
+public class ProductChangePublisher implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProductRepository productRepository;
+    private final ObjectProvider<ProductChangeListener> listenersProvider;
+    private final ObjectProvider<WarmStartSnapshot> warmStartSnapshotProvider;
+    private volatile List<ProductChangeListener> listeners;
+    private volatile ConcurrentMap<Long, Long> versionsDuringInitialLoad = new ConcurrentHashMap<>();
+
+    public ProductChangePublisher(EntityManagerFactory entityManagerFactory, ProductRepository productRepository,
+                                  ObjectProvider<ProductChangeListener> listenersProvider,
+                                  ObjectProvider<WarmStartSnapshot> warmStartSnapshotProvider) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.productRepository = productRepository;
+        this.listenersProvider = listenersProvider;
+        this.warmStartSnapshotProvider = warmStartSnapshotProvider;
+    }
+
+    @PostConstruct
+    public void registerHibernateListeners() {
+        EventListenerRegistry eventListenerRegistry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadExistingProducts() {
+        ConcurrentMap<Long, Long> publishedVersions = versionsDuringInitialLoad;
+        List<ProductChangeListener> loadingListeners = getListeners().stream()
+                .filter(ProductChangeListener::requiresInitialLoad)
+                .collect(Collectors.toList());
+        try {
+            for (Product product : existingProducts(!loadingListeners.isEmpty())) {
+                publishedVersions.compute(product.getId(), (id, publishedVersion) -> {
+                    if (publishedVersion != null && publishedVersion >= product.getVersion()) {
+                        return publishedVersion;
+                    }
+                    loadingListeners.forEach(listener -> listener.onProductSaved(product));
+                    return product.getVersion();
+                });
+            }
+        } finally {
+            versionsDuringInitialLoad = null;
+        }
+        loadingListeners.forEach(ProductChangeListener::onInitialLoadCompleted);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Product) {
+            publishSaved((Product) event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Product) {
+            publishSaved((Product) event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Product) {
+            publishDeleted((Product) event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Product.class.isAssignableFrom(persister.getMappedClass());
+    }
+
+    // still abstract in Hibernate 5.4, which only calls requiresPostCommitHandling
+    @Override
+    @Deprecated
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    private Iterable<Product> existingProducts(boolean required) {
+        WarmStartSnapshot warmStartSnapshot = warmStartSnapshotProvider.getIfAvailable();
+        CatalogSnapshot catalogSnapshot = warmStartSnapshot == null ? null : warmStartSnapshot.takeLoadedCatalog();
+        if (!required) {
+            return Collections.emptyList();
+        }
+        if (catalogSnapshot == null) {
+            return productRepository.findAllStateless();
+        }
+        return () -> new Iterator<Product>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < catalogSnapshot.size();
+            }
+
+            @Override
+            public Product next() {
+                return catalogSnapshot.toProduct(position++);
+            }
+        };
+    }
+
+    private void publishSaved(Product product) {
+        ConcurrentMap<Long, Long> publishedVersions = versionsDuringInitialLoad;
+        if (publishedVersions == null) {
+            getListeners().forEach(listener -> listener.onProductSaved(product));
+            return;
+        }
+        publishedVersions.compute(product.getId(), (id, publishedVersion) -> {
+            if (publishedVersion != null && publishedVersion >= product.getVersion()) {
+                return publishedVersion;
+            }
+            getListeners().forEach(listener -> listener.onProductSaved(product));
+            return product.getVersion();
+        });
+    }
+
+    private void publishDeleted(Product product) {
+        ConcurrentMap<Long, Long> publishedVersions = versionsDuringInitialLoad;
+        if (publishedVersions == null) {
+            getListeners().forEach(listener -> listener.onProductDeleted(product));
+            return;
+        }
+        publishedVersions.compute(product.getId(), (id, publishedVersion) -> {
+            getListeners().forEach(listener -> listener.onProductDeleted(product));
+            return DELETED;
+        });
+    }
+
+    private List<ProductChangeListener> getListeners() {
+        // resolved on first use: the listeners themselves depend on the repositories, hence on this factory
+        if (listeners == null) {
+            listeners = listenersProvider.orderedStream().collect(Collectors.toList());
+        }
+        return listeners;
+    }
+}
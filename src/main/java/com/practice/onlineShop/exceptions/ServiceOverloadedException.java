@@ -0,0 +1,5 @@
+package com.practice.onlineShop.exceptions;
+
+// unchecked: it is thrown from an aspect around controller methods which do not declare it
+public class ServiceOverloadedException extends RuntimeException{
+}
@@ -0,0 +1,11 @@
+package com.practice.onlineShop.exceptions;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// unchecked: it is thrown from an aspect around controller methods which do not declare it
+@Getter
+@RequiredArgsConstructor
+public class TooManyRequestsException extends RuntimeException{
+    private final long retryAfterSeconds;
+}
@@ -0,0 +1,25 @@
+package com.practice.onlineShop.handlers;
+
+import com.practice.onlineShop.exceptions.ServiceOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import static org.springframework.http.ResponseEntity.status;
+
+@ControllerAdvice
+public class AdmissionHandler {
+
+    @Value("${shop.admission.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<String> handleServiceOverloadedException() {
+        return status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body("Serverul este supraincarcat, va rugam reincercati mai tarziu!");
+    }
+}
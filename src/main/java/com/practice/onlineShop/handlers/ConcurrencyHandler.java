@@ -0,0 +1,18 @@
+package com.practice.onlineShop.handlers;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import static org.springframework.http.ResponseEntity.status;
+
+@ControllerAdvice
+public class ConcurrencyHandler {
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<String> handleConcurrencyFailureException() {
+        return status(HttpStatus.CONFLICT).body("Stocul produsului a fost modificat in acelasi timp, va rugam reincercati!");
+    }
+}
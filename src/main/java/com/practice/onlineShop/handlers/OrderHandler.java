@@ -51,6 +51,11 @@ public class OrderHandler {
         return status(HttpStatus.BAD_REQUEST).body("Comanda nu poate fi returnata deoarece nu a fost livrata!");
     }
 
+    @ExceptionHandler(InvalidExportRangeException.class)
+    public ResponseEntity<String> handleInvalidExportRangeException() {
+        return status(HttpStatus.BAD_REQUEST).body("Intervalul de comenzi pentru export nu este valid!");
+    }
+
 }
 
 
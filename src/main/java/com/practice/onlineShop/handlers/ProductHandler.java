@@ -1,8 +1,12 @@
 package com.practice.onlineShop.handlers;
 
 import com.practice.onlineShop.exceptions.InvalidCustomerIdException;
+import com.practice.onlineShop.exceptions.InvalidFieldsException;
 import com.practice.onlineShop.exceptions.InvalidOperationException;
 import com.practice.onlineShop.exceptions.InvalidProductCodeException;
+import com.practice.onlineShop.exceptions.InvalidProductQueryException;
+import com.practice.onlineShop.exceptions.InvalidStockThresholdException;
+import com.practice.onlineShop.exceptions.TooManyProductKeysException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -18,6 +22,26 @@ public class ProductHandler {
         return status(HttpStatus.BAD_REQUEST).body("Codul produsului trimis este invalid!");
     }
 
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<String> handleInvalidFieldsException() {
+        return status(HttpStatus.BAD_REQUEST).body("Campurile cerute nu sunt valide!");
+    }
+
+    @ExceptionHandler(TooManyProductKeysException.class)
+    public ResponseEntity<String> handleTooManyProductKeysException() {
+        return status(HttpStatus.BAD_REQUEST).body("Au fost cerute prea multe produse intr-o singura cerere!");
+    }
+
+    @ExceptionHandler(InvalidProductQueryException.class)
+    public ResponseEntity<String> handleInvalidProductQueryException() {
+        return status(HttpStatus.BAD_REQUEST).body("Parametrii cererii nu pot fi folositi impreuna!");
+    }
+
+    @ExceptionHandler(InvalidStockThresholdException.class)
+    public ResponseEntity<String> handleInvalidStockThresholdException() {
+        return status(HttpStatus.BAD_REQUEST).body("Pragul de stoc trimis este invalid!");
+    }
+
 //    @ExceptionHandler(InvalidOperationException.class)
 //    public ResponseEntity<String> handleInvalidOperationException() {
 //        return status(HttpStatus.BAD_REQUEST).body("Utilizatorul nu are permisiunea de a executa aceasta operatiune!");
@@ -0,0 +1,21 @@
+package com.practice.onlineShop.handlers;
+
+import com.practice.onlineShop.exceptions.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import static org.springframework.http.ResponseEntity.status;
+
+@ControllerAdvice
+public class RateLimitHandler {
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<String> handleTooManyRequestsException(TooManyRequestsException exception) {
+        return status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body("Ati trimis prea multe cereri, va rugam reincercati mai tarziu!");
+    }
+}
@@ -0,0 +1,82 @@
+package com.practice.onlineShop.indexes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe Bloom filter over strings and longs: no false negatives, false positives at about
+ * the rate it was sized for. Bits are only ever set, so it has to be rebuilt to forget removed keys.
+ */
+public class BloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long insertions = Math.max(1, expectedInsertions);
+        long optimalBits = (long) (-insertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / insertions * Math.log(2)));
+    }
+
+    public void put(String key) {
+        setBits(hash(key));
+    }
+
+    public void put(long key) {
+        setBits(mix(key));
+    }
+
+    public boolean mightContain(String key) {
+        return allBitsSet(hash(key));
+    }
+
+    public boolean mightContain(long key) {
+        return allBitsSet(mix(key));
+    }
+
+    private void setBits(long hash) {
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bitIndex = bitIndex(hash1 + i * hash2);
+            long mask = 1L << bitIndex;
+            bits.accumulateAndGet((int) (bitIndex >>> 6), mask, (current, bit) -> current | bit);
+        }
+    }
+
+    private boolean allBitsSet(long hash) {
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bitIndex = bitIndex(hash1 + i * hash2);
+            if ((bits.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long bitIndex(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % bitCount;
+    }
+
+    private static long hash(String key) {
+        // 64 bit FNV-1a over the UTF-8 bytes, finished with the same mixer as the longs
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,198 @@
+package com.practice.onlineShop.indexes;
+
+import java.util.*;
+
+/**
+ * Inverted index from the normalized words of a text to the documents containing them, ranked with BM25.
+ * Every put gets the next document number, so postings are only ever appended; replaced and removed
+ * documents are marked deleted and dropped when they outnumber the live ones. Not thread safe.
+ */
+public class InvertedIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_DELETED_DOCS_TO_COMPACT = 1024;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docIdsByKey = new HashMap<>();
+    private final BitSet deletedDocs = new BitSet();
+    private long[] keys = new long[64];
+    private int[] docLengths = new int[64];
+    private int nextDocId;
+    private int deletedDocCount;
+    private long totalLength;
+
+    public void put(long key, String text) {
+        remove(key);
+        List<String> tokens = TextNormalizer.tokenize(text);
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        for (String token : tokens) {
+            termFrequencies.merge(token, 1, Integer::sum);
+        }
+
+        int docId = nextDocId++;
+        if (docId == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+            docLengths = Arrays.copyOf(docLengths, docLengths.length * 2);
+        }
+        keys[docId] = key;
+        docLengths[docId] = tokens.size();
+        termFrequencies.forEach((term, termFrequency) -> postings.computeIfAbsent(term, t -> new PostingList()).add(docId, termFrequency));
+        docIdsByKey.put(key, docId);
+        totalLength += tokens.size();
+    }
+
+    public void remove(long key) {
+        Integer docId = docIdsByKey.remove(key);
+        if (docId == null) {
+            return;
+        }
+        deletedDocs.set(docId);
+        deletedDocCount++;
+        totalLength -= docLengths[docId];
+        if (deletedDocCount >= MIN_DELETED_DOCS_TO_COMPACT && deletedDocCount > docIdsByKey.size()) {
+            compact();
+        }
+    }
+
+    public int size() {
+        return docIdsByKey.size();
+    }
+
+    public SearchHits search(String query, int offset, int limit) {
+        int liveDocs = docIdsByKey.size();
+        if (liveDocs == 0 || limit <= 0) {
+            return new SearchHits(0, new long[0], new float[0]);
+        }
+        float averageLength = Math.max(1f, (float) totalLength / liveDocs);
+
+        Map<Integer, Float> scores = new HashMap<>();
+        for (String term : new LinkedHashSet<>(TextNormalizer.tokenize(query))) {
+            PostingList postingList = postings.get(term);
+            if (postingList == null) {
+                continue;
+            }
+            int[] docIds = new int[postingList.size()];
+            int[] termFrequencies = new int[postingList.size()];
+            int[] documentFrequency = new int[1];
+            postingList.forEach((docId, termFrequency) -> {
+                if (!deletedDocs.get(docId)) {
+                    docIds[documentFrequency[0]] = docId;
+                    termFrequencies[documentFrequency[0]] = termFrequency;
+                    documentFrequency[0]++;
+                }
+            });
+
+            int df = documentFrequency[0];
+            float idf = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+            for (int i = 0; i < df; i++) {
+                float lengthNorm = K1 * (1 - B + B * docLengths[docIds[i]] / averageLength);
+                float termScore = idf * termFrequencies[i] * (K1 + 1) / (termFrequencies[i] + lengthNorm);
+                scores.merge(docIds[i], termScore, Float::sum);
+            }
+        }
+
+        return topHits(scores, offset, limit);
+    }
+
+    private SearchHits topHits(Map<Integer, Float> scores, int offset, int limit) {
+        int wanted = (int) Math.min((long) offset + limit, scores.size());
+        Comparator<ScoredDoc> worstFirst = Comparator.<ScoredDoc>comparingDouble(scoredDoc -> scoredDoc.score)
+                .thenComparing(scoredDoc -> scoredDoc.key, Comparator.reverseOrder());
+        PriorityQueue<ScoredDoc> best = new PriorityQueue<>(Math.max(1, wanted), worstFirst);
+        scores.forEach((docId, score) -> {
+            ScoredDoc scoredDoc = new ScoredDoc(keys[docId], score);
+            if (best.size() < wanted) {
+                best.add(scoredDoc);
+            } else if (wanted > 0 && worstFirst.compare(scoredDoc, best.peek()) > 0) {
+                best.poll();
+                best.add(scoredDoc);
+            }
+        });
+
+        int pageSize = Math.max(0, wanted - offset);
+        long[] hitKeys = new long[pageSize];
+        float[] hitScores = new float[pageSize];
+        for (int rank = best.size() - 1; rank >= 0; rank--) {
+            ScoredDoc scoredDoc = best.poll();
+            if (rank >= offset) {
+                hitKeys[rank - offset] = scoredDoc.key;
+                hitScores[rank - offset] = scoredDoc.score;
+            }
+        }
+        return new SearchHits(scores.size(), hitKeys, hitScores);
+    }
+
+    private void compact() {
+        int[] newDocIds = new int[nextDocId];
+        long[] newKeys = new long[Math.max(64, docIdsByKey.size() * 2)];
+        int[] newDocLengths = new int[newKeys.length];
+        int liveDocs = 0;
+        for (int docId = 0; docId < nextDocId; docId++) {
+            if (deletedDocs.get(docId)) {
+                newDocIds[docId] = -1;
+                continue;
+            }
+            newDocIds[docId] = liveDocs;
+            newKeys[liveDocs] = keys[docId];
+            newDocLengths[liveDocs] = docLengths[docId];
+            docIdsByKey.put(keys[docId], liveDocs);
+            liveDocs++;
+        }
+
+        Iterator<Map.Entry<String, PostingList>> iterator = postings.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, PostingList> entry = iterator.next();
+            PostingList compacted = new PostingList();
+            entry.getValue().forEach((docId, termFrequency) -> {
+                if (newDocIds[docId] >= 0) {
+                    compacted.add(newDocIds[docId], termFrequency);
+                }
+            });
+            if (compacted.size() == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(compacted);
+            }
+        }
+
+        keys = newKeys;
+        docLengths = newDocLengths;
+        nextDocId = liveDocs;
+        deletedDocs.clear();
+        deletedDocCount = 0;
+    }
+
+    private static class ScoredDoc {
+        private final long key;
+        private final float score;
+
+        private ScoredDoc(long key, float score) {
+            this.key = key;
+            this.score = score;
+        }
+    }
+
+    public static class SearchHits {
+        private final int totalHits;
+        private final long[] keys;
+        private final float[] scores;
+
+        SearchHits(int totalHits, long[] keys, float[] scores) {
+            this.totalHits = totalHits;
+            this.keys = keys;
+            this.scores = scores;
+        }
+
+        public int getTotalHits() {
+            return totalHits;
+        }
+
+        public long[] getKeys() {
+            return keys;
+        }
+
+        public float[] getScores() {
+            return scores;
+        }
+    }
+}
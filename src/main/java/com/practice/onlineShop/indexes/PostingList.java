@@ -0,0 +1,77 @@
+package com.practice.onlineShop.indexes;
+
+import java.util.Arrays;
+
+/**
+ * The documents containing one term, in increasing document order, with the number of times the term
+ * occurs in each. Stored as variable length encoded gaps between document numbers followed by the
+ * frequency, so a posting usually takes two bytes instead of the eight of two ints.
+ */
+class PostingList {
+    private byte[] bytes = new byte[8];
+    private int length;
+    private int lastDocId = -1;
+    private int size;
+
+    void add(int docId, int termFrequency) {
+        if (docId <= lastDocId) {
+            throw new IllegalArgumentException("Documents must be added in increasing order");
+        }
+        ensureCapacity(10);
+        writeVarInt(docId - lastDocId);
+        writeVarInt(termFrequency);
+        lastDocId = docId;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int sizeInBytes() {
+        return length;
+    }
+
+    void forEach(PostingVisitor visitor) {
+        int position = 0;
+        int docId = -1;
+        while (position < length) {
+            int gap = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                gap |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            int termFrequency = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                termFrequency |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            docId += gap;
+            visitor.visit(docId, termFrequency);
+        }
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extraBytes) {
+        if (length + extraBytes > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extraBytes));
+        }
+    }
+
+    interface PostingVisitor {
+        void visit(int docId, int termFrequency);
+    }
+}
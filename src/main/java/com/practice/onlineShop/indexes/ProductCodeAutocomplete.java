@@ -0,0 +1,75 @@
+package com.practice.onlineShop.indexes;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.events.ProductChangeListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Product codes by prefix, filled from the table at startup and kept in step with every committed
+ * product insert and delete. The services never change the code of an existing product, so updates
+ * only have to make sure the code is present.
+ */
+@Component
+public class ProductCodeAutocomplete implements ProductChangeListener {
+    private final SortedCodeIndex sortedCodeIndex = new SortedCodeIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductCodeAutocomplete(MeterRegistry meterRegistry) {
+        Gauge.builder("shop.autocomplete.indexed.codes", this, ProductCodeAutocomplete::size).register(meterRegistry);
+    }
+
+    public List<String> complete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return sortedCodeIndex.startingWith(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        if (product.getCode() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            sortedCodeIndex.add(product.getCode());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product product) {
+        if (product.getCode() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            sortedCodeIndex.remove(product.getCode());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean requiresInitialLoad() {
+        return true;
+    }
+
+    private double size() {
+        lock.readLock().lock();
+        try {
+            return sortedCodeIndex.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
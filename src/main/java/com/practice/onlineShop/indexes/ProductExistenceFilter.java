@@ -0,0 +1,105 @@
+package com.practice.onlineShop.indexes;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.events.ProductChangeListener;
+import com.practice.onlineShop.repositories.ProductKey;
+import com.practice.onlineShop.repositories.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Bloom filters of the existing product codes and ids, used to turn away lookups of products which
+ * certainly do not exist without a query. Deleted products stay in the filters until the next periodic rebuild.
+ */
+@Component
+public class ProductExistenceFilter implements ProductChangeListener {
+    private final ProductRepository productRepository;
+    private final long expectedProducts;
+    private final double falsePositiveProbability;
+    private final Counter rejectedLookups;
+
+    private volatile Filters current;
+    private volatile Filters rebuilding;
+
+    public ProductExistenceFilter(ProductRepository productRepository, MeterRegistry meterRegistry,
+                                  @Value("${shop.bloom.expected-products:100000}") long expectedProducts,
+                                  @Value("${shop.bloom.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.productRepository = productRepository;
+        this.expectedProducts = expectedProducts;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.rejectedLookups = meterRegistry.counter("shop.bloom.rejected");
+    }
+
+    public boolean mightContainCode(String productCode) {
+        Filters filters = current;
+        if (filters == null || filters.codes.mightContain(productCode)) {
+            return true;
+        }
+        rejectedLookups.increment();
+        return false;
+    }
+
+    public boolean mightContainId(long productId) {
+        Filters filters = current;
+        if (filters == null || filters.ids.mightContain(productId)) {
+            return true;
+        }
+        rejectedLookups.increment();
+        return false;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${shop.bloom.rebuild-interval-millis:600000}", fixedDelayString = "${shop.bloom.rebuild-interval-millis:600000}")
+    public synchronized void rebuild() {
+        // writes committed while the table is scanned are added to both filters, see add()
+        Filters freshFilters = new Filters(expectedProducts, falsePositiveProbability);
+        rebuilding = freshFilters;
+        List<ProductKey> productKeys = productRepository.findAllKeys();
+        if (productKeys.size() > expectedProducts / 2) {
+            freshFilters = new Filters(productKeys.size() * 2L, falsePositiveProbability);
+            rebuilding = freshFilters;
+            productKeys = productRepository.findAllKeys();
+        }
+        for (ProductKey productKey : productKeys) {
+            freshFilters.add(productKey.getId(), productKey.getCode());
+        }
+        current = freshFilters;
+        rebuilding = null;
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        add(current, product);
+        add(rebuilding, product);
+    }
+
+    private void add(Filters filters, Product product) {
+        if (filters != null) {
+            filters.add(product.getId(), product.getCode());
+        }
+    }
+
+    private static class Filters {
+        private final BloomFilter codes;
+        private final BloomFilter ids;
+
+        private Filters(long expectedInsertions, double falsePositiveProbability) {
+            this.codes = new BloomFilter(expectedInsertions, falsePositiveProbability);
+            this.ids = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        }
+
+        private void add(long id, String code) {
+            ids.put(id);
+            if (code != null) {
+                codes.put(code);
+            }
+        }
+    }
+}
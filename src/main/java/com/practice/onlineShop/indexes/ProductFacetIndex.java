@@ -0,0 +1,273 @@
+package com.practice.onlineShop.indexes;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.events.ProductChangeListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One bitmap over product positions per currency, validity, in-stock state and price bucket. A filter is
+ * the AND of the facets, values of one facet are ORed. The count of each facet value is taken with the
+ * filters of the other facets only, so the storefront can show how many products picking it would give.
+ * Positions of deleted products are reused by the next inserted ones.
+ */
+@Component
+public class ProductFacetIndex implements ProductChangeListener {
+    public static final String CURRENCY_FACET = "currency";
+    public static final String PRICE_FACET = "price";
+    public static final String VALID_FACET = "valid";
+    public static final String IN_STOCK_FACET = "inStock";
+
+    private final double[] priceBounds;
+    private final BitSet live = new BitSet();
+    private final Map<Currencies, BitSet> currencies = new EnumMap<>(Currencies.class);
+    private final BitSet[] priceBuckets;
+    private final BitSet valid = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final Map<Long, Integer> positionsById = new HashMap<>();
+    private long[] idsByPosition = new long[1024];
+    private double[] pricesByPosition = new double[1024];
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductFacetIndex(@Value("${shop.facets.price-bounds:50,100,250,500,1000}") double[] priceBounds) {
+        this.priceBounds = priceBounds.clone();
+        Arrays.sort(this.priceBounds);
+        this.priceBuckets = new BitSet[this.priceBounds.length + 1];
+        for (int bucket = 0; bucket < priceBuckets.length; bucket++) {
+            priceBuckets[bucket] = new BitSet();
+        }
+        for (Currencies currency : Currencies.values()) {
+            currencies.put(currency, new BitSet());
+        }
+    }
+
+    /**
+     * @param currencyFilter products in any of these currencies, all if null or empty
+     * @param minPrice       inclusive, no lower bound if null
+     * @param maxPrice       inclusive, no upper bound if null
+     * @param validFilter    only valid or only invalid products, both if null
+     * @param inStockFilter  only products with or without stock, both if null
+     */
+    public FacetHits filter(Collection<Currencies> currencyFilter, Double minPrice, Double maxPrice,
+                            Boolean validFilter, Boolean inStockFilter, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet currencyMatches = currencyMatches(currencyFilter);
+            BitSet priceMatches = priceMatches(minPrice, maxPrice);
+            BitSet validMatches = flagMatches(valid, validFilter);
+            BitSet inStockMatches = flagMatches(inStock, inStockFilter);
+
+            Map<String, Map<String, Integer>> facetCounts = new LinkedHashMap<>();
+            BitSet withoutCurrency = and(priceMatches, validMatches, inStockMatches);
+            Map<String, Integer> currencyCounts = new LinkedHashMap<>();
+            currencies.forEach((currency, products) -> currencyCounts.put(currency.name(), countAnd(withoutCurrency, products)));
+            facetCounts.put(CURRENCY_FACET, currencyCounts);
+
+            BitSet withoutPrice = and(currencyMatches, validMatches, inStockMatches);
+            Map<String, Integer> priceCounts = new LinkedHashMap<>();
+            for (int bucket = 0; bucket < priceBuckets.length; bucket++) {
+                priceCounts.put(bucketName(bucket), countAnd(withoutPrice, priceBuckets[bucket]));
+            }
+            facetCounts.put(PRICE_FACET, priceCounts);
+
+            facetCounts.put(VALID_FACET, flagCounts(and(currencyMatches, priceMatches, inStockMatches), valid));
+            facetCounts.put(IN_STOCK_FACET, flagCounts(and(currencyMatches, priceMatches, validMatches), inStock));
+
+            BitSet matches = and(currencyMatches, priceMatches, validMatches, inStockMatches);
+            int totalHits = matches.cardinality();
+            int pageSize = Math.max(0, Math.min(limit, totalHits - offset));
+            long[] productIds = new long[pageSize];
+            int position = matches.nextSetBit(0);
+            for (int skipped = 0; skipped < offset && position >= 0; skipped++) {
+                position = matches.nextSetBit(position + 1);
+            }
+            for (int i = 0; i < pageSize; i++) {
+                productIds[i] = idsByPosition[position];
+                position = matches.nextSetBit(position + 1);
+            }
+            return new FacetHits(totalHits, productIds, facetCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        lock.writeLock().lock();
+        try {
+            Integer position = positionsById.get(product.getId());
+            if (position == null) {
+                position = live.nextClearBit(0);
+                if (position == idsByPosition.length) {
+                    idsByPosition = Arrays.copyOf(idsByPosition, idsByPosition.length * 2);
+                    pricesByPosition = Arrays.copyOf(pricesByPosition, pricesByPosition.length * 2);
+                }
+                positionsById.put(product.getId(), position);
+                idsByPosition[position] = product.getId();
+                live.set(position);
+            } else {
+                clear(position);
+            }
+
+            if (product.getCurrency() != null) {
+                currencies.get(product.getCurrency()).set(position);
+            }
+            priceBuckets[bucketOf(product.getPrice())].set(position);
+            pricesByPosition[position] = product.getPrice();
+            valid.set(position, product.isValid());
+            inStock.set(position, product.getStock() > 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product product) {
+        lock.writeLock().lock();
+        try {
+            Integer position = positionsById.remove(product.getId());
+            if (position != null) {
+                clear(position);
+                live.clear(position);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean requiresInitialLoad() {
+        return true;
+    }
+
+    private void clear(int position) {
+        currencies.values().forEach(products -> products.clear(position));
+        for (BitSet priceBucket : priceBuckets) {
+            priceBucket.clear(position);
+        }
+        valid.clear(position);
+        inStock.clear(position);
+    }
+
+    private BitSet currencyMatches(Collection<Currencies> currencyFilter) {
+        if (currencyFilter == null || currencyFilter.isEmpty()) {
+            return live;
+        }
+        BitSet matches = new BitSet();
+        for (Currencies currency : currencyFilter) {
+            matches.or(currencies.get(currency));
+        }
+        return matches;
+    }
+
+    private BitSet priceMatches(Double minPrice, Double maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return live;
+        }
+        double low = minPrice == null ? Double.NEGATIVE_INFINITY : minPrice;
+        double high = maxPrice == null ? Double.POSITIVE_INFINITY : maxPrice;
+        BitSet matches = new BitSet();
+        for (int bucket = 0; bucket < priceBuckets.length; bucket++) {
+            double bucketLow = bucket == 0 ? Double.NEGATIVE_INFINITY : priceBounds[bucket - 1];
+            double bucketHigh = bucket == priceBounds.length ? Double.POSITIVE_INFINITY : priceBounds[bucket];
+            if (bucketLow > high || bucketHigh <= low) {
+                continue;
+            }
+            if (bucketLow >= low && bucketHigh <= high) {
+                matches.or(priceBuckets[bucket]);
+                continue;
+            }
+            // only the buckets the range cuts through are checked product by product
+            BitSet bucketProducts = priceBuckets[bucket];
+            for (int position = bucketProducts.nextSetBit(0); position >= 0; position = bucketProducts.nextSetBit(position + 1)) {
+                if (pricesByPosition[position] >= low && pricesByPosition[position] <= high) {
+                    matches.set(position);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private BitSet flagMatches(BitSet flag, Boolean flagFilter) {
+        if (flagFilter == null) {
+            return live;
+        }
+        if (flagFilter) {
+            return flag;
+        }
+        BitSet matches = (BitSet) live.clone();
+        matches.andNot(flag);
+        return matches;
+    }
+
+    private Map<String, Integer> flagCounts(BitSet base, BitSet flag) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        int withFlag = countAnd(base, flag);
+        counts.put("true", withFlag);
+        counts.put("false", base.cardinality() - withFlag);
+        return counts;
+    }
+
+    private BitSet and(BitSet... bitSets) {
+        BitSet result = (BitSet) live.clone();
+        for (BitSet bitSet : bitSets) {
+            if (bitSet != live) {
+                result.and(bitSet);
+            }
+        }
+        return result;
+    }
+
+    private int countAnd(BitSet first, BitSet second) {
+        BitSet result = (BitSet) first.clone();
+        result.and(second);
+        return result.cardinality();
+    }
+
+    private int bucketOf(double price) {
+        int bucket = 0;
+        while (bucket < priceBounds.length && price >= priceBounds[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private String bucketName(int bucket) {
+        String low = bucket == 0 ? "*" : formatBound(priceBounds[bucket - 1]);
+        String high = bucket == priceBounds.length ? "*" : formatBound(priceBounds[bucket]);
+        return low + "-" + high;
+    }
+
+    private String formatBound(double bound) {
+        return bound == Math.rint(bound) ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+
+    public static class FacetHits {
+        private final int totalHits;
+        private final long[] productIds;
+        private final Map<String, Map<String, Integer>> facetCounts;
+
+        FacetHits(int totalHits, long[] productIds, Map<String, Map<String, Integer>> facetCounts) {
+            this.totalHits = totalHits;
+            this.productIds = productIds;
+            this.facetCounts = facetCounts;
+        }
+
+        public int getTotalHits() {
+            return totalHits;
+        }
+
+        public long[] getProductIds() {
+            return productIds;
+        }
+
+        public Map<String, Map<String, Integer>> getFacetCounts() {
+            return facetCounts;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.practice.onlineShop.indexes;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.events.ProductChangeListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full text index of the product descriptions, filled from the table at startup and kept in step with
+ * every committed product write.
+ */
+@Component
+public class ProductSearchIndex implements ProductChangeListener {
+    private final InvertedIndex invertedIndex = new InvertedIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductSearchIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("shop.search.indexed.products", this, ProductSearchIndex::size).register(meterRegistry);
+    }
+
+    public InvertedIndex.SearchHits search(String query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return invertedIndex.search(query, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        lock.writeLock().lock();
+        try {
+            invertedIndex.put(product.getId(), product.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product product) {
+        lock.writeLock().lock();
+        try {
+            invertedIndex.remove(product.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean requiresInitialLoad() {
+        return true;
+    }
+
+    private double size() {
+        lock.readLock().lock();
+        try {
+            return invertedIndex.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.practice.onlineShop.indexes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Sorted set of codes answering prefix lookups with a binary search. The codes are kept UTF-8 encoded
+ * back to back in one byte array, compared as unsigned bytes (the code point order). Additions go to a
+ * small sorted set and removals to a bit set, both merged into the array once they grow past a
+ * sixteenth of it. Not thread safe.
+ */
+public class SortedCodeIndex {
+    private static final int MIN_PENDING_CHANGES_TO_MERGE = 1024;
+    private static final Comparator<byte[]> UNSIGNED_ORDER = SortedCodeIndex::compare;
+
+    private byte[] data = new byte[0];
+    private int[] offsets = {0};
+    private int count;
+    private final BitSet removed = new BitSet();
+    private int removedCount;
+    private final TreeSet<byte[]> added = new TreeSet<>(UNSIGNED_ORDER);
+
+    public void add(String code) {
+        byte[] key = code.getBytes(StandardCharsets.UTF_8);
+        int position = binarySearch(key);
+        if (position >= 0) {
+            if (removed.get(position)) {
+                removed.clear(position);
+                removedCount--;
+            }
+            return;
+        }
+        added.add(key);
+        mergeIfNeeded();
+    }
+
+    public void remove(String code) {
+        byte[] key = code.getBytes(StandardCharsets.UTF_8);
+        if (added.remove(key)) {
+            return;
+        }
+        int position = binarySearch(key);
+        if (position >= 0 && !removed.get(position)) {
+            removed.set(position);
+            removedCount++;
+            mergeIfNeeded();
+        }
+    }
+
+    public int size() {
+        return count - removedCount + added.size();
+    }
+
+    /**
+     * The first codes, in code point order, starting with the given prefix.
+     */
+    public List<String> startingWith(String prefix, int limit) {
+        byte[] prefixKey = prefix.getBytes(StandardCharsets.UTF_8);
+        List<String> codes = new ArrayList<>(Math.min(limit, 64));
+        int position = lowerBound(prefixKey);
+        Iterator<byte[]> addedCodes = added.tailSet(prefixKey, true).iterator();
+        byte[] nextAdded = nextStartingWith(addedCodes, prefixKey);
+
+        while (codes.size() < limit) {
+            while (position < count && removed.get(position)) {
+                position++;
+            }
+            boolean baseMatches = position < count && startsWith(position, prefixKey);
+            if (!baseMatches && nextAdded == null) {
+                break;
+            }
+            if (baseMatches && (nextAdded == null || compare(position, nextAdded) < 0)) {
+                codes.add(new String(data, offsets[position], offsets[position + 1] - offsets[position], StandardCharsets.UTF_8));
+                position++;
+            } else {
+                codes.add(new String(nextAdded, StandardCharsets.UTF_8));
+                nextAdded = nextStartingWith(addedCodes, prefixKey);
+            }
+        }
+        return codes;
+    }
+
+    private void mergeIfNeeded() {
+        if (added.size() + removedCount >= Math.max(MIN_PENDING_CHANGES_TO_MERGE, count / 16)) {
+            merge();
+        }
+    }
+
+    private void merge() {
+        int newCount = count - removedCount + added.size();
+        int newLength = data.length;
+        for (byte[] key : added) {
+            newLength += key.length;
+        }
+        byte[] newData = new byte[newLength];
+        int[] newOffsets = new int[newCount + 1];
+
+        int length = 0;
+        int index = 0;
+        int position = 0;
+        Iterator<byte[]> addedCodes = added.iterator();
+        byte[] nextAdded = addedCodes.hasNext() ? addedCodes.next() : null;
+        while (position < count || nextAdded != null) {
+            if (position < count && removed.get(position)) {
+                position++;
+                continue;
+            }
+            if (position < count && (nextAdded == null || compare(position, nextAdded) < 0)) {
+                int codeLength = offsets[position + 1] - offsets[position];
+                System.arraycopy(data, offsets[position], newData, length, codeLength);
+                length += codeLength;
+                position++;
+            } else {
+                System.arraycopy(nextAdded, 0, newData, length, nextAdded.length);
+                length += nextAdded.length;
+                nextAdded = addedCodes.hasNext() ? addedCodes.next() : null;
+            }
+            newOffsets[++index] = length;
+        }
+
+        data = Arrays.copyOf(newData, length);
+        offsets = newOffsets;
+        count = newCount;
+        removed.clear();
+        removedCount = 0;
+        added.clear();
+    }
+
+    private byte[] nextStartingWith(Iterator<byte[]> keys, byte[] prefixKey) {
+        if (!keys.hasNext()) {
+            return null;
+        }
+        byte[] key = keys.next();
+        return startsWith(key, prefixKey) ? key : null;
+    }
+
+    private int binarySearch(byte[] key) {
+        int position = lowerBound(key);
+        return position < count && compare(position, key) == 0 ? position : -1;
+    }
+
+    private int lowerBound(byte[] key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int compare(int position, byte[] key) {
+        int start = offsets[position];
+        int length = offsets[position + 1] - start;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (data[start + i] & 0xFF) - (key[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - key.length;
+    }
+
+    private boolean startsWith(int position, byte[] prefixKey) {
+        int start = offsets[position];
+        if (offsets[position + 1] - start < prefixKey.length) {
+            return false;
+        }
+        for (int i = 0; i < prefixKey.length; i++) {
+            if (data[start + i] != prefixKey[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefixKey) {
+        if (key.length < prefixKey.length) {
+            return false;
+        }
+        for (int i = 0; i < prefixKey.length; i++) {
+            if (key[i] != prefixKey[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int compare(byte[] first, byte[] second) {
+        int common = Math.min(first.length, second.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (first[i] & 0xFF) - (second[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return first.length - second.length;
+    }
+}
@@ -0,0 +1,191 @@
+package com.practice.onlineShop.inventory;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.events.ProductChangeListener;
+import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.vos.InventoryValuationVO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Total value of the stock (price × stock) per currency, kept in cents and adjusted by the difference each committed
+ * product change makes, whichever path changed the price or the stock (product updates, added stock, orders, returns,
+ * deletes). Changes are applied in version order, an older version arriving late is ignored.
+ * Reconciled periodically against a full scan of the products: the products whose change was missed are corrected and
+ * the value they had drifted by is reported, and the deleted products the scan no longer finds are forgotten.
+ */
+@Component
+public class InventoryValuation implements ProductChangeListener {
+    private static final long DELETED = Long.MAX_VALUE;
+    private static final Currencies[] CURRENCIES = Currencies.values();
+
+    private final ProductRepository productRepository;
+    private final Counter repairedProducts;
+    private final Map<Long, Holding> holdingsByProductId = new HashMap<>();
+    private final long[] centsByCurrency = new long[CURRENCIES.length];
+    private long[] lastDriftCents = new long[CURRENCIES.length];
+    private Instant lastReconciledAt;
+    private volatile boolean loaded;
+
+    public InventoryValuation(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.repairedProducts = meterRegistry.counter("shop.inventory.valuation.repaired");
+        for (Currencies currency : CURRENCIES) {
+            Gauge.builder("shop.inventory.valuation", this, valuation -> valuation.getValue(currency))
+                    .tag("currency", currency.name())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("shop.inventory.valuation.products", this, InventoryValuation::countHoldings).register(meterRegistry);
+    }
+
+    public synchronized InventoryValuationVO getValuation() {
+        InventoryValuationVO inventoryValuationVO = new InventoryValuationVO();
+        for (Currencies currency : CURRENCIES) {
+            inventoryValuationVO.getValues().put(currency, centsByCurrency[currency.ordinal()] / 100.0);
+            inventoryValuationVO.getLastDrift().put(currency, lastDriftCents[currency.ordinal()] / 100.0);
+        }
+        inventoryValuationVO.setLastReconciledAt(lastReconciledAt);
+        return inventoryValuationVO;
+    }
+
+    @Override
+    public synchronized void onProductSaved(Product product) {
+        Holding holding = holdingsByProductId.get(product.getId());
+        if (holding == null || holding.version < product.getVersion()) {
+            apply(product.getId(), new Holding(product.getVersion(), product.getCurrency(), valueInCents(product)));
+        }
+    }
+
+    @Override
+    public synchronized void onProductDeleted(Product product) {
+        apply(product.getId(), new Holding(DELETED, null, 0));
+    }
+
+    @Override
+    public boolean requiresInitialLoad() {
+        return true;
+    }
+
+    @Override
+    public void onInitialLoadCompleted() {
+        loaded = true;
+    }
+
+    @Scheduled(initialDelayString = "${shop.inventory.reconcile-interval-millis:3600000}", fixedDelayString = "${shop.inventory.reconcile-interval-millis:3600000}")
+    public void reconcile() {
+        if (!loaded) {
+            return;
+        }
+        Map<Long, Long> versionsBeforeScan = new HashMap<>();
+        Set<Long> deletedBeforeScan = new HashSet<>();
+        synchronized (this) {
+            holdingsByProductId.forEach((productId, holding) -> {
+                if (holding.version != DELETED) {
+                    versionsBeforeScan.put(productId, holding.version);
+                } else {
+                    deletedBeforeScan.add(productId);
+                }
+            });
+        }
+        List<Product> products = productRepository.findAllStateless();
+
+        synchronized (this) {
+            long[] driftCents = new long[CURRENCIES.length];
+            int repaired = 0;
+            for (Product product : products) {
+                versionsBeforeScan.remove(product.getId());
+                deletedBeforeScan.remove(product.getId());
+                Holding holding = holdingsByProductId.get(product.getId());
+                // a newer version than the scan's was applied meanwhile, or the product was deleted since
+                if (holding != null && holding.version >= product.getVersion()) {
+                    continue;
+                }
+                Holding repairedHolding = new Holding(product.getVersion(), product.getCurrency(), valueInCents(product));
+                addTo(driftCents, repairedHolding, 1);
+                addTo(driftCents, holding, -1);
+                apply(product.getId(), repairedHolding);
+                repaired++;
+            }
+            // known before the scan, not found by it and not changed since: deleted without us hearing of it
+            for (Map.Entry<Long, Long> entry : versionsBeforeScan.entrySet()) {
+                Holding holding = holdingsByProductId.get(entry.getKey());
+                if (holding != null && holding.version == entry.getValue()) {
+                    addTo(driftCents, holding, -1);
+                    apply(entry.getKey(), new Holding(DELETED, null, 0));
+                    repaired++;
+                }
+            }
+            // deleted before the scan started and not found by it: no change of theirs can still be on its way
+            for (Long productId : deletedBeforeScan) {
+                Holding holding = holdingsByProductId.get(productId);
+                if (holding != null && holding.version == DELETED) {
+                    holdingsByProductId.remove(productId);
+                }
+            }
+
+            lastDriftCents = driftCents;
+            lastReconciledAt = Instant.now();
+            if (repaired > 0) {
+                repairedProducts.increment(repaired);
+                System.out.println("Inventory valuation drifted by " + describe(driftCents) + " over " + repaired + " products, corrected");
+            }
+        }
+    }
+
+    private double getValue(Currencies currency) {
+        synchronized (this) {
+            return centsByCurrency[currency.ordinal()] / 100.0;
+        }
+    }
+
+    private synchronized int countHoldings() {
+        return holdingsByProductId.size();
+    }
+
+    private void apply(long productId, Holding holding) {
+        Holding previousHolding = holdingsByProductId.put(productId, holding);
+        addTo(centsByCurrency, previousHolding, -1);
+        addTo(centsByCurrency, holding, 1);
+    }
+
+    private void addTo(long[] cents, Holding holding, int sign) {
+        if (holding != null && holding.currency != null) {
+            cents[holding.currency.ordinal()] += sign * holding.valueInCents;
+        }
+    }
+
+    private long valueInCents(Product product) {
+        return Math.round(product.getPrice() * 100) * product.getStock();
+    }
+
+    private String describe(long[] cents) {
+        Map<Currencies, Double> values = new EnumMap<>(Currencies.class);
+        for (Currencies currency : CURRENCIES) {
+            values.put(currency, cents[currency.ordinal()] / 100.0);
+        }
+        return values.toString();
+    }
+
+    /**
+     * What a product counts for in the valuation, as of a version. Deleted products stay as an empty holding,
+     * so that a late change of theirs cannot bring them back, until a reconciliation confirms they are gone.
+     */
+    private static final class Holding {
+        private final long version;
+        private final Currencies currency;
+        private final long valueInCents;
+
+        private Holding(long version, Currencies currency, long valueInCents) {
+            this.version = version;
+            this.currency = currency;
+            this.valueInCents = valueInCents;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.practice.onlineShop.inventory;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * A product whose stock went at or below its reorder threshold, or back above it, and stayed there for the debounce period.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class LowStockAlert {
+    private final long productId;
+    private final String productCode;
+    private final int stock;
+    private final int threshold;
+    private final boolean lowOnStock;
+    private final Instant crossedAt;
+}
@@ -0,0 +1,9 @@
+package com.practice.onlineShop.inventory;
+
+/**
+ * Implemented by the beans receiving the low-stock alerts, called from the watcher's dispatching thread.
+ */
+public interface LowStockAlertListener {
+
+    void onLowStockAlert(LowStockAlert alert);
+}
@@ -0,0 +1,18 @@
+package com.practice.onlineShop.inventory;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class LowStockAlertLogger implements LowStockAlertListener {
+
+    @Override
+    public void onLowStockAlert(LowStockAlert alert) {
+        if (alert.isLowOnStock()) {
+            System.out.println("Low stock: product " + alert.getProductCode() + " (id " + alert.getProductId() + ") has " +
+                    alert.getStock() + " items left, reorder threshold " + alert.getThreshold());
+        } else {
+            System.out.println("Restocked: product " + alert.getProductCode() + " (id " + alert.getProductId() + ") has " +
+                    alert.getStock() + " items, above its reorder threshold " + alert.getThreshold());
+        }
+    }
+}
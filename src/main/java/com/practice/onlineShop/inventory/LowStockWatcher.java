@@ -0,0 +1,197 @@
+package com.practice.onlineShop.inventory;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.entities.StockThreshold;
+import com.practice.onlineShop.events.ProductChangeListener;
+import com.practice.onlineShop.repositories.StockThresholdRepository;
+import com.practice.onlineShop.vos.LowStockProductVO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Watches every committed stock change for products going at or below their reorder threshold, or back above it:
+ * each change only compares the product's new state with its previous one, the catalog is never scanned.
+ * A crossing becomes an alert for the {@link LowStockAlertListener}s once the product stayed on the same side for
+ * shop.inventory.low-stock.debounce-millis, so a stock going back and forth is reported once, or not at all
+ * if it ends where it was last reported. The products already low on stock at startup are not alerted.
+ */
+@Component
+public class LowStockWatcher implements ProductChangeListener {
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final StockThresholdRepository stockThresholdRepository;
+    private final ObjectProvider<LowStockAlertListener> alertListenersProvider;
+    private final int defaultThreshold;
+    private final long debounceMillis;
+    private final Map<Long, Integer> thresholdsByProductId = new HashMap<>();
+    private final Map<Long, WatchedProduct> watchedByProductId = new HashMap<>();
+    private final Set<Long> lowOnStock = new HashSet<>();
+    // the products which crossed their threshold since their last alert, oldest crossing first
+    private final Map<Long, WatchedProduct> pending = new LinkedHashMap<>();
+    private volatile boolean loaded;
+
+    public LowStockWatcher(StockThresholdRepository stockThresholdRepository,
+                           ObjectProvider<LowStockAlertListener> alertListenersProvider,
+                           MeterRegistry meterRegistry,
+                           @Value("${shop.inventory.low-stock.default-threshold:0}") int defaultThreshold,
+                           @Value("${shop.inventory.low-stock.debounce-millis:30000}") long debounceMillis) {
+        this.stockThresholdRepository = stockThresholdRepository;
+        this.alertListenersProvider = alertListenersProvider;
+        this.defaultThreshold = defaultThreshold;
+        this.debounceMillis = debounceMillis;
+        Gauge.builder("shop.inventory.low-stock.products", this, LowStockWatcher::countLowOnStock).register(meterRegistry);
+        Gauge.builder("shop.inventory.low-stock.thresholds", this, LowStockWatcher::countThresholds).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public synchronized void loadThresholds() {
+        for (StockThreshold stockThreshold : stockThresholdRepository.findAll()) {
+            thresholdsByProductId.put(stockThreshold.getProductId(), stockThreshold.getThreshold());
+        }
+    }
+
+    public synchronized List<LowStockProductVO> getLowOnStock() {
+        return lowOnStock.stream()
+                .sorted()
+                .map(watchedByProductId::get)
+                .map(watched -> new LowStockProductVO(watched.productId, watched.code, watched.stock, getThreshold(watched.productId)))
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener
+    public synchronized void onThresholdChanged(StockThresholdChangedEvent event) {
+        WatchedProduct watched = watchedByProductId.get(event.getProductId());
+        if (watched != null && watched.version == DELETED) {
+            return;
+        }
+        thresholdsByProductId.put(event.getProductId(), event.getThreshold());
+        if (watched != null) {
+            evaluate(watched);
+        }
+    }
+
+    @Override
+    public synchronized void onProductSaved(Product product) {
+        WatchedProduct watched = watchedByProductId.get(product.getId());
+        if (watched == null) {
+            watched = new WatchedProduct(product.getId());
+            watchedByProductId.put(product.getId(), watched);
+            // whatever the product starts with counts as already reported
+            watched.alertedLowOnStock = product.getStock() <= getThreshold(product.getId()) && !loaded;
+        } else if (watched.version >= product.getVersion()) {
+            return;
+        }
+        watched.version = product.getVersion();
+        watched.code = product.getCode();
+        watched.stock = product.getStock();
+        evaluate(watched);
+    }
+
+    @Override
+    public synchronized void onProductDeleted(Product product) {
+        WatchedProduct watched = watchedByProductId.computeIfAbsent(product.getId(), WatchedProduct::new);
+        watched.version = DELETED;
+        // the threshold row is deleted together with the product
+        thresholdsByProductId.remove(product.getId());
+        lowOnStock.remove(product.getId());
+        pending.remove(product.getId());
+    }
+
+    @Override
+    public boolean requiresInitialLoad() {
+        return true;
+    }
+
+    @Override
+    public void onInitialLoadCompleted() {
+        loaded = true;
+    }
+
+    @Scheduled(initialDelayString = "${shop.inventory.low-stock.dispatch-interval-millis:1000}", fixedDelayString = "${shop.inventory.low-stock.dispatch-interval-millis:1000}")
+    public void dispatchAlerts() {
+        List<LowStockAlert> alerts = takeDueAlerts(System.currentTimeMillis());
+        if (alerts.isEmpty()) {
+            return;
+        }
+        List<LowStockAlertListener> alertListeners = alertListenersProvider.orderedStream().collect(Collectors.toList());
+        for (LowStockAlert alert : alerts) {
+            for (LowStockAlertListener alertListener : alertListeners) {
+                try {
+                    alertListener.onLowStockAlert(alert);
+                } catch (RuntimeException exception) {
+                    System.out.println("Low stock alert listener failed for " + alert.getProductCode() + ": " + exception.getMessage());
+                }
+            }
+        }
+    }
+
+    synchronized List<LowStockAlert> takeDueAlerts(long nowMillis) {
+        List<LowStockAlert> alerts = new ArrayList<>();
+        Iterator<WatchedProduct> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            WatchedProduct watched = iterator.next();
+            if (nowMillis - watched.crossedAtMillis < debounceMillis) {
+                // later crossings are younger still
+                break;
+            }
+            iterator.remove();
+            boolean isLowOnStock = lowOnStock.contains(watched.productId);
+            watched.alertedLowOnStock = isLowOnStock;
+            alerts.add(new LowStockAlert(watched.productId, watched.code, watched.stock, getThreshold(watched.productId),
+                    isLowOnStock, Instant.ofEpochMilli(watched.crossedAtMillis)));
+        }
+        return alerts;
+    }
+
+    private void evaluate(WatchedProduct watched) {
+        boolean isLowOnStock = watched.stock <= getThreshold(watched.productId);
+        boolean wasLowOnStock = isLowOnStock ? !lowOnStock.add(watched.productId) : lowOnStock.remove(watched.productId);
+        if (isLowOnStock == wasLowOnStock) {
+            return;
+        }
+        if (isLowOnStock == watched.alertedLowOnStock) {
+            // back where it was last reported before the alert went out
+            pending.remove(watched.productId);
+            return;
+        }
+        // moved to the back: the debounce period restarts with every crossing
+        pending.remove(watched.productId);
+        watched.crossedAtMillis = System.currentTimeMillis();
+        pending.put(watched.productId, watched);
+    }
+
+    private int getThreshold(long productId) {
+        return thresholdsByProductId.getOrDefault(productId, defaultThreshold);
+    }
+
+    private synchronized int countLowOnStock() {
+        return lowOnStock.size();
+    }
+
+    private synchronized int countThresholds() {
+        return thresholdsByProductId.size();
+    }
+
+    private static final class WatchedProduct {
+        private final long productId;
+        private long version = -1;
+        private String code;
+        private int stock;
+        private boolean alertedLowOnStock;
+        private long crossedAtMillis;
+
+        private WatchedProduct(long productId) {
+            this.productId = productId;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.practice.onlineShop.inventory;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The reorder threshold of a product was set.
+ */
+@Getter
+@RequiredArgsConstructor
+public class StockThresholdChangedEvent {
+    private final long productId;
+    private final int threshold;
+}
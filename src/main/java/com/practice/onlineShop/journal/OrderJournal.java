@@ -0,0 +1,233 @@
+package com.practice.onlineShop.journal;
+
+import com.practice.onlineShop.entities.OrderJournalCheckpoint;
+import com.practice.onlineShop.repositories.OrderJournalCheckpointRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of the orders acknowledged before they reach the database, in memory mapped segments of
+ * shop.orders.journal.segment-bytes under shop.orders.journal.directory. Appending only copies the record into the
+ * mapping; the mapping is forced to disk every shop.orders.journal.fsync-interval-millis, so a crash of the process
+ * loses nothing and a crash of the machine loses at most that interval.
+ * The records are numbered after the last one applied, read back by the {@link OrderJournalApplier}, and the segments
+ * it has applied in full are deleted. Until the applier settles them, the records hold their quantities reserved,
+ * including the records left to apply at startup.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.orders.journal.enabled", havingValue = "true")
+public class OrderJournal {
+    private static final String SEGMENT_PREFIX = "orders-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final OrderJournalCheckpointRepository checkpointRepository;
+    private final Path directory;
+    private final int segmentBytes;
+    private final List<OrderJournalSegment> segments = new ArrayList<>();
+    private final Map<Integer, Integer> reservedByProductId = new HashMap<>();
+    private long nextSequence;
+    // where the applier stopped reading, so that it does not scan its segment again
+    private OrderJournalSegment cursorSegment;
+    private int cursorPosition;
+    private long cursorSequence;
+
+    public OrderJournal(OrderJournalCheckpointRepository checkpointRepository,
+                        @Value("${shop.orders.journal.directory:order-journal}") String directory,
+                        @Value("${shop.orders.journal.segment-bytes:67108864}") int segmentBytes) {
+        this.checkpointRepository = checkpointRepository;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        for (Path path : listSegments(directory)) {
+            segments.add(OrderJournalSegment.open(path, true));
+        }
+        long appliedSequence = checkpointRepository.findById(OrderJournalCheckpoint.ID)
+                .map(OrderJournalCheckpoint::getAppliedSequence)
+                .orElse(0L);
+        long lastSequence = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).getLastSequence();
+        // never number a record as if it were applied already, even when the segments were lost
+        nextSequence = Math.max(lastSequence, appliedSequence) + 1;
+        if (segments.isEmpty() || lastSequence < appliedSequence) {
+            rotate();
+        }
+        List<OrderJournalRecord> records;
+        long fromSequence = appliedSequence + 1;
+        do {
+            records = read(fromSequence, 1000);
+            records.forEach(record -> reserve(record, 1));
+            fromSequence += records.size();
+        } while (!records.isEmpty());
+        System.out.println("Order journal opened at " + directory + ": " + segments.size() + " segments, " +
+                (lastSequence - appliedSequence > 0 ? lastSequence - appliedSequence : 0) + " orders to apply");
+    }
+
+    /**
+     * Journals the order and returns its sequence.
+     */
+    public synchronized long append(int userId, long createdAtMillis, Map<Integer, Integer> productsIdsToQuantity) {
+        if (OrderJournalSegment.recordBytes(productsIdsToQuantity.size()) > segmentBytes - OrderJournalSegment.HEADER_BYTES) {
+            throw new IllegalArgumentException("Order too large for the order journal: " + productsIdsToQuantity.size() + " items");
+        }
+        OrderJournalRecord record = new OrderJournalRecord(nextSequence, userId, createdAtMillis, productsIdsToQuantity);
+        if (!activeSegment().append(record)) {
+            // the full segment goes to disk in full before the next one takes records
+            activeSegment().force();
+            rotate();
+            activeSegment().append(record);
+        }
+        reserve(record, 1);
+        return nextSequence++;
+    }
+
+    /**
+     * The quantities of the given products held by the records not settled yet.
+     */
+    public synchronized Map<Integer, Integer> getReservedQuantities(Collection<Integer> productIds) {
+        Map<Integer, Integer> reservedQuantities = new HashMap<>();
+        for (Integer productId : productIds) {
+            Integer reserved = reservedByProductId.get(productId);
+            if (reserved != null) {
+                reservedQuantities.put(productId, reserved);
+            }
+        }
+        return reservedQuantities;
+    }
+
+    /**
+     * Releases the quantities of a record once it was placed in the database, or rejected.
+     */
+    public synchronized void settle(OrderJournalRecord record) {
+        reserve(record, -1);
+    }
+
+    /**
+     * At most maxRecords records, from fromSequence on.
+     */
+    public synchronized List<OrderJournalRecord> read(long fromSequence, int maxRecords) {
+        List<OrderJournalRecord> records = new ArrayList<>();
+        if (cursorSegment == null || cursorSequence != fromSequence) {
+            seek(fromSequence);
+        }
+        while (cursorSegment != null && records.size() < maxRecords) {
+            OrderJournalRecord record = cursorSegment.read(cursorPosition, cursorSequence);
+            if (record == null) {
+                int index = segments.indexOf(cursorSegment);
+                if (index + 1 >= segments.size() || cursorSequence <= cursorSegment.getLastSequence()) {
+                    break;
+                }
+                cursorSegment = segments.get(index + 1);
+                cursorPosition = OrderJournalSegment.HEADER_BYTES;
+                if (cursorSegment.getFirstSequence() > cursorSequence) {
+                    System.out.println("Order journal records " + cursorSequence + " to " + (cursorSegment.getFirstSequence() - 1) + " are missing, skipped");
+                    cursorSequence = cursorSegment.getFirstSequence();
+                }
+                continue;
+            }
+            records.add(record);
+            cursorPosition = cursorSegment.next(cursorPosition);
+            cursorSequence++;
+        }
+        return records;
+    }
+
+    /**
+     * Deletes the segments whose records were all applied, up to appliedSequence.
+     */
+    public synchronized void release(long appliedSequence) {
+        Iterator<OrderJournalSegment> iterator = segments.iterator();
+        while (iterator.hasNext()) {
+            OrderJournalSegment segment = iterator.next();
+            if (segment == activeSegment() || segment.getLastSequence() > appliedSequence || segment == cursorSegment) {
+                break;
+            }
+            iterator.remove();
+            try {
+                Files.deleteIfExists(segment.getPath());
+            } catch (IOException exception) {
+                System.out.println("Could not delete the order journal segment " + segment.getPath() + ": " + exception.getMessage());
+            }
+        }
+    }
+
+    public synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    @Scheduled(initialDelayString = "${shop.orders.journal.fsync-interval-millis:100}", fixedDelayString = "${shop.orders.journal.fsync-interval-millis:100}")
+    public void force() {
+        OrderJournalSegment segment;
+        synchronized (this) {
+            segment = activeSegment();
+        }
+        // outside the lock: appends go on while the pages are written
+        segment.force();
+    }
+
+    @PreDestroy
+    public void close() {
+        force();
+    }
+
+    /**
+     * The segment files of a journal directory, oldest first.
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX) && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void seek(long fromSequence) {
+        cursorSegment = null;
+        for (OrderJournalSegment segment : segments) {
+            if (segment.getFirstSequence() <= fromSequence && (fromSequence <= segment.getLastSequence() + 1)) {
+                cursorSegment = segment;
+                cursorPosition = OrderJournalSegment.HEADER_BYTES;
+                cursorSequence = segment.getFirstSequence();
+                while (cursorSequence < fromSequence) {
+                    cursorPosition = segment.next(cursorPosition);
+                    cursorSequence++;
+                }
+                return;
+            }
+        }
+    }
+
+    private void reserve(OrderJournalRecord record, int sign) {
+        record.getProductsIdsToQuantity().forEach((productId, quantity) ->
+                reservedByProductId.merge(productId, sign * quantity, (reserved, change) -> reserved + change == 0 ? null : reserved + change));
+    }
+
+    private OrderJournalSegment activeSegment() {
+        return segments.get(segments.size() - 1);
+    }
+
+    private void rotate() {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        try {
+            segments.add(OrderJournalSegment.create(path, nextSequence, segmentBytes));
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not create the order journal segment " + path, exception);
+        }
+    }
+}
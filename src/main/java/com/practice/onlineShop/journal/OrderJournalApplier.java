@@ -0,0 +1,141 @@
+package com.practice.onlineShop.journal;
+
+import com.practice.onlineShop.entities.OrderJournalCheckpoint;
+import com.practice.onlineShop.exceptions.InvalidCustomerIdException;
+import com.practice.onlineShop.exceptions.InvalidProductIdException;
+import com.practice.onlineShop.exceptions.InvalidProductsException;
+import com.practice.onlineShop.exceptions.NotEnoughStockException;
+import com.practice.onlineShop.repositories.OrderJournalCheckpointRepository;
+import com.practice.onlineShop.services.OrderService;
+import com.practice.onlineShop.vos.OrderVO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Places the journaled orders in the database, in journal order, each in a transaction that also moves the
+ * checkpoint: an order is placed exactly once however often the application stops before or after it.
+ * The records after the checkpoint are replayed when the application is ready, then the new ones every
+ * shop.orders.journal.apply-interval-millis. An order the database refuses (the stock ran out meanwhile, the
+ * product was deleted) is counted as rejected and skipped; any other failure stops the run and the record is
+ * retried at the next one. Either way, once the record is past the checkpoint its reserved quantities are settled.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.orders.journal.enabled", havingValue = "true")
+public class OrderJournalApplier {
+    private final OrderJournal orderJournal;
+    private final OrderService orderService;
+    private final OrderJournalCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter appliedOrders;
+    private final Counter rejectedOrders;
+    private volatile long appliedSequence;
+
+    public OrderJournalApplier(OrderJournal orderJournal, OrderService orderService, OrderJournalCheckpointRepository checkpointRepository,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                               @Value("${shop.orders.journal.apply-batch-size:500}") int batchSize) {
+        this.orderJournal = orderJournal;
+        this.orderService = orderService;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.appliedOrders = meterRegistry.counter("shop.orders.journal.applied");
+        this.rejectedOrders = meterRegistry.counter("shop.orders.journal.rejected");
+        Gauge.builder("shop.orders.journal.lag", this, applier -> applier.orderJournal.getLastSequence() - applier.appliedSequence)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void loadCheckpoint() {
+        appliedSequence = checkpointRepository.findById(OrderJournalCheckpoint.ID)
+                .map(OrderJournalCheckpoint::getAppliedSequence)
+                .orElse(0L);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replay() {
+        long replayed = applyPending();
+        if (replayed > 0) {
+            System.out.println("Replayed " + replayed + " journaled orders");
+        }
+    }
+
+    @Scheduled(initialDelayString = "${shop.orders.journal.apply-interval-millis:100}", fixedDelayString = "${shop.orders.journal.apply-interval-millis:100}")
+    public void applyNewRecords() {
+        applyPending();
+    }
+
+    /**
+     * Applies the records journaled so far and returns how many were applied or rejected.
+     */
+    public synchronized long applyPending() {
+        long start = appliedSequence;
+        List<OrderJournalRecord> records;
+        do {
+            records = orderJournal.read(appliedSequence + 1, batchSize);
+            for (OrderJournalRecord record : records) {
+                try {
+                    apply(record);
+                } catch (RuntimeException exception) {
+                    System.out.println("Could not apply the journaled order " + record.getSequence() + ", retrying at the next run: " + exception.getMessage());
+                    orderJournal.release(appliedSequence);
+                    return appliedSequence - start;
+                }
+                appliedSequence = record.getSequence();
+                orderJournal.settle(record);
+            }
+        } while (records.size() == batchSize);
+        orderJournal.release(appliedSequence);
+        return appliedSequence - start;
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    private void apply(OrderJournalRecord record) {
+        OrderVO orderVO = new OrderVO();
+        orderVO.setUserId(record.getUserId());
+        orderVO.setProductsIdsToQuantity(new HashMap<>(record.getProductsIdsToQuantity()));
+
+        Boolean placed = transactionTemplate.execute(status -> {
+            try {
+                orderService.placeJournaledOrder(orderVO, Instant.ofEpochMilli(record.getCreatedAtMillis()));
+            } catch (InvalidCustomerIdException | InvalidProductsException | InvalidProductIdException | NotEnoughStockException
+                    | NoSuchElementException exception) {
+                status.setRollbackOnly();
+                return false;
+            }
+            saveCheckpoint(record.getSequence());
+            return true;
+        });
+        if (Boolean.TRUE.equals(placed)) {
+            appliedOrders.increment();
+            return;
+        }
+        transactionTemplate.execute(status -> saveCheckpoint(record.getSequence()));
+        rejectedOrders.increment();
+        System.out.println("Journaled order " + record.getSequence() + " was rejected by the database: " + record);
+    }
+
+    private OrderJournalCheckpoint saveCheckpoint(long sequence) {
+        OrderJournalCheckpoint checkpoint = new OrderJournalCheckpoint();
+        checkpoint.setAppliedSequence(sequence);
+        return checkpointRepository.save(checkpoint);
+    }
+}
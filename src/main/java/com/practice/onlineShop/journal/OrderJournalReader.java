@@ -0,0 +1,71 @@
+package com.practice.onlineShop.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads an order journal directory without the application, mapping the segments read-only: for tests replaying what
+ * was journaled, or to look at a journal left by a crash.
+ * <pre>
+ * java -cp ... com.practice.onlineShop.journal.OrderJournalReader order-journal [fromSequence]
+ * </pre>
+ */
+public final class OrderJournalReader {
+
+    private OrderJournalReader() {
+    }
+
+    /**
+     * Hands the records from fromSequence on to the consumer, in order, up to the first one missing or damaged.
+     * The records of the segments already deleted are skipped. Returns the number of records replayed.
+     */
+    public static long replay(Path directory, long fromSequence, Consumer<OrderJournalRecord> consumer) throws IOException {
+        long sequence = fromSequence;
+        long replayed = 0;
+        for (Path path : OrderJournal.listSegments(directory)) {
+            OrderJournalSegment segment = OrderJournalSegment.open(path, false);
+            if (segment.getLastSequence() < sequence) {
+                continue;
+            }
+            if (segment.getFirstSequence() > sequence) {
+                if (replayed > 0) {
+                    break;
+                }
+                sequence = segment.getFirstSequence();
+            }
+            int position = OrderJournalSegment.HEADER_BYTES;
+            OrderJournalRecord record;
+            long expectedSequence = segment.getFirstSequence();
+            while ((record = segment.read(position, expectedSequence)) != null) {
+                if (record.getSequence() >= sequence) {
+                    consumer.accept(record);
+                    sequence++;
+                    replayed++;
+                }
+                position = segment.next(position);
+                expectedSequence++;
+            }
+        }
+        return replayed;
+    }
+
+    public static List<OrderJournalRecord> readAll(Path directory) throws IOException {
+        List<OrderJournalRecord> records = new ArrayList<>();
+        replay(directory, 1, records::add);
+        return records;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: OrderJournalReader <journal directory> [fromSequence]");
+            return;
+        }
+        long fromSequence = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        long replayed = replay(Paths.get(args[0]), fromSequence, System.out::println);
+        System.out.println(replayed + " records");
+    }
+}
@@ -0,0 +1,20 @@
+package com.practice.onlineShop.journal;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * An order as acknowledged to the client, numbered by its position in the journal.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class OrderJournalRecord {
+    private final long sequence;
+    private final int userId;
+    private final long createdAtMillis;
+    private final Map<Integer, Integer> productsIdsToQuantity;
+}
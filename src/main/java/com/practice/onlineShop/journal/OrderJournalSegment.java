@@ -0,0 +1,179 @@
+package com.practice.onlineShop.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * One file of the order journal, preallocated and memory mapped in full.
+ * <pre>
+ * header   magic, format version, first sequence
+ * record   payload length, crc32 of the sequence and the payload, sequence, then the payload
+ * payload  user id, created at (epoch millis), item count, then product id and quantity per item
+ * </pre>
+ * The length of a record is written after the rest of it. A record cut by a crash, or the remains of one past
+ * the last record, fail their checksum or their sequence and end the records; the next record overwrites them.
+ */
+class OrderJournalSegment {
+    static final int MAGIC = 0x4F534A4E;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 16;
+    private static final int ORDER_BYTES = 16;
+    private static final int ITEM_BYTES = 8;
+
+    private final Path path;
+    private final MappedByteBuffer mapped;
+    private final ByteBuffer data;
+    private final long firstSequence;
+    // written after the bytes of the record they cover
+    private volatile int end = HEADER_BYTES;
+    private volatile long lastSequence;
+
+    private OrderJournalSegment(Path path, MappedByteBuffer mapped, long firstSequence) {
+        this.path = path;
+        this.mapped = mapped;
+        this.data = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.firstSequence = firstSequence;
+        this.lastSequence = firstSequence - 1;
+    }
+
+    static OrderJournalSegment create(Path path, long firstSequence, int size) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        OrderJournalSegment segment = new OrderJournalSegment(path, mapped, firstSequence);
+        segment.data.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putLong(8, firstSequence);
+        mapped.force();
+        return segment;
+    }
+
+    /**
+     * Maps an existing segment, read-only unless records are to be appended to it, and finds the end of its records.
+     */
+    static OrderJournalSegment open(Path path, boolean writable) throws IOException {
+        MappedByteBuffer mapped;
+        if (writable) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+        } else {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        ByteBuffer data = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not an order journal segment: " + path);
+        }
+
+        OrderJournalSegment segment = new OrderJournalSegment(path, mapped, data.getLong(8));
+        int position = HEADER_BYTES;
+        OrderJournalRecord record;
+        while ((record = segment.read(position, segment.lastSequence + 1, data.capacity())) != null) {
+            position = segment.next(position);
+            segment.lastSequence = record.getSequence();
+        }
+        segment.end = position;
+        return segment;
+    }
+
+    static int recordBytes(int itemCount) {
+        return RECORD_HEADER_BYTES + ORDER_BYTES + itemCount * ITEM_BYTES;
+    }
+
+    /**
+     * Appends the record unless it does not fit in what is left of the segment.
+     */
+    boolean append(OrderJournalRecord record) {
+        Map<Integer, Integer> productsIdsToQuantity = record.getProductsIdsToQuantity();
+        int position = end;
+        if (position + recordBytes(productsIdsToQuantity.size()) > data.capacity()) {
+            return false;
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate(8 + ORDER_BYTES + productsIdsToQuantity.size() * ITEM_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putLong(record.getSequence());
+        bytes.putInt(record.getUserId()).putLong(record.getCreatedAtMillis()).putInt(productsIdsToQuantity.size());
+        for (Map.Entry<Integer, Integer> item : productsIdsToQuantity.entrySet()) {
+            bytes.putInt(item.getKey()).putInt(item.getValue());
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes.array());
+
+        ByteBuffer target = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        target.position(position + 4);
+        target.putInt((int) crc32.getValue());
+        target.put(bytes.array());
+        data.putInt(position, bytes.capacity() - 8);
+        lastSequence = record.getSequence();
+        end = target.position();
+        return true;
+    }
+
+    /**
+     * The record at the position, or null when the records end there.
+     */
+    OrderJournalRecord read(int position, long expectedSequence) {
+        return read(position, expectedSequence, end);
+    }
+
+    int next(int position) {
+        return position + RECORD_HEADER_BYTES + data.getInt(position);
+    }
+
+    void force() {
+        mapped.force();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getFirstSequence() {
+        return firstSequence;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    private OrderJournalRecord read(int position, long expectedSequence, int limit) {
+        if (position + RECORD_HEADER_BYTES > limit) {
+            return null;
+        }
+        int payloadBytes = data.getInt(position);
+        if (payloadBytes < ORDER_BYTES || (payloadBytes - ORDER_BYTES) % ITEM_BYTES != 0
+                || position + RECORD_HEADER_BYTES + payloadBytes > limit) {
+            return null;
+        }
+        ByteBuffer bytes = data.duplicate();
+        bytes.position(position + 8);
+        bytes.limit(position + RECORD_HEADER_BYTES + payloadBytes);
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes);
+        if ((int) crc32.getValue() != data.getInt(position + 4) || data.getLong(position + 8) != expectedSequence) {
+            return null;
+        }
+
+        int payload = position + RECORD_HEADER_BYTES;
+        int itemCount = (payloadBytes - ORDER_BYTES) / ITEM_BYTES;
+        if (data.getInt(payload + 12) != itemCount) {
+            return null;
+        }
+        Map<Integer, Integer> productsIdsToQuantity = new LinkedHashMap<>();
+        for (int item = 0; item < itemCount; item++) {
+            int offset = payload + ORDER_BYTES + item * ITEM_BYTES;
+            productsIdsToQuantity.put(data.getInt(offset), data.getInt(offset + 4));
+        }
+        return new OrderJournalRecord(expectedSequence, data.getInt(payload), data.getLong(payload + 4), productsIdsToQuantity);
+    }
+}
@@ -1,14 +1,14 @@
 package com.practice.onlineShop.mappers;
 
-import com.practice.onlineShop.entities.OrderItem;
-import com.practice.onlineShop.entities.Orders;
-import com.practice.onlineShop.entities.Product;
-import com.practice.onlineShop.entities.User;
+import com.practice.onlineShop.entities.*;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.enums.OrderStatuses;
 import com.practice.onlineShop.exceptions.InvalidCustomerIdException;
 import com.practice.onlineShop.exceptions.InvalidProductIdException;
 import com.practice.onlineShop.exceptions.InvalidProductsException;
 import com.practice.onlineShop.repositories.ProductRepository;
 import com.practice.onlineShop.repositories.UserRepository;
+import com.practice.onlineShop.vos.OrderSummaryVO;
 import com.practice.onlineShop.vos.OrderVO;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -51,6 +51,8 @@ public class OrderMapper {
                 throw new InvalidProductIdException();
             }
             orderItem.setProduct(productOptional.get());
+            orderItem.setPrice(productOptional.get().getPrice());
+            orderItem.setCurrency(productOptional.get().getCurrency());
 
             Integer productQuantity = productsIdsToQuantityMap.get(productId);
             orderItem.setQuantity(productQuantity);
@@ -60,6 +62,58 @@ public class OrderMapper {
         return order;
     }
 
+    /**
+     * The summary of an order being placed, valued at the current prices of its products.
+     */
+    public OrderSummary toSummary(Orders order) {
+        OrderSummary orderSummary = new OrderSummary();
+        orderSummary.setOrderId(order.getId());
+        orderSummary.setUserId(order.getUser().getId());
+        orderSummary.setStatus(OrderStatuses.PLACED);
+        orderSummary.setCreatedAt(order.getCreatedAt());
+        for (OrderItem orderItem : order.getOrderItems()) {
+            Product product = orderItem.getProduct();
+            long cents = Math.round(product.getPrice() * 100) * orderItem.getQuantity();
+            orderSummary.setLineCount(orderSummary.getLineCount() + 1);
+            orderSummary.setTotalQuantity(orderSummary.getTotalQuantity() + orderItem.getQuantity());
+            if (product.getCurrency() == null) {
+                continue;
+            }
+            switch (product.getCurrency()) {
+                case EUR:
+                    orderSummary.setTotalEurCents(orderSummary.getTotalEurCents() + cents);
+                    break;
+                case USD:
+                    orderSummary.setTotalUsdCents(orderSummary.getTotalUsdCents() + cents);
+                    break;
+                case RON:
+                    orderSummary.setTotalRonCents(orderSummary.getTotalRonCents() + cents);
+                    break;
+            }
+        }
+        return orderSummary;
+    }
+
+    public OrderSummaryVO toSummaryVO(OrderSummary orderSummary) {
+        OrderSummaryVO orderSummaryVO = new OrderSummaryVO();
+        orderSummaryVO.setOrderId(orderSummary.getOrderId());
+        orderSummaryVO.setUserId(orderSummary.getUserId());
+        orderSummaryVO.setStatus(orderSummary.getStatus());
+        orderSummaryVO.setLineCount(orderSummary.getLineCount());
+        orderSummaryVO.setTotalQuantity(orderSummary.getTotalQuantity());
+        orderSummaryVO.setCreatedAt(orderSummary.getCreatedAt());
+        putTotal(orderSummaryVO, Currencies.EUR, orderSummary.getTotalEurCents());
+        putTotal(orderSummaryVO, Currencies.USD, orderSummary.getTotalUsdCents());
+        putTotal(orderSummaryVO, Currencies.RON, orderSummary.getTotalRonCents());
+        return orderSummaryVO;
+    }
+
+    private void putTotal(OrderSummaryVO orderSummaryVO, Currencies currency, long cents) {
+        if (cents != 0) {
+            orderSummaryVO.getTotals().put(currency, cents / 100.0);
+        }
+    }
+
     private void validateOrder(OrderVO orderVO) throws InvalidCustomerIdException, InvalidProductsException {
         if (orderVO.getProductsIdsToQuantity().keySet().isEmpty()){
             throw new InvalidProductsException();
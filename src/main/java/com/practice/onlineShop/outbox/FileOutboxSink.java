@@ -0,0 +1,59 @@
+package com.practice.onlineShop.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.practice.onlineShop.entities.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends the events to shop.outbox.file, one JSON object per line, and forces each batch to disk before it
+ * counts as published. The default sink.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.outbox.sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileOutboxSink(ObjectMapper objectMapper, @Value("${shop.outbox.file:outbox-events.ndjson}") String path) {
+        this.objectMapper = objectMapper;
+        this.path = Paths.get(path);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            for (OutboxEvent event : events) {
+                ObjectNode line = objectMapper.createObjectNode()
+                        .put("id", event.getId())
+                        .put("type", event.getType().name())
+                        .put("aggregateType", event.getAggregateType())
+                        .put("aggregateId", event.getAggregateId())
+                        .put("createdAt", String.valueOf(event.getCreatedAt()));
+                line.set("payload", objectMapper.readTree(event.getPayload()));
+                objectMapper.writeValue(lines, line);
+                lines.write('\n');
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(lines.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not append the outbox events to " + path, exception);
+        }
+    }
+}
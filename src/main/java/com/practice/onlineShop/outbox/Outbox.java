@@ -0,0 +1,96 @@
+package com.practice.onlineShop.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.practice.onlineShop.entities.OrderItem;
+import com.practice.onlineShop.entities.Orders;
+import com.practice.onlineShop.entities.OutboxEvent;
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.OutboxEventTypes;
+import com.practice.onlineShop.repositories.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+/**
+ * Writes the order and stock events to the outbox table, in the transaction making the change: an event exists
+ * if and only if its change was committed. The {@link OutboxRelay} publishes them afterwards.
+ */
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPlaced(Orders order) {
+        ObjectNode payload = orderPayload(order);
+        payload.put("createdAt", String.valueOf(order.getCreatedAt()));
+        ArrayNode items = payload.putArray("items");
+        for (OrderItem orderItem : order.getOrderItems()) {
+            items.addObject()
+                    .put("productId", orderItem.getProduct().getId())
+                    .put("quantity", orderItem.getQuantity());
+        }
+        record(OutboxEventTypes.ORDER_PLACED, order.getId(), payload);
+    }
+
+    /**
+     * One of the events of an order that was placed: delivered, canceled or returned.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderChanged(OutboxEventTypes type, Orders order) {
+        record(type, order.getId(), orderPayload(order));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void stockChanged(Product product, int delta) {
+        ObjectNode payload = objectMapper.createObjectNode()
+                .put("productId", product.getId())
+                .put("code", product.getCode())
+                .put("stock", product.getStock())
+                .put("delta", delta)
+                .put("deleted", false);
+        record(OutboxEventTypes.STOCK_CHANGED, product.getId(), payload);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productDeleted(Product product) {
+        ObjectNode payload = objectMapper.createObjectNode()
+                .put("productId", product.getId())
+                .put("code", product.getCode())
+                .put("stock", 0)
+                .put("delta", -product.getStock())
+                .put("deleted", true);
+        record(OutboxEventTypes.STOCK_CHANGED, product.getId(), payload);
+    }
+
+    private ObjectNode orderPayload(Orders order) {
+        return objectMapper.createObjectNode()
+                .put("orderId", order.getId())
+                .put("userId", order.getUser().getId())
+                .put("delivered", order.isDelivered())
+                .put("canceled", order.isCanceled())
+                .put("returned", order.isReturned());
+    }
+
+    private void record(OutboxEventTypes type, long aggregateId, ObjectNode payload) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setType(type);
+        outboxEvent.setAggregateType(type.getAggregateType());
+        outboxEvent.setAggregateId(aggregateId);
+        outboxEvent.setCreatedAt(Instant.now());
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        outboxEventRepository.save(outboxEvent);
+    }
+}
@@ -0,0 +1,90 @@
+package com.practice.onlineShop.outbox;
+
+import com.practice.onlineShop.entities.OutboxEvent;
+import com.practice.onlineShop.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the outbox events to the {@link OutboxSink} in batches of shop.outbox.batch-size, every
+ * shop.outbox.relay-interval-millis. The events go out in the order they were written, oldest first, and are deleted
+ * only once their batch was published: a failure or a crash in between publishes the batch again, never skips it.
+ * A failed batch stops the run, so that no later event of the same order or product overtakes it; the failure is
+ * logged once, when the sink starts failing, and again when it recovers.
+ * The lag is reported as the age of the oldest event not published yet, the delay of each event until published
+ * as a timer.
+ */
+@Component
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final int batchSize;
+    private final Counter publishedEvents;
+    private final Counter failedBatches;
+    private final Timer publishDelay;
+    // created at of the oldest event left after the last run, 0 when none was left
+    private volatile long oldestPendingMillis;
+    // runs failed in a row
+    private int failedRuns;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxSink outboxSink, MeterRegistry meterRegistry,
+                       @Value("${shop.outbox.batch-size:200}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSink = outboxSink;
+        this.batchSize = batchSize;
+        this.publishedEvents = meterRegistry.counter("shop.outbox.published");
+        this.failedBatches = meterRegistry.counter("shop.outbox.failures");
+        this.publishDelay = meterRegistry.timer("shop.outbox.delay");
+        Gauge.builder("shop.outbox.lag.seconds", this, OutboxRelay::getLagSeconds).register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${shop.outbox.relay-interval-millis:500}", fixedDelayString = "${shop.outbox.relay-interval-millis:500}")
+    public synchronized void relay() {
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                outboxSink.publish(batch);
+            } catch (RuntimeException exception) {
+                failedBatches.increment();
+                if (failedRuns++ == 0) {
+                    System.out.println("Could not publish " + batch.size() + " outbox events, retrying at every run: " + exception.getMessage());
+                }
+                break;
+            }
+            if (failedRuns > 0) {
+                System.out.println("Published the outbox events again after " + failedRuns + " failed runs");
+                failedRuns = 0;
+            }
+            outboxEventRepository.deleteByIds(batch.stream().map(OutboxEvent::getId).collect(Collectors.toList()));
+
+            long now = System.currentTimeMillis();
+            for (OutboxEvent event : batch) {
+                publishDelay.record(now - event.getCreatedAt().toEpochMilli(), TimeUnit.MILLISECONDS);
+            }
+            publishedEvents.increment(batch.size());
+        } while (batch.size() == batchSize);
+
+        oldestPendingMillis = outboxEventRepository.findFirstByOrderByIdAsc()
+                .map(event -> event.getCreatedAt().toEpochMilli())
+                .orElse(0L);
+    }
+
+    public double getLagSeconds() {
+        long oldest = oldestPendingMillis;
+        return oldest == 0 ? 0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+}
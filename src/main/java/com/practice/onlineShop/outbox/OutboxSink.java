@@ -0,0 +1,15 @@
+package com.practice.onlineShop.outbox;
+
+import com.practice.onlineShop.entities.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Where the outbox relay publishes the events, selected by shop.outbox.sink.
+ * A batch is published in order and in full, or the call fails and the whole batch is published again later,
+ * so the events reach the sink at least once and the consumers tell the duplicates by their id.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,44 @@
+package com.practice.onlineShop.outbox;
+
+import com.practice.onlineShop.entities.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands the events to consumers in this process through a queue bounded by shop.outbox.queue-capacity.
+ * A batch that does not fit is refused, and the events wait in the outbox table until the consumers catch up;
+ * only chosen with shop.outbox.sink=queue, as the relay stops once nothing drains the queue.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.outbox.sink", havingValue = "queue")
+public class QueueOutboxSink implements OutboxSink {
+    private final BlockingQueue<OutboxEvent> queue;
+
+    public QueueOutboxSink(@Value("${shop.outbox.queue-capacity:10000}") int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        // the relay is the only producer, the room can only grow until the events are added
+        if (queue.remainingCapacity() < events.size()) {
+            throw new IllegalStateException("The outbox queue is full");
+        }
+        queue.addAll(events);
+    }
+
+    public OutboxEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    public int drainTo(Collection<? super OutboxEvent> events) {
+        return queue.drainTo(events);
+    }
+}
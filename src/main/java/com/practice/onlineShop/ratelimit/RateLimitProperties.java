@@ -0,0 +1,50 @@
+package com.practice.onlineShop.ratelimit;
+
+import com.practice.onlineShop.enums.Roles;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "shop.rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+    private int tableSize = 65536;
+    private int unknownCustomersTableSize = 4096;
+    private Rate defaultRate = new Rate();
+    private Map<Roles, Rate> roles = new EnumMap<>(Roles.class);
+
+    /**
+     * The most generous rate among the roles of the user, or the default one while the roles are not known.
+     */
+    public Rate rateFor(Collection<Roles> userRoles) {
+        Rate rate = defaultRate;
+        if (userRoles == null) {
+            return rate;
+        }
+        for (Roles role : userRoles) {
+            Rate roleRate = roles.get(role);
+            if (roleRate != null && roleRate.getPermitsPerSecond() > rate.getPermitsPerSecond()) {
+                rate = roleRate;
+            }
+        }
+        return rate;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rate {
+        private double permitsPerSecond = 2;
+        private int burst = 5;
+    }
+}
@@ -0,0 +1,43 @@
+package com.practice.onlineShop.ratelimit;
+
+import com.practice.onlineShop.enums.Roles;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Customers whose roles are not known yet, because the SecurityAspect has not seen them, get a bucket of their own
+ * at the default rate, in a smaller table apart from the known customers: made up customer ids only evict each other,
+ * and they can neither drain the bucket of a real customer nor push out the buckets of the known ones.
+ */
+@Component
+public class RateLimiter {
+    private final RateLimitProperties rateLimitProperties;
+    private final UserRolesCache userRolesCache;
+    private final MeterRegistry meterRegistry;
+    private final TokenBucketTable tokenBucketTable;
+    private final TokenBucketTable unknownCustomersTokenBucketTable;
+
+    public RateLimiter(RateLimitProperties rateLimitProperties, UserRolesCache userRolesCache, MeterRegistry meterRegistry) {
+        this.rateLimitProperties = rateLimitProperties;
+        this.userRolesCache = userRolesCache;
+        this.meterRegistry = meterRegistry;
+        this.tokenBucketTable = new TokenBucketTable(rateLimitProperties.getTableSize());
+        this.unknownCustomersTokenBucketTable = new TokenBucketTable(rateLimitProperties.getUnknownCustomersTableSize());
+    }
+
+    /**
+     * Returns 0 when the request may go on, otherwise how long until the customer may try again, in nanoseconds.
+     */
+    public long acquire(long customerId, String endpoint) {
+        Collection<Roles> roles = userRolesCache.get(customerId);
+        RateLimitProperties.Rate rate = rateLimitProperties.rateFor(roles);
+        TokenBucketTable table = roles == null ? unknownCustomersTokenBucketTable : tokenBucketTable;
+        long waitNanos = table.acquire(customerId, endpoint, rate.getPermitsPerSecond(), rate.getBurst());
+        if (waitNanos > 0) {
+            meterRegistry.counter("shop.ratelimit.throttled", "endpoint", endpoint).increment();
+        }
+        return waitNanos;
+    }
+}
@@ -0,0 +1,101 @@
+package com.practice.onlineShop.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed size, lock-free table of token buckets keyed by customer id and endpoint.
+ * Each bucket is kept as a single "theoretical arrival time" (GCRA), which behaves exactly like a token
+ * bucket but can be updated with one CAS. A key is looked for in a few neighbouring slots; a newcomer takes
+ * a free slot or one whose bucket is full again, since forgetting a full bucket changes nothing. When all of them
+ * are in use, it evicts the bucket closest to full and carries on from its state, so that colliding with a bucket
+ * never hands out a fuller one. The memory stays bounded whatever the number of clients.
+ */
+public class TokenBucketTable {
+    private static final int PROBES = 4;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final int mask;
+
+    public TokenBucketTable(int size) {
+        int capacity = Integer.highestOneBit(Math.max(PROBES, size - 1)) << 1;
+        this.buckets = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public boolean tryAcquire(long customerId, String endpoint, double permitsPerSecond, int burst) {
+        return acquire(customerId, endpoint, permitsPerSecond, burst, System.nanoTime()) == 0;
+    }
+
+    /**
+     * Takes a token if one is left. Returns 0 when it was taken, otherwise how long until the next one, in nanoseconds.
+     */
+    public long acquire(long customerId, String endpoint, double permitsPerSecond, int burst) {
+        return acquire(customerId, endpoint, permitsPerSecond, burst, System.nanoTime());
+    }
+
+    boolean tryAcquire(long customerId, String endpoint, double permitsPerSecond, int burst, long nowNanos) {
+        return acquire(customerId, endpoint, permitsPerSecond, burst, nowNanos) == 0;
+    }
+
+    long acquire(long customerId, String endpoint, double permitsPerSecond, int burst, long nowNanos) {
+        long emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        long toleranceNanos = emissionIntervalNanos * (Math.max(1, burst) - 1);
+        Bucket bucket = bucketFor(customerId, endpoint, nowNanos);
+
+        while (true) {
+            long storedArrival = bucket.theoreticalArrivalNanos.get();
+            long arrival = Math.max(storedArrival, nowNanos);
+            if (arrival - nowNanos > toleranceNanos) {
+                return arrival - nowNanos - toleranceNanos;
+            }
+            if (bucket.theoreticalArrivalNanos.compareAndSet(storedArrival, arrival + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    private Bucket bucketFor(long customerId, String endpoint, long nowNanos) {
+        int firstIndex = indexFor(customerId, endpoint);
+        while (true) {
+            // the slot to take if the key is not found: a free one, else the bucket closest to full
+            int victimIndex = firstIndex;
+            Bucket victim = null;
+            long victimArrival = Long.MAX_VALUE;
+            for (int probe = 0; probe < PROBES; probe++) {
+                int index = (firstIndex + probe) & mask;
+                Bucket bucket = buckets.get(index);
+                if (bucket != null && bucket.customerId == customerId && bucket.endpoint.equals(endpoint)) {
+                    return bucket;
+                }
+                long arrival = bucket == null ? Long.MIN_VALUE : bucket.theoreticalArrivalNanos.get();
+                if (arrival < victimArrival) {
+                    victimIndex = index;
+                    victim = bucket;
+                    victimArrival = arrival;
+                }
+            }
+            Bucket freshBucket = new Bucket(customerId, endpoint, Math.max(nowNanos, victimArrival));
+            if (buckets.compareAndSet(victimIndex, victim, freshBucket)) {
+                return freshBucket;
+            }
+        }
+    }
+
+    private int indexFor(long customerId, String endpoint) {
+        int hash = Long.hashCode(customerId) * 31 + endpoint.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static final class Bucket {
+        private final long customerId;
+        private final String endpoint;
+        private final AtomicLong theoreticalArrivalNanos;
+
+        private Bucket(long customerId, String endpoint, long theoreticalArrivalNanos) {
+            this.customerId = customerId;
+            this.endpoint = endpoint;
+            this.theoreticalArrivalNanos = new AtomicLong(theoreticalArrivalNanos);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.practice.onlineShop.ratelimit;
+
+import com.practice.onlineShop.enums.Roles;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Roles of the users already seen by the SecurityAspect, so the rate limiter can pick the role
+ * based rate without going to the database.
+ */
+@Component
+public class UserRolesCache {
+    private final ConcurrentMap<Long, Collection<Roles>> rolesByUserId = new ConcurrentHashMap<>();
+
+    public void put(long userId, Collection<Roles> roles) {
+        if (roles == null) {
+            return;
+        }
+        rolesByUserId.put(userId, Collections.unmodifiableList(new ArrayList<>(roles)));
+    }
+
+    public Collection<Roles> get(long userId) {
+        return rolesByUserId.get(userId);
+    }
+}
@@ -0,0 +1,76 @@
+package com.practice.onlineShop.rates;
+
+import com.practice.onlineShop.enums.Currencies;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The exchange rates configured in shop.exchange-rates.location: a version and, for every currency,
+ * what one unit of it is worth in a common reference currency. The file is read again periodically and
+ * a higher version replaces the rates in use, without a restart. An unreadable or incomplete file
+ * keeps the current rates.
+ */
+@Component
+public class ExchangeRates {
+    private final Resource location;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private volatile RateTable rateTable;
+
+    public ExchangeRates(@Value("${shop.exchange-rates.location:classpath:exchange-rates.properties}") Resource location,
+                         ApplicationEventPublisher applicationEventPublisher) {
+        this.location = location;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        rateTable = read();
+    }
+
+    public RateTable getRateTable() {
+        return rateTable;
+    }
+
+    @Scheduled(initialDelayString = "${shop.exchange-rates.reload-interval-millis:60000}", fixedDelayString = "${shop.exchange-rates.reload-interval-millis:60000}")
+    public void reload() {
+        RateTable freshRateTable;
+        try {
+            freshRateTable = read();
+        } catch (Exception exception) {
+            System.out.println("Could not reload the exchange rates, keeping version " + rateTable.getVersion() + ": " + exception.getMessage());
+            return;
+        }
+        if (freshRateTable.getVersion() > rateTable.getVersion()) {
+            rateTable = freshRateTable;
+            System.out.println("Exchange rates version " + freshRateTable.getVersion() + " loaded");
+            applicationEventPublisher.publishEvent(new ExchangeRatesChangedEvent(freshRateTable));
+        }
+    }
+
+    private RateTable read() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream inputStream = location.getInputStream()) {
+            properties.load(inputStream);
+        }
+
+        Map<Currencies, Double> values = new EnumMap<>(Currencies.class);
+        for (Currencies currency : Currencies.values()) {
+            String value = properties.getProperty(currency.name());
+            if (value == null || Double.parseDouble(value) <= 0) {
+                throw new IllegalStateException("Missing or invalid exchange rate for " + currency + " in " + location);
+            }
+            values.put(currency, Double.parseDouble(value));
+        }
+        return new RateTable(Long.parseLong(properties.getProperty("version", "0")), values);
+    }
+}
@@ -0,0 +1,10 @@
+package com.practice.onlineShop.rates;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class ExchangeRatesChangedEvent {
+    private final RateTable rateTable;
+}
@@ -0,0 +1,38 @@
+package com.practice.onlineShop.rates;
+
+import com.practice.onlineShop.enums.Currencies;
+
+import java.util.Map;
+
+/**
+ * Conversion factors between every pair of currencies for one version of the exchange rates. Never modified after creation.
+ */
+public class RateTable {
+    private final long version;
+    private final double[][] factors;
+
+    /**
+     * @param values what one unit of each currency is worth in a common reference currency
+     */
+    public RateTable(long version, Map<Currencies, Double> values) {
+        Currencies[] currencies = Currencies.values();
+        this.version = version;
+        this.factors = new double[currencies.length][currencies.length];
+        for (Currencies from : currencies) {
+            for (Currencies to : currencies) {
+                factors[from.ordinal()][to.ordinal()] = values.get(from) / values.get(to);
+            }
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public double convert(double price, Currencies from, Currencies to) {
+        if (from == to) {
+            return price;
+        }
+        return Math.round(price * factors[from.ordinal()][to.ordinal()] * 100) / 100.0;
+    }
+}
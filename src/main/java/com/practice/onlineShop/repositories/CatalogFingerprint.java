@@ -0,0 +1,12 @@
+package com.practice.onlineShop.repositories;
+
+/**
+ * Changes with every product insert, update (the version is incremented) and delete.
+ */
+public interface CatalogFingerprint {
+    long getProducts();
+
+    long getMaxId();
+
+    long getVersionSum();
+}
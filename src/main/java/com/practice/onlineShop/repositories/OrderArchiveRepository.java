@@ -0,0 +1,24 @@
+package com.practice.onlineShop.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OrderArchiveRepository {
+
+    /**
+     * Locks and returns, lowest id first, at most limit orders that are delivered, returned or canceled and were
+     * created before createdBefore. Orders without a creation time were placed before it was recorded and count as old.
+     */
+    List<Long> lockArchivableOrderIds(Instant createdBefore, int limit);
+
+    /**
+     * Moves the orders and their items to the archive tables, keeping their ids. Returns the number of orders moved.
+     */
+    int archiveOrders(List<Long> orderIds, Instant archivedAt);
+
+    /**
+     * Moves an archived order and its items back to the orders tables, so that it can be changed again.
+     * Returns false when the order is not archived.
+     */
+    boolean restoreArchivedOrder(long orderId);
+}
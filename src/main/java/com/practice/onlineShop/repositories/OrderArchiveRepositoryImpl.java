@@ -0,0 +1,63 @@
+package com.practice.onlineShop.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Moves the orders between the live and the archive tables with set based statements, so that a chunk of orders costs
+ * a handful of statements whatever its size. Runs in the caller's transaction.
+ */
+@RequiredArgsConstructor
+public class OrderArchiveRepositoryImpl implements OrderArchiveRepository {
+    private static final String ARCHIVABLE_ORDER_IDS_QUERY =
+            "select id from orders " +
+            "where (is_delivered = true or is_returned = true or is_canceled = true) " +
+            "and (created_at < :createdBefore or created_at is null) " +
+            "order by id limit :limit for update";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> lockArchivableOrderIds(Instant createdBefore, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("createdBefore", Timestamp.from(createdBefore))
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList(ARCHIVABLE_ORDER_IDS_QUERY, parameters, Long.class);
+    }
+
+    @Override
+    public int archiveOrders(List<Long> orderIds, Instant archivedAt) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("ids", orderIds)
+                .addValue("archivedAt", Timestamp.from(archivedAt));
+        jdbcTemplate.update("insert into archived_order (id, user_id, is_delivered, is_returned, is_canceled, created_at, archived_at) " +
+                "select id, user_id, is_delivered, is_returned, is_canceled, created_at, cast(:archivedAt as timestamp) from orders where id in (:ids)", parameters);
+        jdbcTemplate.update("insert into archived_order_item (id, order_id, product_id, quantity, price, currency) " +
+                "select id, order_id, product_id, quantity, price, currency from order_item where order_id in (:ids)", parameters);
+        jdbcTemplate.update("delete from order_item where order_id in (:ids)", parameters);
+        return jdbcTemplate.update("delete from orders where id in (:ids)", parameters);
+    }
+
+    @Override
+    public boolean restoreArchivedOrder(long orderId) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("id", orderId);
+        int restored = jdbcTemplate.update("insert into orders (id, user_id, is_delivered, is_returned, is_canceled, created_at) " +
+                "select id, user_id, is_delivered, is_returned, is_canceled, created_at from archived_order where id = :id", parameters);
+        if (restored == 0) {
+            return false;
+        }
+        jdbcTemplate.update("insert into order_item (id, order_id, product_id, quantity, price, currency) " +
+                "select id, order_id, product_id, quantity, price, currency from archived_order_item where order_id = :id", parameters);
+        jdbcTemplate.update("delete from archived_order_item where order_id = :id", parameters);
+        jdbcTemplate.update("delete from archived_order where id = :id", parameters);
+        return true;
+    }
+}
@@ -0,0 +1,17 @@
+package com.practice.onlineShop.repositories;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+public interface OrderExportRepository {
+
+    /**
+     * Streams every order item whose order id is in the given range (bounds are inclusive) and whose order was created
+     * from fromDate inclusive to toDate exclusive, null meaning unbounded; orders without a creation time only match
+     * when no date is given. The archived orders come first, then the live ones, each ordered by order id then item id
+     * and read through one forward-only joined query with a fetch size; an order archived or restored meanwhile may be
+     * streamed twice or not at all.
+     * Nothing is kept in memory: the same {@link OrderLine} instance is refilled and handed to the consumer for each row.
+     */
+    void streamOrderLines(Long fromOrderId, Long toOrderId, Instant fromDate, Instant toDate, Consumer<OrderLine> consumer);
+}
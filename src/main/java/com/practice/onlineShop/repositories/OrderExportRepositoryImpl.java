@@ -0,0 +1,86 @@
+package com.practice.onlineShop.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class OrderExportRepositoryImpl implements OrderExportRepository {
+    private static final int FETCH_SIZE = 1000;
+    private static final String ORDER_LINES_QUERY =
+            "select o.id as order_id, u.id as user_id, u.username, o.is_delivered, o.is_returned, o.is_canceled, o.created_at, " +
+            "oi.id as item_id, p.id as product_id, p.code as product_code, oi.quantity, p.price, p.currency " +
+            "from %s o " +
+            "left join user u on u.id = o.user_id " +
+            "left join %s oi on oi.order_id = o.id " +
+            "left join product p on p.id = oi.product_id " +
+            "where o.id >= ? and o.id <= ? ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void streamOrderLines(Long fromOrderId, Long toOrderId, Instant fromDate, Instant toDate, Consumer<OrderLine> consumer) {
+        long from = fromOrderId == null ? Long.MIN_VALUE : fromOrderId;
+        long to = toOrderId == null ? Long.MAX_VALUE : toOrderId;
+        String dateFilters = (fromDate == null ? "" : "and o.created_at >= ? ") + (toDate == null ? "" : "and o.created_at < ? ");
+        // the archive first, as it holds the older orders; each table read on its own keeps every query forward-only
+        streamOrderLines(String.format(ORDER_LINES_QUERY, "archived_order", "archived_order_item") + dateFilters + "order by o.id, oi.id",
+                from, to, fromDate, toDate, consumer);
+        streamOrderLines(String.format(ORDER_LINES_QUERY, "orders", "order_item") + dateFilters + "order by o.id, oi.id",
+                from, to, fromDate, toDate, consumer);
+    }
+
+    private void streamOrderLines(String query, long from, long to, Instant fromDate, Instant toDate, Consumer<OrderLine> consumer) {
+        PreparedStatementCreator statementCreator = connection -> {
+            PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            int parameterIndex = 1;
+            statement.setLong(parameterIndex++, from);
+            statement.setLong(parameterIndex++, to);
+            if (fromDate != null) {
+                statement.setTimestamp(parameterIndex++, Timestamp.from(fromDate));
+            }
+            if (toDate != null) {
+                statement.setTimestamp(parameterIndex, Timestamp.from(toDate));
+            }
+            return statement;
+        };
+
+        OrderLine orderLine = new OrderLine();
+        jdbcTemplate.query(statementCreator, resultSet -> {
+            fill(orderLine, resultSet);
+            consumer.accept(orderLine);
+        });
+    }
+
+    private void fill(OrderLine orderLine, ResultSet resultSet) throws SQLException {
+        orderLine.setOrderId(resultSet.getLong("order_id"));
+        orderLine.setUserId(getNullableLong(resultSet, "user_id"));
+        orderLine.setUsername(resultSet.getString("username"));
+        orderLine.setDelivered(resultSet.getBoolean("is_delivered"));
+        orderLine.setReturned(resultSet.getBoolean("is_returned"));
+        orderLine.setCanceled(resultSet.getBoolean("is_canceled"));
+        Timestamp createdAt = resultSet.getTimestamp("created_at");
+        orderLine.setCreatedAt(createdAt == null ? null : createdAt.toInstant());
+        orderLine.setItemId(getNullableLong(resultSet, "item_id"));
+        orderLine.setProductId(getNullableLong(resultSet, "product_id"));
+        orderLine.setProductCode(resultSet.getString("product_code"));
+        int quantity = resultSet.getInt("quantity");
+        orderLine.setQuantity(resultSet.wasNull() ? null : quantity);
+        double price = resultSet.getDouble("price");
+        orderLine.setPrice(resultSet.wasNull() ? null : price);
+        orderLine.setCurrency(resultSet.getString("currency"));
+    }
+
+    private Long getNullableLong(ResultSet resultSet, String column) throws SQLException {
+        long value = resultSet.getLong(column);
+        return resultSet.wasNull() ? null : value;
+    }
+}
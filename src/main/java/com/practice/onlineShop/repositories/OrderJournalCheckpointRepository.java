@@ -0,0 +1,7 @@
+package com.practice.onlineShop.repositories;
+
+import com.practice.onlineShop.entities.OrderJournalCheckpoint;
+import org.springframework.data.repository.CrudRepository;
+
+public interface OrderJournalCheckpointRepository extends CrudRepository<OrderJournalCheckpoint, Integer> {
+}
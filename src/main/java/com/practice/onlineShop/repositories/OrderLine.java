@@ -0,0 +1,28 @@
+package com.practice.onlineShop.repositories;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One row of the order export: an order item together with its order, user and product.
+ * The item and product columns are null for an order without items.
+ */
+@Getter
+@Setter
+public class OrderLine {
+    private long orderId;
+    private Long userId;
+    private String username;
+    private boolean delivered;
+    private boolean returned;
+    private boolean canceled;
+    private Instant createdAt;
+    private Long itemId;
+    private Long productId;
+    private String productCode;
+    private Integer quantity;
+    private Double price;
+    private String currency;
+}
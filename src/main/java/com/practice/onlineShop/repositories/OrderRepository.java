@@ -1,9 +1,21 @@
 package com.practice.onlineShop.repositories;
 
 import com.practice.onlineShop.entities.Orders;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface OrderRepository extends CrudRepository<Orders, Long> {
+public interface OrderRepository extends CrudRepository<Orders, Long>, OrderExportRepository, OrderArchiveRepository {
+
+    @Query(value = "select product_id as productId, sum(quantity) as unitsSold from (" +
+            "select oi.product_id, oi.quantity from orders o join order_item oi on oi.order_id = o.id " +
+            "where o.is_canceled = false and o.is_returned = false " +
+            "union all " +
+            "select oi.product_id, oi.quantity from archived_order o join archived_order_item oi on oi.order_id = o.id " +
+            "where o.is_canceled = false and o.is_returned = false" +
+            ") sold group by product_id", nativeQuery = true)
+    List<ProductUnits> findUnitsSoldPerProduct();
 }
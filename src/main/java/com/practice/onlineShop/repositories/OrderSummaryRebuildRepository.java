@@ -0,0 +1,21 @@
+package com.practice.onlineShop.repositories;
+
+public interface OrderSummaryRebuildRepository {
+
+    /**
+     * Computes the summary of every live or archived order that has none, at the current prices of its products.
+     * Returns the number of summaries added.
+     */
+    int insertMissingOrderSummaries();
+
+    /**
+     * Computes the summary of an order if it has none, from the order as it is in the database.
+     */
+    int insertMissingOrderSummary(long orderId);
+
+    /**
+     * Computes the summary of every live or archived order again, adding the missing ones and overwriting the others.
+     * Returns the number of summaries written.
+     */
+    int rebuildOrderSummaries();
+}
@@ -0,0 +1,57 @@
+package com.practice.onlineShop.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Computes the order summaries from the orders tables with one set based statement for the live orders and one for
+ * the archived ones. The items are valued at the price they were ordered at, or at the current price of their product
+ * when they were placed before it was kept. Runs in the caller's transaction.
+ */
+@RequiredArgsConstructor
+public class OrderSummaryRebuildRepositoryImpl implements OrderSummaryRebuildRepository {
+    private static final String SUMMARY_COLUMNS = "(order_id, user_id, status, line_count, total_quantity, " +
+            "total_eur_cents, total_usd_cents, total_ron_cents, created_at) ";
+    private static final String SUMMARIES_QUERY =
+            "select o.id, o.user_id, " +
+            "case when o.is_returned = true then 'RETURNED' when o.is_canceled = true then 'CANCELED' " +
+            "when o.is_delivered = true then 'DELIVERED' else 'PLACED' end, " +
+            "count(oi.id), coalesce(sum(oi.quantity), 0), " +
+            "coalesce(sum(case when coalesce(oi.currency, p.currency) = 'EUR' then round(coalesce(oi.price, p.price) * 100) * oi.quantity end), 0), " +
+            "coalesce(sum(case when coalesce(oi.currency, p.currency) = 'USD' then round(coalesce(oi.price, p.price) * 100) * oi.quantity end), 0), " +
+            "coalesce(sum(case when coalesce(oi.currency, p.currency) = 'RON' then round(coalesce(oi.price, p.price) * 100) * oi.quantity end), 0), " +
+            "o.created_at " +
+            "from %s o left join %s oi on oi.order_id = o.id left join product p on p.id = oi.product_id " +
+            "where 1 = 1 %s " +
+            "group by o.id, o.user_id, o.is_returned, o.is_canceled, o.is_delivered, o.created_at";
+    private static final String INSERT_MISSING_SUMMARIES = "insert into order_summary " + SUMMARY_COLUMNS + SUMMARIES_QUERY;
+    private static final String MERGE_SUMMARIES = "merge into order_summary " + SUMMARY_COLUMNS + "key (order_id) " + SUMMARIES_QUERY;
+    private static final String MISSING = "and not exists (select 1 from order_summary s where s.order_id = o.id) ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertMissingOrderSummaries() {
+        return insertMissing("", new MapSqlParameterSource());
+    }
+
+    @Override
+    public int insertMissingOrderSummary(long orderId) {
+        return insertMissing("and o.id = :id", new MapSqlParameterSource("id", orderId));
+    }
+
+    @Override
+    public int rebuildOrderSummaries() {
+        return update(MERGE_SUMMARIES, "", new MapSqlParameterSource());
+    }
+
+    private int insertMissing(String condition, MapSqlParameterSource parameters) {
+        return update(INSERT_MISSING_SUMMARIES, MISSING + condition, parameters);
+    }
+
+    private int update(String statement, String condition, MapSqlParameterSource parameters) {
+        return jdbcTemplate.update(String.format(statement, "orders", "order_item", condition), parameters) +
+                jdbcTemplate.update(String.format(statement, "archived_order", "archived_order_item", condition), parameters);
+    }
+}
@@ -0,0 +1,23 @@
+package com.practice.onlineShop.repositories;
+
+import com.practice.onlineShop.entities.OrderSummary;
+import com.practice.onlineShop.enums.OrderStatuses;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderSummaryRepository extends CrudRepository<OrderSummary, Long>, OrderSummaryRebuildRepository {
+
+    Optional<OrderSummary> findByOrderIdAndUserId(long orderId, long userId);
+
+    List<OrderSummary> findByUserIdAndOrderIdGreaterThanOrderByOrderIdAsc(long userId, long afterOrderId, Pageable pageable);
+
+    @Modifying
+    @Query("update OrderSummary s set s.status = :status where s.orderId = :orderId")
+    int updateStatus(@Param("orderId") long orderId, @Param("status") OrderStatuses status);
+}
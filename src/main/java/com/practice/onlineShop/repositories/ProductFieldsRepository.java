@@ -0,0 +1,17 @@
+package com.practice.onlineShop.repositories;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductFieldsRepository {
+    List<String> PRODUCT_FIELDS = Collections.unmodifiableList(Arrays.asList("id", "code", "description", "price", "stock", "valid", "currency"));
+
+    /**
+     * Reads only the given columns of every product, as scalar rows: no entity is created or managed.
+     * Unknown field names are ignored, the fields come back in the order of {@link #PRODUCT_FIELDS}.
+     */
+    List<Map<String, Object>> findAllFields(Collection<String> fields);
+}
@@ -0,0 +1,44 @@
+package com.practice.onlineShop.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class ProductFieldsRepositoryImpl implements ProductFieldsRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findAllFields(Collection<String> fields) {
+        // only whitelisted names ever reach the query text
+        List<String> selectedFields = PRODUCT_FIELDS.stream()
+                .filter(fields::contains)
+                .collect(Collectors.toList());
+        if (selectedFields.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String selectClause = selectedFields.stream()
+                .map(field -> "p." + field + " as " + field)
+                .collect(Collectors.joining(", "));
+        List<Tuple> rows = entityManager.createQuery("select " + selectClause + " from Product p order by p.id", Tuple.class)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultList();
+
+        List<Map<String, Object>> products = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> product = new LinkedHashMap<>();
+            for (String field : selectedFields) {
+                product.put(field, row.get(field));
+            }
+            products.add(product);
+        }
+        return products;
+    }
+}
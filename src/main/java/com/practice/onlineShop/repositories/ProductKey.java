@@ -0,0 +1,7 @@
+package com.practice.onlineShop.repositories;
+
+public interface ProductKey {
+    long getId();
+
+    String getCode();
+}
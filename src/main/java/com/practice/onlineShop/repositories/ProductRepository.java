@@ -1,10 +1,21 @@
 package com.practice.onlineShop.repositories;
 
 import com.practice.onlineShop.entities.Product;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends CrudRepository<Product, Long> {
+public interface ProductRepository extends CrudRepository<Product, Long>, ProductFieldsRepository, ProductStatelessRepository {
     Optional<Product> findByCode(String code);
+
+    List<Product> findByCodeIn(Collection<String> codes);
+
+    @Query("select p.id as id, p.code as code from Product p")
+    List<ProductKey> findAllKeys();
+
+    @Query("select count(p) as products, coalesce(max(p.id), 0) as maxId, coalesce(sum(p.version), 0) as versionSum from Product p")
+    CatalogFingerprint findCatalogFingerprint();
 }
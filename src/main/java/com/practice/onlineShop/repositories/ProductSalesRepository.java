@@ -0,0 +1,7 @@
+package com.practice.onlineShop.repositories;
+
+import com.practice.onlineShop.entities.ProductSales;
+import org.springframework.data.repository.CrudRepository;
+
+public interface ProductSalesRepository extends CrudRepository<ProductSales, Long> {
+}
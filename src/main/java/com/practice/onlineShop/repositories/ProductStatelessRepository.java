@@ -0,0 +1,14 @@
+package com.practice.onlineShop.repositories;
+
+import com.practice.onlineShop.entities.Product;
+
+import java.util.List;
+
+public interface ProductStatelessRepository {
+
+    /**
+     * Every product, read through a Hibernate stateless session: the products are plain detached objects,
+     * never put in a persistence context nor snapshotted for dirty checking.
+     */
+    List<Product> findAllStateless();
+}
@@ -0,0 +1,27 @@
+package com.practice.onlineShop.repositories;
+
+import com.practice.onlineShop.entities.Product;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductStatelessRepositoryImpl implements ProductStatelessRepository {
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public List<Product> findAllStateless() {
+        StatelessSession statelessSession = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession();
+        try {
+            return statelessSession.createQuery("select p from Product p order by p.id", Product.class)
+                    .setReadOnly(true)
+                    .setFetchSize(500)
+                    .list();
+        } finally {
+            statelessSession.close();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.practice.onlineShop.repositories;
+
+public interface ProductUnits {
+    long getProductId();
+
+    long getUnitsSold();
+}
@@ -0,0 +1,7 @@
+package com.practice.onlineShop.repositories;
+
+import com.practice.onlineShop.entities.StockThreshold;
+import org.springframework.data.repository.CrudRepository;
+
+public interface StockThresholdRepository extends CrudRepository<StockThreshold, Long> {
+}
@@ -1,7 +1,13 @@
 package com.practice.onlineShop.repositories;
 
 import com.practice.onlineShop.entities.User;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.List;
+
 public interface UserRepository extends CrudRepository<User, Long> {
+
+    @Query("select u.id as userId, r as role from User u join u.roles r")
+    List<UserRole> findAllRoles();
 }
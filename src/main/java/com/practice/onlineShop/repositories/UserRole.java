@@ -0,0 +1,9 @@
+package com.practice.onlineShop.repositories;
+
+import com.practice.onlineShop.enums.Roles;
+
+public interface UserRole {
+    long getUserId();
+
+    Roles getRole();
+}
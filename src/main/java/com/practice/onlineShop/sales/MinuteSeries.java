@@ -0,0 +1,56 @@
+package com.practice.onlineShop.sales;
+
+/**
+ * Units and revenue per minute for the last {@code capacity} minutes, in a ring of fixed size: the slot of a
+ * minute is reused by the minute {@code capacity} later, a slot still holding an older minute reads as zero.
+ */
+class MinuteSeries {
+    private final int capacity;
+    private final long[] minutes;
+    private final long[] units;
+    private final double[] revenues;
+    private volatile long lastMinute;
+
+    MinuteSeries(int capacity) {
+        this.capacity = capacity;
+        this.minutes = new long[capacity];
+        this.units = new long[capacity];
+        this.revenues = new double[capacity];
+    }
+
+    synchronized void add(long minute, long soldUnits, double revenue) {
+        int slot = (int) (minute % capacity);
+        if (minutes[slot] != minute) {
+            if (minutes[slot] > minute) {
+                // older than the whole ring
+                return;
+            }
+            minutes[slot] = minute;
+            units[slot] = 0;
+            revenues[slot] = 0;
+        }
+        units[slot] += soldUnits;
+        revenues[slot] += revenue;
+        if (minute > lastMinute) {
+            lastMinute = minute;
+        }
+    }
+
+    /**
+     * Copies the minutes from fromMinute to toMinute, both inclusive, at most capacity of them.
+     */
+    synchronized void read(long fromMinute, long toMinute, long[] unitsByMinute, double[] revenuesByMinute) {
+        for (long minute = fromMinute; minute <= toMinute; minute++) {
+            int slot = (int) (minute % capacity);
+            int index = (int) (minute - fromMinute);
+            if (minutes[slot] == minute) {
+                unitsByMinute[index] = units[slot];
+                revenuesByMinute[index] = revenues[slot];
+            }
+        }
+    }
+
+    long getLastMinute() {
+        return lastMinute;
+    }
+}
@@ -0,0 +1,18 @@
+package com.practice.onlineShop.sales;
+
+import com.practice.onlineShop.enums.Currencies;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * What an order did to the sales of one product: the units and their value at the product's price,
+ * positive when the order is placed, negative when it is canceled or returned.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductSale {
+    private final long productId;
+    private final int units;
+    private final double amount;
+    private final Currencies currency;
+}
@@ -0,0 +1,178 @@
+package com.practice.onlineShop.sales;
+
+import com.practice.onlineShop.entities.ProductSales;
+import com.practice.onlineShop.repositories.OrderRepository;
+import com.practice.onlineShop.repositories.ProductSalesRepository;
+import com.practice.onlineShop.repositories.ProductUnits;
+import com.practice.onlineShop.vos.ProductSalesVO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Units sold per product, counted when the orders commit instead of scanning them. The orders only add to
+ * striped {@link LongAdder}s; what they added since the last flush is written periodically to the
+ * product_sales table, which is filled from the orders once when it is empty.
+ * The leaderboard is ranked at each flush, so the best sellers lag the orders by at most one flush interval,
+ * while the units of a single product are exact.
+ */
+@Component
+public class SalesCounters {
+    private final ProductSalesRepository productSalesRepository;
+    private final OrderRepository orderRepository;
+    private final int leaderboardSize;
+    // units sold before this run, read once at startup
+    private final Map<Long, Long> unitsBeforeStartup = new HashMap<>();
+    private final ConcurrentMap<Long, LongAdder> unitsSinceStartup = new ConcurrentHashMap<>();
+    // only touched by flush()
+    private final Map<Long, Long> flushedUnitsSinceStartup = new HashMap<>();
+    private final Map<Long, Standing> standingsByProductId = new HashMap<>();
+    private final NavigableSet<Standing> ranking = new TreeSet<>();
+    private volatile List<ProductSalesVO> leaderboard = Collections.emptyList();
+
+    public SalesCounters(ProductSalesRepository productSalesRepository, OrderRepository orderRepository,
+                         @Value("${shop.sales.leaderboard-size:100}") int leaderboardSize) {
+        this.productSalesRepository = productSalesRepository;
+        this.orderRepository = orderRepository;
+        this.leaderboardSize = leaderboardSize;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        for (ProductSales productSales : productSalesRepository.findAll()) {
+            unitsBeforeStartup.put(productSales.getProductId(), productSales.getUnitsSold());
+        }
+        if (unitsBeforeStartup.isEmpty()) {
+            List<ProductSales> rows = new ArrayList<>();
+            for (ProductUnits productUnits : orderRepository.findUnitsSoldPerProduct()) {
+                ProductSales productSales = new ProductSales();
+                productSales.setProductId(productUnits.getProductId());
+                productSales.setUnitsSold(productUnits.getUnitsSold());
+                rows.add(productSales);
+                unitsBeforeStartup.put(productUnits.getProductId(), productUnits.getUnitsSold());
+            }
+            productSalesRepository.saveAll(rows);
+            System.out.println("Sales counters filled from the orders for " + rows.size() + " products");
+        }
+
+        unitsBeforeStartup.forEach(this::rank);
+        publishLeaderboard();
+    }
+
+    @TransactionalEventListener
+    public void onSalesRecorded(SalesRecordedEvent event) {
+        for (ProductSale sale : event.getSales()) {
+            unitsSinceStartup.computeIfAbsent(sale.getProductId(), id -> new LongAdder()).add(sale.getUnits());
+        }
+    }
+
+    public long getUnitsSold(long productId) {
+        LongAdder units = unitsSinceStartup.get(productId);
+        return unitsBeforeStartup.getOrDefault(productId, 0L) + (units == null ? 0 : units.sum());
+    }
+
+    /**
+     * The best sellers, at most shop.sales.leaderboard-size of them, as of the last flush.
+     */
+    public List<ProductSalesVO> getTopSellers(int limit) {
+        List<ProductSalesVO> currentLeaderboard = leaderboard;
+        return new ArrayList<>(currentLeaderboard.subList(0, Math.min(limit, currentLeaderboard.size())));
+    }
+
+    @Scheduled(initialDelayString = "${shop.sales.flush-interval-millis:5000}", fixedDelayString = "${shop.sales.flush-interval-millis:5000}")
+    public synchronized void flush() {
+        // the adders are never reset, a sale counted while they are read simply goes into the next delta
+        Map<Long, Long> sums = new HashMap<>();
+        Map<Long, Long> deltas = new HashMap<>();
+        unitsSinceStartup.forEach((productId, units) -> {
+            long sum = units.sum();
+            long delta = sum - flushedUnitsSinceStartup.getOrDefault(productId, 0L);
+            if (delta != 0) {
+                sums.put(productId, sum);
+                deltas.put(productId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<ProductSales> rows = new ArrayList<>();
+        Set<Long> newProductIds = new HashSet<>(deltas.keySet());
+        try {
+            for (ProductSales productSales : productSalesRepository.findAllById(deltas.keySet())) {
+                productSales.setUnitsSold(productSales.getUnitsSold() + deltas.get(productSales.getProductId()));
+                newProductIds.remove(productSales.getProductId());
+                rows.add(productSales);
+            }
+            for (Long productId : newProductIds) {
+                ProductSales productSales = new ProductSales();
+                productSales.setProductId(productId);
+                productSales.setUnitsSold(deltas.get(productId));
+                rows.add(productSales);
+            }
+            productSalesRepository.saveAll(rows);
+        } catch (RuntimeException exception) {
+            System.out.println("Could not flush the sales counters, retrying at the next flush: " + exception.getMessage());
+            return;
+        }
+
+        flushedUnitsSinceStartup.putAll(sums);
+        sums.forEach((productId, sum) -> rank(productId, unitsBeforeStartup.getOrDefault(productId, 0L) + sum));
+        publishLeaderboard();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void rank(long productId, long unitsSold) {
+        Standing previousStanding = standingsByProductId.remove(productId);
+        if (previousStanding != null) {
+            ranking.remove(previousStanding);
+        }
+        if (unitsSold > 0) {
+            Standing standing = new Standing(productId, unitsSold);
+            standingsByProductId.put(productId, standing);
+            ranking.add(standing);
+        }
+    }
+
+    private void publishLeaderboard() {
+        List<ProductSalesVO> freshLeaderboard = new ArrayList<>(Math.min(leaderboardSize, ranking.size()));
+        for (Standing standing : ranking) {
+            if (freshLeaderboard.size() == leaderboardSize) {
+                break;
+            }
+            freshLeaderboard.add(new ProductSalesVO(standing.productId, standing.unitsSold));
+        }
+        leaderboard = Collections.unmodifiableList(freshLeaderboard);
+    }
+
+    /**
+     * Orders the best sellers first, the lower product id first among equal sales.
+     */
+    private static final class Standing implements Comparable<Standing> {
+        private final long productId;
+        private final long unitsSold;
+
+        private Standing(long productId, long unitsSold) {
+            this.productId = productId;
+            this.unitsSold = unitsSold;
+        }
+
+        @Override
+        public int compareTo(Standing other) {
+            int byUnits = Long.compare(other.unitsSold, unitsSold);
+            return byUnits != 0 ? byUnits : Long.compare(productId, other.productId);
+        }
+    }
+}
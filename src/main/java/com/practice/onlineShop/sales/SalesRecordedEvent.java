@@ -0,0 +1,17 @@
+package com.practice.onlineShop.sales;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The products sold by an order when it is placed, or given back when it is canceled or returned.
+ */
+@Getter
+@RequiredArgsConstructor
+public class SalesRecordedEvent {
+    private final Instant recordedAt;
+    private final List<ProductSale> sales;
+}
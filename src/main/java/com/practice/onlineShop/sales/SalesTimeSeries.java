@@ -0,0 +1,155 @@
+package com.practice.onlineShop.sales;
+
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.rates.ExchangeRates;
+import com.practice.onlineShop.repositories.OrderRepository;
+import com.practice.onlineShop.vos.SalesPointVO;
+import com.practice.onlineShop.vos.SalesSeriesVO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Units and revenue sold per minute over the last shop.sales.series.minutes, overall and for at most
+ * shop.sales.series.max-products products; when a new product would go over the limit, the one that sold
+ * least recently is forgotten. The revenue is converted to shop.sales.series.currency at the rates of the sale;
+ * a product without a currency counts its units but not its revenue, and such sales are counted apart.
+ * Orders count in the minute they were placed; canceling or returning them later does not change the series.
+ * The series are filled from the orders of that period at startup and then only from the orders being placed,
+ * so a range query never reads the database.
+ */
+@Component
+public class SalesTimeSeries {
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final ExchangeRates exchangeRates;
+    private final OrderRepository orderRepository;
+    private final int minutes;
+    private final int maxProducts;
+    private final Currencies currency;
+    private final MinuteSeries overallSeries;
+    private final Counter salesWithoutCurrency;
+    private final Map<Long, MinuteSeries> seriesByProductId = new ConcurrentHashMap<>();
+
+    public SalesTimeSeries(ExchangeRates exchangeRates, OrderRepository orderRepository, MeterRegistry meterRegistry,
+                           @Value("${shop.sales.series.minutes:1440}") int minutes,
+                           @Value("${shop.sales.series.max-products:500}") int maxProducts,
+                           @Value("${shop.sales.series.currency:RON}") Currencies currency) {
+        this.exchangeRates = exchangeRates;
+        this.orderRepository = orderRepository;
+        this.minutes = minutes;
+        this.maxProducts = maxProducts;
+        this.currency = currency;
+        this.overallSeries = new MinuteSeries(minutes);
+        this.salesWithoutCurrency = meterRegistry.counter("shop.sales.series.without.currency");
+        Gauge.builder("shop.sales.series.products", seriesByProductId, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        Instant since = Instant.ofEpochMilli((currentMinute() - minutes + 1) * MINUTE_MILLIS);
+        orderRepository.streamOrderLines(null, null, since, null, orderLine -> {
+            if (orderLine.getProductId() != null && orderLine.getQuantity() != null && orderLine.getPrice() != null) {
+                // the orders do not keep the price they were placed at, the current one is the best estimate
+                record(orderLine.getCreatedAt().toEpochMilli(), new ProductSale(orderLine.getProductId(), orderLine.getQuantity(),
+                        orderLine.getQuantity() * orderLine.getPrice(),
+                        orderLine.getCurrency() == null ? null : Currencies.valueOf(orderLine.getCurrency())));
+            }
+        });
+    }
+
+    @TransactionalEventListener
+    public void onSalesRecorded(SalesRecordedEvent event) {
+        for (ProductSale sale : event.getSales()) {
+            if (sale.getUnits() > 0) {
+                record(event.getRecordedAt().toEpochMilli(), sale);
+            }
+        }
+    }
+
+    /**
+     * The minutes from from to to, both rounded down to the minute and limited to the period kept, with zero for
+     * the minutes without sales. Without a product id, the sales of all the products.
+     */
+    public SalesSeriesVO getSeries(Long productId, Instant from, Instant to) {
+        long toMinute = Math.min(to.toEpochMilli() / MINUTE_MILLIS, currentMinute());
+        long fromMinute = Math.max(from.toEpochMilli() / MINUTE_MILLIS, currentMinute() - minutes + 1);
+
+        SalesSeriesVO salesSeriesVO = new SalesSeriesVO();
+        salesSeriesVO.setProductId(productId);
+        salesSeriesVO.setCurrency(currency);
+        if (fromMinute > toMinute) {
+            return salesSeriesVO;
+        }
+
+        int count = (int) (toMinute - fromMinute + 1);
+        long[] units = new long[count];
+        double[] revenues = new double[count];
+        MinuteSeries series = productId == null ? overallSeries : seriesByProductId.get(productId);
+        if (series != null) {
+            series.read(fromMinute, toMinute, units, revenues);
+        }
+        for (int index = 0; index < count; index++) {
+            Instant minute = Instant.ofEpochMilli((fromMinute + index) * MINUTE_MILLIS);
+            salesSeriesVO.getPoints().add(new SalesPointVO(minute, units[index], Math.round(revenues[index] * 100) / 100.0));
+        }
+        return salesSeriesVO;
+    }
+
+    void record(long epochMillis, ProductSale sale) {
+        long minute = epochMillis / MINUTE_MILLIS;
+        double revenue = 0;
+        if (sale.getCurrency() == null) {
+            salesWithoutCurrency.increment();
+        } else {
+            revenue = exchangeRates.getRateTable().convert(sale.getAmount(), sale.getCurrency(), currency);
+        }
+        overallSeries.add(minute, sale.getUnits(), revenue);
+
+        MinuteSeries series = seriesByProductId.get(sale.getProductId());
+        if (series == null) {
+            series = track(sale.getProductId());
+        }
+        series.add(minute, sale.getUnits(), revenue);
+    }
+
+    private synchronized MinuteSeries track(long productId) {
+        MinuteSeries series = seriesByProductId.get(productId);
+        if (series != null) {
+            return series;
+        }
+        if (seriesByProductId.size() >= maxProducts) {
+            evictColdestProduct();
+        }
+        series = new MinuteSeries(minutes);
+        seriesByProductId.put(productId, series);
+        return series;
+    }
+
+    private void evictColdestProduct() {
+        Long coldestProductId = null;
+        long coldestMinute = Long.MAX_VALUE;
+        for (Map.Entry<Long, MinuteSeries> entry : seriesByProductId.entrySet()) {
+            if (entry.getValue().getLastMinute() < coldestMinute) {
+                coldestMinute = entry.getValue().getLastMinute();
+                coldestProductId = entry.getKey();
+            }
+        }
+        if (coldestProductId != null) {
+            seriesByProductId.remove(coldestProductId);
+        }
+    }
+
+    private long currentMinute() {
+        return System.currentTimeMillis() / MINUTE_MILLIS;
+    }
+}
@@ -0,0 +1,163 @@
+package com.practice.onlineShop.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.onlineShop.enums.ExportFormats;
+import com.practice.onlineShop.exceptions.InvalidExportRangeException;
+import com.practice.onlineShop.repositories.OrderLine;
+import com.practice.onlineShop.repositories.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Writes the orders with their items, user and product as CSV or NDJSON, one line per order item,
+ * while the rows are read from the database: memory use does not depend on the number of orders.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderExportService {
+    static final String CSV_HEADER = "order_id,user_id,username,delivered,returned,canceled,created_at,item_id,product_id,product_code,quantity,price,currency";
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Validates an export request before anything is written, so that an error can still become a proper response.
+     */
+    public void prepareExport(Long customerId, Long fromOrderId, Long toOrderId, Instant fromDate, Instant toDate) throws InvalidExportRangeException {
+        System.out.println("Customer with id " + customerId + " is exporting orders from " + fromOrderId + " to " + toOrderId +
+                ", created from " + fromDate + " to " + toDate);
+        if (fromOrderId != null && toOrderId != null && fromOrderId > toOrderId) {
+            throw new InvalidExportRangeException();
+        }
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new InvalidExportRangeException();
+        }
+    }
+
+    public void export(ExportFormats format, Long fromOrderId, Long toOrderId, Instant fromDate, Instant toDate,
+                       OutputStream outputStream) throws IOException {
+        try {
+            if (format == ExportFormats.NDJSON) {
+                exportNdjson(fromOrderId, toOrderId, fromDate, toDate, outputStream);
+            } else {
+                exportCsv(fromOrderId, toOrderId, fromDate, toDate, outputStream);
+            }
+        } catch (UncheckedIOException e) {
+            // write failures come back through the row callback, the cursor is already closed at this point
+            throw e.getCause();
+        }
+    }
+
+    private void exportCsv(Long fromOrderId, Long toOrderId, Instant fromDate, Instant toDate, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        orderRepository.streamOrderLines(fromOrderId, toOrderId, fromDate, toDate, orderLine -> {
+            try {
+                writeCsvLine(writer, orderLine);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void writeCsvLine(Writer writer, OrderLine orderLine) throws IOException {
+        writer.write(Long.toString(orderLine.getOrderId()));
+        writer.write(',');
+        writeCsvValue(writer, orderLine.getUserId());
+        writer.write(',');
+        writeCsvText(writer, orderLine.getUsername());
+        writer.write(',');
+        writer.write(Boolean.toString(orderLine.isDelivered()));
+        writer.write(',');
+        writer.write(Boolean.toString(orderLine.isReturned()));
+        writer.write(',');
+        writer.write(Boolean.toString(orderLine.isCanceled()));
+        writer.write(',');
+        writeCsvValue(writer, orderLine.getCreatedAt());
+        writer.write(',');
+        writeCsvValue(writer, orderLine.getItemId());
+        writer.write(',');
+        writeCsvValue(writer, orderLine.getProductId());
+        writer.write(',');
+        writeCsvText(writer, orderLine.getProductCode());
+        writer.write(',');
+        writeCsvValue(writer, orderLine.getQuantity());
+        writer.write(',');
+        writeCsvValue(writer, orderLine.getPrice());
+        writer.write(',');
+        writeCsvValue(writer, orderLine.getCurrency());
+        writer.write('\n');
+    }
+
+    private void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    private void writeCsvText(Writer writer, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void exportNdjson(Long fromOrderId, Long toOrderId, Instant fromDate, Instant toDate, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(new SerializedString(""));
+        orderRepository.streamOrderLines(fromOrderId, toOrderId, fromDate, toDate, orderLine -> {
+            try {
+                writeJsonLine(generator, orderLine);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+    }
+
+    private void writeJsonLine(JsonGenerator generator, OrderLine orderLine) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("orderId", orderLine.getOrderId());
+        writeNullableNumber(generator, "userId", orderLine.getUserId());
+        generator.writeStringField("username", orderLine.getUsername());
+        generator.writeBooleanField("delivered", orderLine.isDelivered());
+        generator.writeBooleanField("returned", orderLine.isReturned());
+        generator.writeBooleanField("canceled", orderLine.isCanceled());
+        generator.writeStringField("createdAt", orderLine.getCreatedAt() == null ? null : orderLine.getCreatedAt().toString());
+        writeNullableNumber(generator, "itemId", orderLine.getItemId());
+        writeNullableNumber(generator, "productId", orderLine.getProductId());
+        generator.writeStringField("productCode", orderLine.getProductCode());
+        writeNullableNumber(generator, "quantity", orderLine.getQuantity());
+        if (orderLine.getPrice() == null) {
+            generator.writeNullField("price");
+        } else {
+            generator.writeNumberField("price", orderLine.getPrice());
+        }
+        generator.writeStringField("currency", orderLine.getCurrency());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeNullableNumber(JsonGenerator generator, String fieldName, Number value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(fieldName);
+        } else {
+            generator.writeNumberField(fieldName, value.longValue());
+        }
+    }
+}
@@ -1,42 +1,81 @@
 package com.practice.onlineShop.services;
 
+import com.practice.onlineShop.concurrency.StockLockingStrategy;
 import com.practice.onlineShop.entities.Orders;
 import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.OrderStatuses;
+import com.practice.onlineShop.enums.OutboxEventTypes;
 import com.practice.onlineShop.exceptions.*;
+import com.practice.onlineShop.journal.OrderJournal;
 import com.practice.onlineShop.mappers.OrderMapper;
+import com.practice.onlineShop.outbox.Outbox;
 import com.practice.onlineShop.repositories.OrderRepository;
+import com.practice.onlineShop.repositories.OrderSummaryRepository;
+import com.practice.onlineShop.sales.ProductSale;
+import com.practice.onlineShop.sales.SalesRecordedEvent;
 import com.practice.onlineShop.vos.OrderVO;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.criterion.Order;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
     private final OrderRepository orderRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
     private final OrderMapper orderMapper;
     private final StockService stockService;
+    private final StockLockingStrategy stockLockingStrategy;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ObjectProvider<OrderJournal> orderJournalProvider;
+    private final Outbox outbox;
 
+    @Transactional
     public void addOrder (OrderVO orderVO) throws InvalidCustomerIdException, InvalidProductsException, InvalidProductIdException, NotEnoughStockException {
+        OrderJournal orderJournal = orderJournalProvider.getIfAvailable();
+        if (orderJournal != null) {
+            journalOrder(orderJournal, orderVO);
+            return;
+        }
+        placeOrder(orderVO, Instant.now());
+    }
+
+    /**
+     * Places an order acknowledged earlier through the order journal, as of the time it was journaled.
+     */
+    @Transactional
+    public void placeJournaledOrder(OrderVO orderVO, Instant createdAt) throws InvalidCustomerIdException, InvalidProductsException, InvalidProductIdException, NotEnoughStockException {
+        placeOrder(orderVO, createdAt);
+    }
+
+    private void placeOrder(OrderVO orderVO, Instant createdAt) throws InvalidCustomerIdException, InvalidProductsException, InvalidProductIdException, NotEnoughStockException {
+        stockLockingStrategy.lockForStockUpdate(getProductsIds(orderVO));
         validateStock(orderVO);
 
         Orders order = orderMapper.toEntity(orderVO);
+        order.setCreatedAt(createdAt);
         order.getOrderItems().forEach(orderItem -> {
             int oldProductStock = orderItem.getProduct().getStock();
             int productId = (int) orderItem.getProduct().getId();
             int sellStock = orderVO.getProductsIdsToQuantity().get(productId);
             orderItem.getProduct().setStock(oldProductStock - sellStock);
+            outbox.stockChanged(orderItem.getProduct(), -sellStock);
         });
 
         orderRepository.save(order);
+        orderSummaryRepository.save(orderMapper.toSummary(order));
+        outbox.orderPlaced(order);
+        publishSales(order, 1, createdAt);
     }
 
-    @Transactional
+    @Transactional(rollbackFor = Exception.class)
     public void deliver(Integer orderId, Long customerId) throws InvalidOrderIdException, OrderCanceledException {
         System.out.println("Custmer-ul cu id-ul: " + customerId + " este in service");
         ThrowExceptionIfOrderIdIsAbsent(orderId);
@@ -46,10 +85,14 @@ public class OrderService {
             throw new OrderCanceledException();
         }
 
-        order.setDelivered(true);
+        if (!order.isDelivered()) {
+            order.setDelivered(true);
+            updateSummaryStatus(order, OrderStatuses.DELIVERED);
+            outbox.orderChanged(OutboxEventTypes.ORDER_DELIVERED, order);
+        }
     }
 
-    @Transactional
+    @Transactional(rollbackFor = Exception.class)
     public void cancelOrder(Integer orderId, Long customerId) throws InvalidOrderIdException, OrderAlreadyDeliveredException, InvalidOperationException {
         System.out.println("Customer-ul cu id-ul: " + customerId + " este in service pentru a anula comanda " + orderId);
 
@@ -62,10 +105,15 @@ public class OrderService {
         if (customerId != order.getUser().getId()) {
             throw new InvalidOperationException();
         }
-        order.setCanceled(true);
+        if (!order.isCanceled()) {
+            publishSales(order, -1, Instant.now());
+            order.setCanceled(true);
+            updateSummaryStatus(order, OrderStatuses.CANCELED);
+            outbox.orderChanged(OutboxEventTypes.ORDER_CANCELED, order);
+        }
     }
 
-    @Transactional
+    @Transactional(rollbackFor = Exception.class)
     public void returnOrder(Integer orderId, Long customerId) throws InvalidOrderIdException, OrderNotDeliveredYetException, OrderCanceledException {
         System.out.println("Customer-ul cu id-ul: " + customerId + " este in service pentru a returna comanda " + orderId);
 
@@ -79,12 +127,67 @@ public class OrderService {
             throw new OrderCanceledException();
         }
 
-        order.setReturned(true);
-        order.getOrderItems().forEach(orderItem -> {
-           Product product = orderItem.getProduct();
-           int oldStock = product.getStock();
-           product.setStock(oldStock + orderItem.getQuantity());
-        });
+        if (!order.isReturned()) {
+            publishSales(order, -1, Instant.now());
+            order.setReturned(true);
+            updateSummaryStatus(order, OrderStatuses.RETURNED);
+            outbox.orderChanged(OutboxEventTypes.ORDER_RETURNED, order);
+            stockLockingStrategy.lockForStockUpdate(getProductsIds(order));
+            order.getOrderItems().forEach(orderItem -> {
+               Product product = orderItem.getProduct();
+               int oldStock = product.getStock();
+               product.setStock(oldStock + orderItem.getQuantity());
+               outbox.stockChanged(product, orderItem.getQuantity());
+            });
+        }
+    }
+
+    private void updateSummaryStatus(Orders order, OrderStatuses status) {
+        if (orderSummaryRepository.updateStatus(order.getId(), status) == 0) {
+            // placed before the summaries were kept, or written around this service
+            orderSummaryRepository.insertMissingOrderSummary(order.getId());
+            orderSummaryRepository.updateStatus(order.getId(), status);
+        }
+    }
+
+    /**
+     * Acknowledges the order once it is valid for the current stock and journaled, without writing to the database;
+     * it is placed there by the journal applier, which checks the stock again. The orders journaled but not placed
+     * yet hold their quantities back, checked and journaled under the journal's lock so that no two orders take the
+     * same units.
+     */
+    private void journalOrder(OrderJournal orderJournal, OrderVO orderVO) throws InvalidCustomerIdException, InvalidProductsException, InvalidProductIdException, NotEnoughStockException {
+        orderMapper.toEntity(orderVO);
+        synchronized (orderJournal) {
+            validateStock(orderVO, orderJournal.getReservedQuantities(orderVO.getProductsIdsToQuantity().keySet()));
+            orderJournal.append(orderVO.getUserId(), Instant.now().toEpochMilli(), orderVO.getProductsIdsToQuantity());
+        }
+    }
+
+    /**
+     * Counted by the sales counters only once the transaction commits.
+     */
+    private void publishSales(Orders order, int sign, Instant recordedAt) {
+        List<ProductSale> sales = order.getOrderItems().stream()
+                .map(orderItem -> {
+                    Product product = orderItem.getProduct();
+                    int units = sign * orderItem.getQuantity();
+                    return new ProductSale(product.getId(), units, units * product.getPrice(), product.getCurrency());
+                })
+                .collect(Collectors.toList());
+        applicationEventPublisher.publishEvent(new SalesRecordedEvent(recordedAt, sales));
+    }
+
+    private List<Long> getProductsIds(OrderVO orderVO) {
+        return orderVO.getProductsIdsToQuantity().keySet().stream()
+                .map(Integer::longValue)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> getProductsIds(Orders order) {
+        return order.getOrderItems().stream()
+                .map(orderItem -> orderItem.getProduct().getId())
+                .collect(Collectors.toList());
     }
 
     private void ThrowExceptionIfOrderIdIsAbsent(Integer orderId) throws InvalidOrderIdException {
@@ -93,8 +196,16 @@ public class OrderService {
         }
     }
 
+    /**
+     * Falls back to the archived orders, moving the order back for the current transaction to change it;
+     * the archiver moves it again once it is old and closed. The callers roll back on any exception, so an
+     * order that could not be changed stays archived.
+     */
     private Orders getOrderOrThrowException(Integer orderId) throws InvalidOrderIdException {
         Optional<Orders> orderOptional = orderRepository.findById(orderId.longValue());
+        if (!orderOptional.isPresent() && orderRepository.restoreArchivedOrder(orderId)) {
+            orderOptional = orderRepository.findById(orderId.longValue());
+        }
         if (!orderOptional.isPresent()) {
             throw new InvalidOrderIdException();
         }
@@ -102,10 +213,14 @@ public class OrderService {
     }
 
     private void validateStock(OrderVO orderVO) throws NotEnoughStockException {
+        validateStock(orderVO, Collections.emptyMap());
+    }
+
+    private void validateStock(OrderVO orderVO, Map<Integer, Integer> reservedQuantities) throws NotEnoughStockException {
         Map<Integer, Integer> productsIdsToQuantityMap = orderVO.getProductsIdsToQuantity();
         Set<Integer> productsIds = productsIdsToQuantityMap.keySet();
         for (Integer productId : productsIds){
-            Integer quantity = productsIdsToQuantityMap.get(productId);
+            Integer quantity = productsIdsToQuantityMap.get(productId) + reservedQuantities.getOrDefault(productId, 0);
             boolean havingEnoughStock = stockService.isHavingEnoughStock(productId, quantity);
             if (!havingEnoughStock) {
                 throw new NotEnoughStockException();
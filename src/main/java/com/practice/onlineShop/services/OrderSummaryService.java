@@ -0,0 +1,77 @@
+package com.practice.onlineShop.services;
+
+import com.practice.onlineShop.exceptions.InvalidOrderIdException;
+import com.practice.onlineShop.mappers.OrderMapper;
+import com.practice.onlineShop.repositories.OrderSummaryRepository;
+import com.practice.onlineShop.vos.OrderSummaryVO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the orders from the order_summary table only, by primary key or through its (user_id, order_id) index,
+ * live and archived orders alike. The summaries are written by the order service with the orders they describe.
+ */
+@Service
+public class OrderSummaryService {
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderMapper orderMapper;
+    private final int maxPageSize;
+
+    public OrderSummaryService(OrderSummaryRepository orderSummaryRepository, OrderMapper orderMapper,
+                               @Value("${shop.orders.summary.max-page-size:500}") int maxPageSize) {
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.orderMapper = orderMapper;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Summarizes the orders that have no summary yet, placed before the summaries were kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void summarizeMissingOrders() {
+        int summarized = orderSummaryRepository.insertMissingOrderSummaries();
+        if (summarized > 0) {
+            System.out.println("Order summaries computed for " + summarized + " orders");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public OrderSummaryVO getOrderSummary(Integer orderId, Long customerId) throws InvalidOrderIdException {
+        if (orderId == null) {
+            throw new InvalidOrderIdException();
+        }
+        return orderSummaryRepository.findByOrderIdAndUserId(orderId, customerId)
+                .map(orderMapper::toSummaryVO)
+                .orElseThrow(InvalidOrderIdException::new);
+    }
+
+    /**
+     * The orders of a customer with an id above afterOrderId, lowest id first: the last id of a page is where the
+     * next one starts.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderSummaryVO> getOrderSummaries(Long customerId, long afterOrderId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        return orderSummaryRepository.findByUserIdAndOrderIdGreaterThanOrderByOrderIdAsc(customerId, afterOrderId, PageRequest.of(0, pageSize))
+                .stream()
+                .map(orderMapper::toSummaryVO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Computes every summary again from the orders tables, at the prices the items were ordered at.
+     */
+    @Transactional
+    public int rebuildOrderSummaries(Long customerId) {
+        System.out.println("Customer with id " + customerId + " is rebuilding the order summaries");
+        return orderSummaryRepository.rebuildOrderSummaries();
+    }
+}
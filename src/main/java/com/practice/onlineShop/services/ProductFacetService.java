@@ -0,0 +1,44 @@
+package com.practice.onlineShop.services;
+
+import com.practice.onlineShop.indexes.ProductFacetIndex;
+import com.practice.onlineShop.vos.ProductFacetsResultVO;
+import com.practice.onlineShop.vos.ProductFilterVO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class ProductFacetService {
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductService productService;
+
+    @Value("${shop.facets.max-page-size:100}")
+    private int maxPageSize;
+
+    public ProductFacetsResultVO filter(ProductFilterVO productFilterVO) {
+        int pageNumber = Math.max(0, productFilterVO.getPage());
+        int pageSize = Math.max(1, Math.min(productFilterVO.getSize(), maxPageSize));
+        ProductFacetIndex.FacetHits facetHits = productFacetIndex.filter(productFilterVO.getCurrencies(),
+                productFilterVO.getMinPrice(), productFilterVO.getMaxPrice(),
+                productFilterVO.getValid(), productFilterVO.getInStock(),
+                (int) Math.min(Integer.MAX_VALUE, (long) pageNumber * pageSize), pageSize);
+
+        ProductFacetsResultVO productFacetsResultVO = new ProductFacetsResultVO();
+        productFacetsResultVO.setPage(pageNumber);
+        productFacetsResultVO.setSize(pageSize);
+        productFacetsResultVO.setTotalHits(facetHits.getTotalHits());
+        productFacetsResultVO.setFacets(facetHits.getFacetCounts());
+        if (facetHits.getProductIds().length > 0) {
+            List<Long> productIds = new ArrayList<>();
+            for (long productId : facetHits.getProductIds()) {
+                productIds.add(productId);
+            }
+            productFacetsResultVO.setProducts(productService.getProductsByIds(productIds).getProducts());
+        }
+        return productFacetsResultVO;
+    }
+}
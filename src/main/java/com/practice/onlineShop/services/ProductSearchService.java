@@ -0,0 +1,41 @@
+package com.practice.onlineShop.services;
+
+import com.practice.onlineShop.indexes.InvertedIndex;
+import com.practice.onlineShop.indexes.ProductSearchIndex;
+import com.practice.onlineShop.vos.ProductSearchResultVO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductService productService;
+
+    @Value("${shop.search.max-page-size:100}")
+    private int maxPageSize;
+
+    public ProductSearchResultVO search(String query, int page, int size) {
+        int pageNumber = Math.max(0, page);
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        InvertedIndex.SearchHits searchHits = productSearchIndex.search(query, (int) Math.min(Integer.MAX_VALUE, (long) pageNumber * pageSize), pageSize);
+
+        ProductSearchResultVO productSearchResultVO = new ProductSearchResultVO();
+        productSearchResultVO.setPage(pageNumber);
+        productSearchResultVO.setSize(pageSize);
+        productSearchResultVO.setTotalHits(searchHits.getTotalHits());
+        if (searchHits.getKeys().length > 0) {
+            List<Long> productIds = new ArrayList<>();
+            for (long productId : searchHits.getKeys()) {
+                productIds.add(productId);
+            }
+            // ranked order is kept, products deleted since the search are simply left out
+            productSearchResultVO.setProducts(productService.getProductsByIds(productIds).getProducts());
+        }
+        return productSearchResultVO;
+    }
+}
@@ -1,31 +1,40 @@
 package com.practice.onlineShop.services;
 
+import com.practice.onlineShop.concurrency.StockLockingStrategy;
 import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.exceptions.InvalidFieldsException;
 import com.practice.onlineShop.exceptions.InvalidProductCodeException;
 import com.practice.onlineShop.mappers.ProductMapper;
+import com.practice.onlineShop.outbox.Outbox;
+import com.practice.onlineShop.repositories.ProductFieldsRepository;
 import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.repositories.StockThresholdRepository;
+import com.practice.onlineShop.vos.ProductBatchVO;
 import com.practice.onlineShop.vos.ProductVO;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
     private final ProductMapper productMapper;
     private final ProductRepository productRepository;
+    private final StockLockingStrategy stockLockingStrategy;
+    private final Outbox outbox;
+    private final StockThresholdRepository stockThresholdRepository;
 
+    @Transactional
     public void addProduct(ProductVO productVO, Long customerId) {
         System.out.println("Customer with id " + customerId + " is in service");
         Product product = productMapper.toEntity(productVO);
         productRepository.save(product);
+        outbox.stockChanged(product, product.getStock());
     }
 
+    @Transactional(readOnly = true)
     public ProductVO getProduct(String productCode) throws InvalidProductCodeException {
         Product product = getProductEntity(productCode);
 
@@ -34,7 +43,7 @@ public class ProductService {
 
     public List<ProductVO> getProducts(){
         List<ProductVO> products = new ArrayList<>();
-        Iterable<Product> productsFromDbIterable = productRepository.findAll();
+        Iterable<Product> productsFromDbIterable = productRepository.findAllStateless();
         Iterator<Product> iterator = productsFromDbIterable.iterator();
         while (iterator.hasNext()) {
             Product product = iterator.next();
@@ -44,12 +53,52 @@ public class ProductService {
 
         return products;
     }
+
+    @Transactional(readOnly = true)
+    public ProductBatchVO getProductsByCodes(Collection<String> productCodes) {
+        Map<String, Product> productsByCode = new HashMap<>();
+        productRepository.findByCodeIn(productCodes).forEach(product -> productsByCode.put(product.getCode(), product));
+
+        ProductBatchVO productBatchVO = new ProductBatchVO();
+        for (String productCode : productCodes) {
+            addToBatch(productBatchVO, productCode, productsByCode.get(productCode));
+        }
+        return productBatchVO;
+    }
+
+    @Transactional(readOnly = true)
+    public ProductBatchVO getProductsByIds(Collection<Long> productIds) {
+        Map<Long, Product> productsById = new HashMap<>();
+        productRepository.findAllById(productIds).forEach(product -> productsById.put(product.getId(), product));
+
+        ProductBatchVO productBatchVO = new ProductBatchVO();
+        for (Long productId : productIds) {
+            addToBatch(productBatchVO, String.valueOf(productId), productsById.get(productId));
+        }
+        return productBatchVO;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getProducts(String fields) throws InvalidFieldsException {
+        Set<String> requestedFields = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String trimmedField = field.trim();
+            if (!ProductFieldsRepository.PRODUCT_FIELDS.contains(trimmedField)) {
+                throw new InvalidFieldsException();
+            }
+            requestedFields.add(trimmedField);
+        }
+
+        return productRepository.findAllFields(requestedFields);
+    }
     
+    @Transactional
     public void updateProduct(ProductVO productVO, Long customerId) throws InvalidProductCodeException {
         System.out.println("Customer with id " + customerId + " is in service for update");
         verifyProductCode(productVO.getCode());
 
         Product product = getProductEntity(productVO.getCode());
+        int oldStock = product.getStock();
         product.setValid(productVO.isValid());
         product.setPrice(productVO.getPrice());
         product.setDescription(productVO.getDescription());
@@ -57,14 +106,20 @@ public class ProductService {
         product.setStock(productVO.getStock());
 
         productRepository.save(product);
+        if (product.getStock() != oldStock) {
+            outbox.stockChanged(product, product.getStock() - oldStock);
+        }
     }
 
+    @Transactional
     public void deleteProduct(String productCode, Long customerId) throws InvalidProductCodeException {
         System.out.println("User with id: " + customerId + " is deleting " + productCode);
         verifyProductCode(productCode);
 
         Product product = getProductEntity(productCode);
         productRepository.delete(product);
+        stockThresholdRepository.findById(product.getId()).ifPresent(stockThresholdRepository::delete);
+        outbox.productDeleted(product);
     }
 
     @Transactional
@@ -73,9 +128,19 @@ public class ProductService {
                 "number of items: " + quantity);
         verifyProductCode(productCode);
         Product product = getProductEntity(productCode);
+        stockLockingStrategy.lockForStockUpdate(Collections.singletonList(product.getId()));
 
         int oldStock = product.getStock();
         product.setStock(oldStock + quantity);
+        outbox.stockChanged(product, quantity);
+    }
+
+    private void addToBatch(ProductBatchVO productBatchVO, String key, Product product) {
+        if (product == null) {
+            productBatchVO.getMissingKeys().add(key);
+        } else {
+            productBatchVO.getProducts().add(productMapper.toVO(product));
+        }
     }
 
     private Product getProductEntity(String productCode) throws InvalidProductCodeException {
@@ -1,17 +1,47 @@
 package com.practice.onlineShop.services;
 
 import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.entities.StockThreshold;
+import com.practice.onlineShop.exceptions.InvalidProductCodeException;
+import com.practice.onlineShop.exceptions.InvalidStockThresholdException;
+import com.practice.onlineShop.inventory.StockThresholdChangedEvent;
 import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.repositories.StockThresholdRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class StockService {
     private final ProductRepository productRepository;
+    private final StockThresholdRepository stockThresholdRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
+    @Transactional(readOnly = true)
     public boolean isHavingEnoughStock(Integer productId, Integer quantity) {
         Product product = productRepository.findById(productId.longValue()).get();
         return product.getStock() >= quantity;
     }
+
+    @Transactional
+    public void setReorderThreshold(String productCode, Integer threshold, Long customerId) throws InvalidProductCodeException, InvalidStockThresholdException {
+        System.out.println("User with id: " + customerId + " is setting the reorder threshold of: " + productCode + " to: " + threshold);
+        if (threshold == null || threshold < 0) {
+            throw new InvalidStockThresholdException();
+        }
+        Optional<Product> productOptional = productRepository.findByCode(productCode);
+        if (!productOptional.isPresent()) {
+            throw new InvalidProductCodeException();
+        }
+
+        StockThreshold stockThreshold = new StockThreshold();
+        stockThreshold.setProductId(productOptional.get().getId());
+        stockThreshold.setThreshold(threshold);
+        stockThresholdRepository.save(stockThreshold);
+        applicationEventPublisher.publishEvent(new StockThresholdChangedEvent(stockThreshold.getProductId(), threshold));
+    }
 }
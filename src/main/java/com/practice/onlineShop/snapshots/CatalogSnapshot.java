@@ -0,0 +1,374 @@
+package com.practice.onlineShop.snapshots;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.vos.ProductVO;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Immutable columnar copy of the catalog in one off-heap little endian buffer, rows sorted by id. Every column is a
+ * primitive array laid out back to back; codes and descriptions are dictionary encoded, and a permutation
+ * of the rows sorted by code allows lookups by code. Only absolute reads are used, so the buffer is
+ * shared by all readers without copies.
+ * <pre>
+ * header     magic, format version, rows, code count, code bytes, description count, description bytes, 0
+ * ids        long[rows]     versions  long[rows]     prices  double[rows]   stocks  int[rows]
+ * code ids   int[rows]      description ids int[rows] codes by code: int[rows]
+ * currencies byte[rows] (ordinal, -1 if none)   valid   byte[rows]
+ * codes      int[code count + 1] offsets, then the UTF-8 bytes, same for the descriptions
+ * </pre>
+ */
+public class CatalogSnapshot {
+    static final int MAGIC = 0x43415453;
+    static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int ROW_BYTES = 8 + 8 + 8 + 4 + 4 + 4 + 4 + 1 + 1;
+    private static final int NONE = -1;
+    private static final Currencies[] CURRENCIES = Currencies.values();
+
+    private final ByteBuffer data;
+    private final int rows;
+    private final int idsOffset;
+    private final int versionsOffset;
+    private final int pricesOffset;
+    private final int stocksOffset;
+    private final int codeIdsOffset;
+    private final int descriptionIdsOffset;
+    private final int codeOrderOffset;
+    private final int currenciesOffset;
+    private final int validOffset;
+    private final Dictionary codes;
+    private final Dictionary descriptions;
+
+    /**
+     * Reads a snapshot laid out by {@link #build(List)}, from a direct buffer or a mapped file.
+     */
+    public CatalogSnapshot(ByteBuffer buffer) {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not a catalog snapshot");
+        }
+        this.data = data;
+        this.rows = data.getInt(8);
+        this.idsOffset = HEADER_BYTES;
+        this.versionsOffset = idsOffset + rows * 8;
+        this.pricesOffset = versionsOffset + rows * 8;
+        this.stocksOffset = pricesOffset + rows * 8;
+        this.codeIdsOffset = stocksOffset + rows * 4;
+        this.descriptionIdsOffset = codeIdsOffset + rows * 4;
+        this.codeOrderOffset = descriptionIdsOffset + rows * 4;
+        this.currenciesOffset = codeOrderOffset + rows * 4;
+        this.validOffset = currenciesOffset + rows;
+        this.codes = new Dictionary(data, align(validOffset + rows), data.getInt(12));
+        this.descriptions = new Dictionary(data, align(codes.end(data.getInt(16))), data.getInt(20));
+        if (descriptions.end(data.getInt(24)) > data.capacity()) {
+            throw new IllegalArgumentException("Truncated catalog snapshot");
+        }
+    }
+
+    /**
+     * @param rowsSortedById one row per product, in increasing id order
+     */
+    public static CatalogSnapshot build(List<Row> rowsSortedById) {
+        int rows = rowsSortedById.size();
+        DictionaryBuilder codes = new DictionaryBuilder();
+        DictionaryBuilder descriptions = new DictionaryBuilder();
+        int[] codeIds = new int[rows];
+        int[] descriptionIds = new int[rows];
+        for (int position = 0; position < rows; position++) {
+            codeIds[position] = codes.add(rowsSortedById.get(position).code);
+            descriptionIds[position] = descriptions.add(rowsSortedById.get(position).description);
+        }
+
+        int codesOffset = align(HEADER_BYTES + rows * ROW_BYTES);
+        int descriptionsOffset = align(codesOffset + codes.sizeInBytes());
+        ByteBuffer data = ByteBuffer.allocateDirect(descriptionsOffset + descriptions.sizeInBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(0, MAGIC);
+        data.putInt(4, FORMAT_VERSION);
+        data.putInt(8, rows);
+        data.putInt(12, codes.count());
+        data.putInt(16, codes.byteCount());
+        data.putInt(20, descriptions.count());
+        data.putInt(24, descriptions.byteCount());
+        codes.writeTo(data, codesOffset);
+        descriptions.writeTo(data, descriptionsOffset);
+
+        CatalogSnapshot snapshot = new CatalogSnapshot(data);
+        for (int position = 0; position < rows; position++) {
+            Row row = rowsSortedById.get(position);
+            data.putLong(snapshot.idsOffset + position * 8, row.id);
+            data.putLong(snapshot.versionsOffset + position * 8, row.version);
+            data.putDouble(snapshot.pricesOffset + position * 8, row.price);
+            data.putInt(snapshot.stocksOffset + position * 4, row.stock);
+            data.putInt(snapshot.codeIdsOffset + position * 4, codeIds[position]);
+            data.putInt(snapshot.descriptionIdsOffset + position * 4, descriptionIds[position]);
+            data.put(snapshot.currenciesOffset + position, row.currency == null ? NONE : (byte) row.currency.ordinal());
+            data.put(snapshot.validOffset + position, (byte) (row.valid ? 1 : 0));
+        }
+
+        Integer[] codeOrder = new Integer[rows];
+        for (int position = 0; position < rows; position++) {
+            codeOrder[position] = position;
+        }
+        Arrays.sort(codeOrder, Comparator.comparing((Integer position) -> rowsSortedById.get(position).code,
+                Comparator.nullsLast(CatalogSnapshot::compareCodePoints)));
+        for (int i = 0; i < rows; i++) {
+            data.putInt(snapshot.codeOrderOffset + i * 4, codeOrder[i]);
+        }
+        return snapshot;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * The buffer holding the whole snapshot, for writing it out as it is.
+     */
+    public ByteBuffer getData() {
+        return data.duplicate();
+    }
+
+    public int positionOfId(long id) {
+        int low = 0;
+        int high = rows - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = id(middle);
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return NONE;
+    }
+
+    public int positionOfCode(String code) {
+        byte[] key = code.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = rows - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int position = data.getInt(codeOrderOffset + middle * 4);
+            int codeId = data.getInt(codeIdsOffset + position * 4);
+            int comparison = codeId == NONE ? 1 : codes.compare(codeId, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return position;
+            }
+        }
+        return NONE;
+    }
+
+    public long id(int position) {
+        return data.getLong(idsOffset + position * 8);
+    }
+
+    public long version(int position) {
+        return data.getLong(versionsOffset + position * 8);
+    }
+
+    public double price(int position) {
+        return data.getDouble(pricesOffset + position * 8);
+    }
+
+    public int stock(int position) {
+        return data.getInt(stocksOffset + position * 4);
+    }
+
+    public Currencies currency(int position) {
+        byte ordinal = data.get(currenciesOffset + position);
+        return ordinal == NONE ? null : CURRENCIES[ordinal];
+    }
+
+    public boolean isValid(int position) {
+        return data.get(validOffset + position) != 0;
+    }
+
+    public String code(int position) {
+        return codes.get(data.getInt(codeIdsOffset + position * 4));
+    }
+
+    public String description(int position) {
+        return descriptions.get(data.getInt(descriptionIdsOffset + position * 4));
+    }
+
+    public ProductVO toVO(int position) {
+        ProductVO productVO = new ProductVO();
+        productVO.setId(id(position));
+        productVO.setCode(code(position));
+        productVO.setDescription(description(position));
+        productVO.setPrice(price(position));
+        productVO.setStock(stock(position));
+        productVO.setValid(isValid(position));
+        productVO.setCurrency(currency(position));
+        return productVO;
+    }
+
+    public Product toProduct(int position) {
+        Product product = new Product();
+        product.setId(id(position));
+        product.setVersion(version(position));
+        product.setCode(code(position));
+        product.setDescription(description(position));
+        product.setPrice(price(position));
+        product.setStock(stock(position));
+        product.setValid(isValid(position));
+        product.setCurrency(currency(position));
+        return product;
+    }
+
+    public Row row(int position) {
+        return new Row(id(position), version(position), code(position), description(position), price(position),
+                stock(position), isValid(position), currency(position));
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    private static int compareCodePoints(String first, String second) {
+        byte[] firstBytes = first.getBytes(StandardCharsets.UTF_8);
+        byte[] secondBytes = second.getBytes(StandardCharsets.UTF_8);
+        int common = Math.min(firstBytes.length, secondBytes.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (firstBytes[i] & 0xFF) - (secondBytes[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return firstBytes.length - secondBytes.length;
+    }
+
+    /**
+     * The values of one product, as stored in a snapshot.
+     */
+    public static class Row {
+        private final long id;
+        private final long version;
+        private final String code;
+        private final String description;
+        private final double price;
+        private final int stock;
+        private final boolean valid;
+        private final Currencies currency;
+
+        public Row(long id, long version, String code, String description, double price, int stock, boolean valid, Currencies currency) {
+            this.id = id;
+            this.version = version;
+            this.code = code;
+            this.description = description;
+            this.price = price;
+            this.stock = stock;
+            this.valid = valid;
+            this.currency = currency;
+        }
+
+        public Row(Product product) {
+            this(product.getId(), product.getVersion(), product.getCode(), product.getDescription(), product.getPrice(), product.getStock(),
+                    product.isValid(), product.getCurrency());
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+
+    private static class Dictionary {
+        private final ByteBuffer data;
+        private final int offsetsOffset;
+        private final int bytesOffset;
+
+        private Dictionary(ByteBuffer data, int offset, int count) {
+            this.data = data;
+            this.offsetsOffset = offset;
+            this.bytesOffset = offset + (count + 1) * 4;
+        }
+
+        private int end(int byteCount) {
+            return bytesOffset + byteCount;
+        }
+
+        private String get(int id) {
+            if (id == NONE) {
+                return null;
+            }
+            int start = data.getInt(offsetsOffset + id * 4);
+            byte[] bytes = new byte[data.getInt(offsetsOffset + id * 4 + 4) - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = data.get(bytesOffset + start + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private int compare(int id, byte[] key) {
+            int start = data.getInt(offsetsOffset + id * 4);
+            int length = data.getInt(offsetsOffset + id * 4 + 4) - start;
+            int common = Math.min(length, key.length);
+            for (int i = 0; i < common; i++) {
+                int difference = (data.get(bytesOffset + start + i) & 0xFF) - (key[i] & 0xFF);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return length - key.length;
+        }
+    }
+
+    private static class DictionaryBuilder {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+        private int byteCount;
+
+        private int add(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                ids.put(value, id);
+                values.add(bytes);
+                byteCount += bytes.length;
+            }
+            return id;
+        }
+
+        private int count() {
+            return values.size();
+        }
+
+        private int byteCount() {
+            return byteCount;
+        }
+
+        private int sizeInBytes() {
+            return (values.size() + 1) * 4 + byteCount;
+        }
+
+        private void writeTo(ByteBuffer data, int offset) {
+            int bytesOffset = offset + (values.size() + 1) * 4;
+            int position = 0;
+            for (int id = 0; id < values.size(); id++) {
+                data.putInt(offset + id * 4, position);
+                byte[] bytes = values.get(id);
+                for (int i = 0; i < bytes.length; i++) {
+                    data.put(bytesOffset + position + i, bytes[i]);
+                }
+                position += bytes.length;
+            }
+            data.putInt(offset + values.size() * 4, position);
+        }
+    }
+}
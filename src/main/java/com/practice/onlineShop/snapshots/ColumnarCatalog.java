@@ -0,0 +1,166 @@
+package com.practice.onlineShop.snapshots;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.events.ProductChangeListener;
+import com.practice.onlineShop.vos.ProductBatchVO;
+import com.practice.onlineShop.vos.ProductVO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Read model of the catalog kept in a {@link CatalogSnapshot}, enabled with shop.catalog.columnar.enabled.
+ * Committed product changes are collected and merged in the background into a new snapshot, which then
+ * replaces the current one; readers never wait for a merge and see the change once it is swapped in.
+ * Nothing is served before the existing products have been loaded.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.catalog.columnar.enabled", havingValue = "true")
+public class ColumnarCatalog implements ProductChangeListener {
+    private static final CatalogSnapshot.Row DELETED = new CatalogSnapshot.Row(0, 0, null, null, 0, 0, false, null);
+
+    private final ConcurrentMap<Long, CatalogSnapshot.Row> pendingChanges = new ConcurrentHashMap<>();
+    private final AtomicBoolean mergeScheduled = new AtomicBoolean();
+    private final ExecutorService mergeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "columnar-catalog-merge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.build(Collections.<CatalogSnapshot.Row>emptyList());
+    private volatile boolean ready;
+
+    public ColumnarCatalog(MeterRegistry meterRegistry) {
+        Gauge.builder("shop.catalog.columnar.products", this, columnarCatalog -> columnarCatalog.snapshot.size()).register(meterRegistry);
+        Gauge.builder("shop.catalog.columnar.bytes", this, columnarCatalog -> columnarCatalog.snapshot.getData().capacity()).register(meterRegistry);
+        Gauge.builder("shop.catalog.columnar.pending.changes", pendingChanges, Map::size).register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public CatalogSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public List<ProductVO> getProducts() {
+        CatalogSnapshot currentSnapshot = snapshot;
+        List<ProductVO> products = new ArrayList<>(currentSnapshot.size());
+        for (int position = 0; position < currentSnapshot.size(); position++) {
+            products.add(currentSnapshot.toVO(position));
+        }
+        return products;
+    }
+
+    public ProductBatchVO getProductsByIds(Collection<Long> productIds) {
+        CatalogSnapshot currentSnapshot = snapshot;
+        ProductBatchVO productBatchVO = new ProductBatchVO();
+        for (Long productId : productIds) {
+            int position = currentSnapshot.positionOfId(productId);
+            if (position < 0) {
+                productBatchVO.getMissingKeys().add(String.valueOf(productId));
+            } else {
+                productBatchVO.getProducts().add(currentSnapshot.toVO(position));
+            }
+        }
+        return productBatchVO;
+    }
+
+    public ProductBatchVO getProductsByCodes(Collection<String> productCodes) {
+        CatalogSnapshot currentSnapshot = snapshot;
+        ProductBatchVO productBatchVO = new ProductBatchVO();
+        for (String productCode : productCodes) {
+            int position = currentSnapshot.positionOfCode(productCode);
+            if (position < 0) {
+                productBatchVO.getMissingKeys().add(productCode);
+            } else {
+                productBatchVO.getProducts().add(currentSnapshot.toVO(position));
+            }
+        }
+        return productBatchVO;
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        pendingChanges.put(product.getId(), new CatalogSnapshot.Row(product));
+        scheduleMerge();
+    }
+
+    @Override
+    public void onProductDeleted(Product product) {
+        pendingChanges.put(product.getId(), DELETED);
+        scheduleMerge();
+    }
+
+    @Override
+    public boolean requiresInitialLoad() {
+        return true;
+    }
+
+    @Override
+    public synchronized void onInitialLoadCompleted() {
+        merge();
+        ready = true;
+        // a change committed between the merge and ready = true was not scheduled by its listener call
+        if (!pendingChanges.isEmpty()) {
+            scheduleMerge();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mergeExecutor.shutdownNow();
+    }
+
+    private void scheduleMerge() {
+        if (ready && mergeScheduled.compareAndSet(false, true)) {
+            mergeExecutor.execute(() -> {
+                mergeScheduled.set(false);
+                try {
+                    synchronized (this) {
+                        merge();
+                    }
+                } catch (Exception exception) {
+                    System.out.println("Could not merge the catalog changes: " + exception.getMessage());
+                }
+            });
+        }
+    }
+
+    private void merge() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        List<Long> changedIds = new ArrayList<>(pendingChanges.keySet());
+        Collections.sort(changedIds);
+
+        CatalogSnapshot currentSnapshot = snapshot;
+        List<CatalogSnapshot.Row> rows = new ArrayList<>(currentSnapshot.size() + changedIds.size());
+        int position = 0;
+        for (Long changedId : changedIds) {
+            while (position < currentSnapshot.size() && currentSnapshot.id(position) < changedId) {
+                rows.add(currentSnapshot.row(position++));
+            }
+            if (position < currentSnapshot.size() && currentSnapshot.id(position) == changedId) {
+                position++;
+            }
+            CatalogSnapshot.Row changedRow = pendingChanges.remove(changedId);
+            if (changedRow != DELETED) {
+                rows.add(changedRow);
+            }
+        }
+        while (position < currentSnapshot.size()) {
+            rows.add(currentSnapshot.row(position++));
+        }
+        snapshot = CatalogSnapshot.build(rows);
+    }
+}
@@ -0,0 +1,134 @@
+package com.practice.onlineShop.snapshots;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A file of typed sections, each stored with its length and CRC32, read back through a memory mapping.
+ * <pre>
+ * header   magic, format version, created at (epoch millis), section count
+ * section  type, 0, length, crc32, then the bytes padded to 8
+ * </pre>
+ * Written to a temporary file moved over the previous one, so a reader never sees half a file.
+ */
+public class SnapshotFile {
+    static final int MAGIC = 0x4F53534E;
+    static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int SECTION_HEADER_BYTES = 24;
+
+    private final long createdAtMillis;
+    private final Map<Integer, ByteBuffer> sections;
+    private final Map<Integer, Long> checksums;
+
+    private SnapshotFile(long createdAtMillis, Map<Integer, ByteBuffer> sections, Map<Integer, Long> checksums) {
+        this.createdAtMillis = createdAtMillis;
+        this.sections = sections;
+        this.checksums = checksums;
+    }
+
+    public static void write(Path path, long createdAtMillis, Map<Integer, ByteBuffer> sections) throws IOException {
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(createdAtMillis).putInt(sections.size()).putInt(0);
+            header.flip();
+            writeFully(channel, header);
+
+            for (Map.Entry<Integer, ByteBuffer> section : sections.entrySet()) {
+                ByteBuffer bytes = section.getValue().duplicate();
+                bytes.clear();
+                CRC32 crc32 = new CRC32();
+                crc32.update(bytes.duplicate());
+
+                ByteBuffer sectionHeader = ByteBuffer.allocate(SECTION_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                sectionHeader.putInt(section.getKey()).putInt(0).putLong(bytes.capacity()).putLong(crc32.getValue());
+                sectionHeader.flip();
+                writeFully(channel, sectionHeader);
+                writeFully(channel, bytes);
+                writeFully(channel, ByteBuffer.allocate(padding(bytes.capacity())));
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the file and reads its layout. The checksums are only verified by {@link #getSection(int)}.
+     */
+    public static SnapshotFile map(Path path) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer data = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not a snapshot file: " + path);
+        }
+
+        Map<Integer, ByteBuffer> sections = new HashMap<>();
+        Map<Integer, Long> checksums = new HashMap<>();
+        int sectionCount = data.getInt(16);
+        long offset = HEADER_BYTES;
+        for (int i = 0; i < sectionCount; i++) {
+            if (offset + SECTION_HEADER_BYTES > data.capacity()) {
+                throw new IOException("Truncated snapshot file: " + path);
+            }
+            int type = data.getInt((int) offset);
+            long length = data.getLong((int) offset + 8);
+            long checksum = data.getLong((int) offset + 16);
+            long start = offset + SECTION_HEADER_BYTES;
+            if (length < 0 || start + length > data.capacity()) {
+                throw new IOException("Truncated snapshot file: " + path);
+            }
+            ByteBuffer section = data.duplicate();
+            section.position((int) start);
+            section.limit((int) (start + length));
+            sections.put(type, section.slice());
+            checksums.put(type, checksum);
+            offset = start + length + padding(length);
+        }
+        return new SnapshotFile(data.getLong(8), sections, checksums);
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * The bytes of the section, once their checksum is verified. Sections can be verified in parallel.
+     */
+    public ByteBuffer getSection(int type) throws IOException {
+        ByteBuffer section = sections.get(type);
+        if (section == null) {
+            throw new IOException("Missing snapshot section " + type);
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(section.duplicate());
+        if (crc32.getValue() != checksums.get(type)) {
+            throw new IOException("Corrupted snapshot section " + type);
+        }
+        return section.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int padding(long length) {
+        return (int) ((8 - length % 8) % 8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
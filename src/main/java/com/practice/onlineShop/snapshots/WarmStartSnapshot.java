@@ -0,0 +1,188 @@
+package com.practice.onlineShop.snapshots;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Roles;
+import com.practice.onlineShop.ratelimit.UserRolesCache;
+import com.practice.onlineShop.repositories.CatalogFingerprint;
+import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.repositories.UserRepository;
+import com.practice.onlineShop.repositories.UserRole;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the catalog and the user roles to shop.snapshot.path periodically and on shutdown, and reads
+ * them back while the application starts: the file is memory mapped, its sections verified and decoded
+ * in parallel with a query of the catalog fingerprint. A file that is missing, corrupted, older than
+ * shop.snapshot.max-age-millis or whose fingerprint differs from the database's is ignored and the
+ * catalog is loaded from the database as before.
+ * The loaded catalog feeds the initial load of the in-memory indexes, the roles warm the {@link UserRolesCache}
+ * used by the rate limiter; authorization itself keeps reading the users from the database.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.snapshot.enabled", havingValue = "true")
+public class WarmStartSnapshot {
+    static final int CATALOG_SECTION = 1;
+    static final int USER_ROLES_SECTION = 2;
+    static final int FINGERPRINT_SECTION = 3;
+    private static final Roles[] ROLES = Roles.values();
+
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final UserRolesCache userRolesCache;
+    private final ObjectProvider<ColumnarCatalog> columnarCatalogProvider;
+    private final Path path;
+    private final long maxAgeMillis;
+    private volatile CatalogSnapshot loadedCatalog;
+
+    public WarmStartSnapshot(ProductRepository productRepository, UserRepository userRepository, UserRolesCache userRolesCache,
+                             ObjectProvider<ColumnarCatalog> columnarCatalogProvider,
+                             @Value("${shop.snapshot.path:onlineShop.snapshot}") String path,
+                             @Value("${shop.snapshot.max-age-millis:86400000}") long maxAgeMillis) {
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.userRolesCache = userRolesCache;
+        this.columnarCatalogProvider = columnarCatalogProvider;
+        this.path = Paths.get(path);
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.exists(path)) {
+            System.out.println("No snapshot at " + path + ", the catalog is loaded from the database");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            SnapshotFile snapshotFile = SnapshotFile.map(path);
+            if (System.currentTimeMillis() - snapshotFile.getCreatedAtMillis() > maxAgeMillis) {
+                System.out.println("Snapshot " + path + " is too old, the catalog is loaded from the database");
+                return;
+            }
+
+            CompletableFuture<CatalogFingerprint> databaseFingerprint = CompletableFuture.supplyAsync(productRepository::findCatalogFingerprint);
+            CompletableFuture<CatalogSnapshot> catalog = CompletableFuture.supplyAsync(() -> new CatalogSnapshot(section(snapshotFile, CATALOG_SECTION)));
+            CompletableFuture<Map<Long, List<Roles>>> roles = CompletableFuture.supplyAsync(() -> readRoles(section(snapshotFile, USER_ROLES_SECTION)));
+            ByteBuffer fingerprint = snapshotFile.getSection(FINGERPRINT_SECTION);
+
+            CatalogFingerprint currentFingerprint = databaseFingerprint.get();
+            if (fingerprint.getLong(0) != currentFingerprint.getProducts() || fingerprint.getLong(8) != currentFingerprint.getMaxId()
+                    || fingerprint.getLong(16) != currentFingerprint.getVersionSum()) {
+                System.out.println("Snapshot " + path + " does not match the database, the catalog is loaded from the database");
+                return;
+            }
+            CatalogSnapshot catalogSnapshot = catalog.get();
+            roles.get().forEach(userRolesCache::put);
+            loadedCatalog = catalogSnapshot;
+            System.out.println("Loaded " + loadedCatalog.size() + " products and the roles of " + roles.get().size() + " users from "
+                    + path + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (Exception exception) {
+            System.out.println("Could not load snapshot " + path + ", the catalog is loaded from the database: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * The catalog read at startup, handed out once so its mapping can be released after the initial load.
+     */
+    public CatalogSnapshot takeLoadedCatalog() {
+        CatalogSnapshot catalogSnapshot = loadedCatalog;
+        loadedCatalog = null;
+        return catalogSnapshot;
+    }
+
+    @Scheduled(initialDelayString = "${shop.snapshot.write-interval-millis:300000}", fixedDelayString = "${shop.snapshot.write-interval-millis:300000}")
+    @PreDestroy
+    public synchronized void write() {
+        long start = System.nanoTime();
+        try {
+            long createdAtMillis = System.currentTimeMillis();
+            CatalogSnapshot catalogSnapshot = currentCatalog();
+            Map<Integer, ByteBuffer> sections = new LinkedHashMap<>();
+            sections.put(FINGERPRINT_SECTION, fingerprintOf(catalogSnapshot));
+            sections.put(USER_ROLES_SECTION, writeRoles(userRepository.findAllRoles()));
+            sections.put(CATALOG_SECTION, catalogSnapshot.getData());
+            SnapshotFile.write(path, createdAtMillis, sections);
+            System.out.println("Wrote " + catalogSnapshot.size() + " products to " + path + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (Exception exception) {
+            System.out.println("Could not write snapshot " + path + ": " + exception.getMessage());
+        }
+    }
+
+    private CatalogSnapshot currentCatalog() {
+        ColumnarCatalog columnarCatalog = columnarCatalogProvider.getIfAvailable();
+        if (columnarCatalog != null && columnarCatalog.isReady()) {
+            return columnarCatalog.getSnapshot();
+        }
+        List<CatalogSnapshot.Row> rows = new ArrayList<>();
+        for (Product product : productRepository.findAllStateless()) {
+            rows.add(new CatalogSnapshot.Row(product));
+        }
+        return CatalogSnapshot.build(rows);
+    }
+
+    private ByteBuffer fingerprintOf(CatalogSnapshot catalogSnapshot) {
+        long versionSum = 0;
+        for (int position = 0; position < catalogSnapshot.size(); position++) {
+            versionSum += catalogSnapshot.version(position);
+        }
+        ByteBuffer fingerprint = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+        fingerprint.putLong(0, catalogSnapshot.size());
+        fingerprint.putLong(8, catalogSnapshot.size() == 0 ? 0 : catalogSnapshot.id(catalogSnapshot.size() - 1));
+        fingerprint.putLong(16, versionSum);
+        return fingerprint;
+    }
+
+    private ByteBuffer writeRoles(List<UserRole> userRoles) {
+        Map<Long, Integer> roleMasks = new HashMap<>();
+        for (UserRole userRole : userRoles) {
+            roleMasks.merge(userRole.getUserId(), 1 << userRole.getRole().ordinal(), (first, second) -> first | second);
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(4 + roleMasks.size() * 12).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putInt(roleMasks.size());
+        roleMasks.forEach((userId, roleMask) -> bytes.putLong(userId).putInt(roleMask));
+        return bytes;
+    }
+
+    private Map<Long, List<Roles>> readRoles(ByteBuffer bytes) {
+        Map<Long, List<Roles>> rolesByUserId = new HashMap<>();
+        int users = bytes.getInt(0);
+        for (int user = 0; user < users; user++) {
+            long userId = bytes.getLong(4 + user * 12);
+            int roleMask = bytes.getInt(4 + user * 12 + 8);
+            List<Roles> roles = new ArrayList<>();
+            for (Roles role : ROLES) {
+                if ((roleMask & (1 << role.ordinal())) != 0) {
+                    roles.add(role);
+                }
+            }
+            rolesByUserId.put(userId, roles);
+        }
+        return rolesByUserId;
+    }
+
+    private ByteBuffer section(SnapshotFile snapshotFile, int type) {
+        try {
+            return snapshotFile.getSection(type);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.practice.onlineShop.vos;
+
+import com.practice.onlineShop.enums.Currencies;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+public class InventoryValuationVO {
+    private Map<Currencies, Double> values = new EnumMap<>(Currencies.class);
+    // how far the valuation was from the products at the last reconciliation, before it was corrected
+    private Map<Currencies, Double> lastDrift = new EnumMap<>(Currencies.class);
+    private Instant lastReconciledAt;
+}
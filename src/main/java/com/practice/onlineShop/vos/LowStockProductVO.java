@@ -0,0 +1,15 @@
+package com.practice.onlineShop.vos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockProductVO {
+    private long productId;
+    private String code;
+    private int stock;
+    private int threshold;
+}
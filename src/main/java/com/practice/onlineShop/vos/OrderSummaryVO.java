@@ -0,0 +1,21 @@
+package com.practice.onlineShop.vos;
+
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.enums.OrderStatuses;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+public class OrderSummaryVO {
+    private long orderId;
+    private long userId;
+    private OrderStatuses status;
+    private int lineCount;
+    private int totalQuantity;
+    // only the currencies the order has products in
+    private Map<Currencies, Double> totals = new EnumMap<>(Currencies.class);
+    private Instant createdAt;
+}
@@ -0,0 +1,12 @@
+package com.practice.onlineShop.vos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ProductBatchVO {
+    private List<ProductVO> products = new ArrayList<>();
+    private List<String> missingKeys = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package com.practice.onlineShop.vos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class ProductFacetsResultVO {
+    private int page;
+    private int size;
+    private long totalHits;
+    private List<ProductVO> products = new ArrayList<>();
+    private Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+}
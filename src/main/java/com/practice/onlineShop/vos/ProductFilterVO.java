@@ -0,0 +1,17 @@
+package com.practice.onlineShop.vos;
+
+import com.practice.onlineShop.enums.Currencies;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProductFilterVO {
+    private List<Currencies> currencies;
+    private Double minPrice;
+    private Double maxPrice;
+    private Boolean valid;
+    private Boolean inStock;
+    private int page;
+    private int size = 20;
+}
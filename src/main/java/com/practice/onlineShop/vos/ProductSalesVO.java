@@ -0,0 +1,13 @@
+package com.practice.onlineShop.vos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesVO {
+    private long productId;
+    private long unitsSold;
+}
@@ -0,0 +1,14 @@
+package com.practice.onlineShop.vos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ProductSearchResultVO {
+    private int page;
+    private int size;
+    private long totalHits;
+    private List<ProductVO> products = new ArrayList<>();
+}
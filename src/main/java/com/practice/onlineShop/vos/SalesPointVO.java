@@ -0,0 +1,16 @@
+package com.practice.onlineShop.vos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesPointVO {
+    private Instant minute;
+    private long units;
+    private double revenue;
+}
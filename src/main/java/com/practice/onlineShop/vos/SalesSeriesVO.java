@@ -0,0 +1,15 @@
+package com.practice.onlineShop.vos;
+
+import com.practice.onlineShop.enums.Currencies;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class SalesSeriesVO {
+    // null for the sales of all the products
+    private Long productId;
+    private Currencies currency;
+    private List<SalesPointVO> points = new ArrayList<>();
+}
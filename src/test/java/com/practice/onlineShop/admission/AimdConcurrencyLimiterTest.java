@@ -0,0 +1,57 @@
+package com.practice.onlineShop.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdConcurrencyLimiterTest {
+
+    @Test
+    public void tryAcquire_whenLimitIsReached_shouldRejectWithoutBlocking() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 10, 100, 0.5);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    public void release_whenCallIsSlow_shouldDecreaseTheLimit() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(8, 1, 10, 100, 0.5);
+
+        limiter.tryAcquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(500), false);
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void release_whenCallsAreFastAndLimitIsUsed_shouldIncreaseTheLimitUpToTheMaximum() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 3, 100, 0.5);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    public void release_whenOverloaded_shouldNeverGoUnderTheMinimum() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 2, 10, 100, 0.5);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(0, true);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,80 @@
+package com.practice.onlineShop.aspects;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.mappers.ProductMapper;
+import com.practice.onlineShop.services.ProductService;
+import com.practice.onlineShop.utils.UtilsComponent;
+import com.practice.onlineShop.vos.ProductVO;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import javax.sql.DataSource;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:readCoalescingTest")
+class ReadCoalescingAspectIntegrationTest {
+    private static final String READER_THREAD = "product-reader-";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UtilsComponent utilsComponent;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @SpyBean
+    private ProductMapper productMapper;
+
+    @Test
+    public void getProduct_whenCallersWaitOnTheLeader_shouldNotHoldAConnection() throws Exception {
+        CountDownLatch leaderReading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // stubbed before the products are stored, as the catalog rebuilt in the background maps them too
+        doAnswer(invocation -> {
+            if (Thread.currentThread().getName().startsWith(READER_THREAD)) {
+                leaderReading.countDown();
+                release.await();
+            }
+            return invocation.callRealMethod();
+        }).when(productMapper).toVO(any(Product.class));
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForCoalescing", "code2ForCoalescing");
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, READER_THREAD + runnable.hashCode()));
+        try {
+            Future<ProductVO> leader = executorService.submit(() -> productService.getProduct(product.getCode()));
+            assertThat(leaderReading.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<ProductVO> waiter = executorService.submit(() -> productService.getProduct(product.getCode()));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (coalescedProductReads() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            int activeConnections = ((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections();
+            release.countDown();
+
+            assertThat(coalescedProductReads()).isEqualTo(1);
+            assertThat(activeConnections).isEqualTo(1);
+            assertThat(leader.get(10, TimeUnit.SECONDS).getCode()).isEqualTo(product.getCode());
+            assertThat(waiter.get(10, TimeUnit.SECONDS).getCode()).isEqualTo(product.getCode());
+        } finally {
+            release.countDown();
+            executorService.shutdownNow();
+        }
+    }
+
+    private double coalescedProductReads() {
+        return meterRegistry.get("shop.reads.coalesced").tag("read", "product").functionCounter().count();
+    }
+}
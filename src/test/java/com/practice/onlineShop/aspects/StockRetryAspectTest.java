@@ -0,0 +1,57 @@
+package com.practice.onlineShop.aspects;
+
+import com.practice.onlineShop.concurrency.StockLockingStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class StockRetryAspectTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void retryOnStockConflict_whenAnAttemptLosesTheRace_shouldRetryItAndCountTheConflict() throws Throwable {
+        StockRetryAspect stockRetryAspect = new StockRetryAspect(strategy(true), meterRegistry, 3, 1);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed())
+                .thenThrow(new OptimisticLockingFailureException("stale product"))
+                .thenReturn("placed");
+
+        assertThat(stockRetryAspect.retryOnStockConflict(joinPoint)).isEqualTo("placed");
+        verify(joinPoint, times(2)).proceed();
+        assertThat(meterRegistry.counter("shop.stock.conflicts").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("shop.stock.retries").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void retryOnStockConflict_whenEveryAttemptConflicts_shouldGiveUpAfterTheMaxAttempts() throws Throwable {
+        StockRetryAspect stockRetryAspect = new StockRetryAspect(strategy(true), meterRegistry, 3, 1);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenThrow(new OptimisticLockingFailureException("stale product"));
+
+        assertThatThrownBy(() -> stockRetryAspect.retryOnStockConflict(joinPoint)).isInstanceOf(OptimisticLockingFailureException.class);
+        verify(joinPoint, times(3)).proceed();
+        assertThat(meterRegistry.counter("shop.stock.conflicts").count()).isEqualTo(3);
+        assertThat(meterRegistry.counter("shop.stock.retries").count()).isEqualTo(2);
+    }
+
+    @Test
+    public void retryOnStockConflict_whenTheStrategyLocksPessimistically_shouldNotRetry() throws Throwable {
+        StockRetryAspect stockRetryAspect = new StockRetryAspect(strategy(false), meterRegistry, 3, 1);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenThrow(new OptimisticLockingFailureException("stale product"));
+
+        assertThatThrownBy(() -> stockRetryAspect.retryOnStockConflict(joinPoint)).isInstanceOf(OptimisticLockingFailureException.class);
+        verify(joinPoint, times(1)).proceed();
+    }
+
+    private StockLockingStrategy strategy(boolean retryingOnConflict) {
+        StockLockingStrategy stockLockingStrategy = mock(StockLockingStrategy.class);
+        when(stockLockingStrategy.isRetryingOnConflict()).thenReturn(retryingOnConflict);
+        return stockLockingStrategy;
+    }
+}
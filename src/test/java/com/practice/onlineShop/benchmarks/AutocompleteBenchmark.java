@@ -0,0 +1,45 @@
+package com.practice.onlineShop.benchmarks;
+
+import com.practice.onlineShop.indexes.SortedCodeIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Random;
+
+/**
+ * Prefix lookups against one million product codes.
+ * Run with: mvn test -Dbenchmark=true -Dtest=AutocompleteBenchmark
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AutocompleteBenchmark {
+    private static final int CODES = 1_000_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    @Test
+    public void lookupPrefixes() {
+        SortedCodeIndex sortedCodeIndex = new SortedCodeIndex();
+        long loadStart = System.nanoTime();
+        for (int i = 0; i < CODES; i++) {
+            sortedCodeIndex.add("SKU-" + Long.toString(i * 7919L % CODES, 36).toUpperCase());
+        }
+        System.out.println("Loaded " + sortedCodeIndex.size() + " codes in " + (System.nanoTime() - loadStart) / 1_000_000 + " ms");
+
+        Random random = new Random(42);
+        String[] prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String code = Integer.toString(random.nextInt(CODES), 36).toUpperCase();
+            prefixes[i] = "SKU-" + code.substring(0, 1 + random.nextInt(code.length()));
+        }
+
+        long found = 0;
+        for (int i = 0; i < LOOKUPS / 10; i++) {
+            found += sortedCodeIndex.startingWith(prefixes[i & 1023], 10).size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            found += sortedCodeIndex.startingWith(prefixes[i & 1023], 10).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("Top 10 by prefix: " + elapsed / LOOKUPS + " ns per lookup (" + found + " codes)");
+    }
+}
@@ -0,0 +1,121 @@
+package com.practice.onlineShop.benchmarks;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.mappers.ProductMapper;
+import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.services.ProductService;
+import com.practice.onlineShop.vos.ProductVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Allocation and GC cost of listing the whole catalog through a read-write transaction (managed, snapshotted
+ * entities), a read-only transaction and the stateless session used by ProductService.getProducts().
+ * Run with: mvn test -Dbenchmark=true -Dtest=CatalogReadBenchmark
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CatalogReadBenchmark {
+    private static final int PRODUCTS = 20_000;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    public void storeProducts() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setCode("catalog-read-benchmark-" + i);
+            product.setDescription("Produs de test numarul " + i);
+            product.setPrice(10 + i % 1000);
+            product.setStock(i % 50);
+            product.setValid(true);
+            product.setCurrency(Currencies.RON);
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+    }
+
+    @AfterEach
+    public void deleteProducts() {
+        productRepository.deleteAll(products);
+    }
+
+    @Test
+    public void compareCatalogReads() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        measure("read-write transaction", () -> readWrite.execute(status -> mapAll(productRepository.findAll())));
+        measure("read-only transaction", () -> readOnly.execute(status -> mapAll(productRepository.findAll())));
+        measure("stateless session", () -> productService.getProducts());
+    }
+
+    private List<ProductVO> mapAll(Iterable<Product> products) {
+        List<ProductVO> productVOs = new ArrayList<>();
+        products.forEach(product -> productVOs.add(productMapper.toVO(product)));
+        return productVOs;
+    }
+
+    private void measure(String readPath, Supplier<List<ProductVO>> read) {
+        read.get();
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            read.get();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long allocatedMegabytes = (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / ITERATIONS / (1024 * 1024);
+        System.out.println(readPath + ": " + allocatedMegabytes + " MB allocated per listing of " + PRODUCTS + " products, "
+                + elapsedMillis / ITERATIONS + " ms per listing, "
+                + (gcCount() - gcCountBefore) + " GCs taking " + (gcTime() - gcTimeBefore) + " ms");
+    }
+
+    private long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += garbageCollector.getCollectionCount();
+        }
+        return count;
+    }
+
+    private long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += garbageCollector.getCollectionTime();
+        }
+        return time;
+    }
+}
@@ -0,0 +1,58 @@
+package com.practice.onlineShop.benchmarks;
+
+import com.practice.onlineShop.OnlineShopApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup time of the application with a catalog in a file based H2 database: the in-memory indexes
+ * loaded from the database, then from the warm start snapshot written on the previous shutdown.
+ * Run with: mvn test -Dbenchmark=true -Dtest=WarmStartBenchmark
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class WarmStartBenchmark {
+    private static final int PRODUCTS = 200_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void compareColdAndWarmStart() {
+        try (ConfigurableApplicationContext context = start(false)) {
+            List<Object[]> products = new ArrayList<>();
+            for (int i = 0; i < PRODUCTS; i++) {
+                products.add(new Object[]{"SKU-" + i, "Produs de test numarul " + i % 1000, 10 + i % 1000, i % 50, i % 10 != 0, "RON"});
+            }
+            context.getBean(JdbcTemplate.class).batchUpdate(
+                    "insert into product (code, description, price, stock, valid, currency, version) values (?, ?, ?, ?, ?, ?, 0)", products);
+        }
+
+        long coldStart = System.nanoTime();
+        start(true).close();
+        System.out.println("Start loading " + PRODUCTS + " products from the database: " + (System.nanoTime() - coldStart) / 1_000_000 + " ms");
+
+        long warmStart = System.nanoTime();
+        start(true).close();
+        System.out.println("Start loading " + PRODUCTS + " products from the snapshot: " + (System.nanoTime() - warmStart) / 1_000_000 + " ms");
+    }
+
+    private ConfigurableApplicationContext start(boolean snapshotEnabled) {
+        return new SpringApplicationBuilder(OnlineShopApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:file:" + directory.resolve("onlineShop"),
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "spring.sql.init.mode=never",
+                        "shop.snapshot.enabled=" + snapshotEnabled,
+                        "shop.snapshot.path=" + directory.resolve("onlineShop.snapshot"))
+                .run();
+    }
+}
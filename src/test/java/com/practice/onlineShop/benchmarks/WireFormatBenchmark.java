@@ -0,0 +1,73 @@
+package com.practice.onlineShop.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.vos.OrderVO;
+import com.practice.onlineShop.vos.ProductVO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Size and throughput of JSON against CBOR for the catalog listing and an order.
+ * Run with: mvn test -Dbenchmark=true -Dtest=WireFormatBenchmark
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class WireFormatBenchmark {
+    private static final int PRODUCTS = 10_000;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    public void compareJsonAndCbor() throws Exception {
+        ProductVO[] products = new ProductVO[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductVO productVO = new ProductVO();
+            productVO.setId(i);
+            productVO.setCode("SKU-" + i);
+            productVO.setDescription("Produs de test numarul " + i + " cu o descriere de lungime medie");
+            productVO.setPrice(10 + i % 1000);
+            productVO.setStock(i % 50);
+            productVO.setValid(i % 10 != 0);
+            productVO.setCurrency(Currencies.values()[i % 3]);
+            products[i] = productVO;
+        }
+        OrderVO orderVO = new OrderVO();
+        orderVO.setUserId(2);
+        Map<Integer, Integer> productsIdsToQuantity = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            productsIdsToQuantity.put(i, i + 1);
+        }
+        orderVO.setProductsIdsToQuantity(productsIdsToQuantity);
+
+        run("json", Jackson2ObjectMapperBuilder.json().build(), products, orderVO);
+        run("cbor", Jackson2ObjectMapperBuilder.cbor().build(), products, orderVO);
+    }
+
+    private void run(String format, ObjectMapper objectMapper, ProductVO[] products, OrderVO orderVO) throws Exception {
+        byte[] catalog = objectMapper.writeValueAsBytes(products);
+        byte[] order = objectMapper.writeValueAsBytes(orderVO);
+        for (int i = 0; i < ITERATIONS; i++) {
+            objectMapper.writeValueAsBytes(products);
+            objectMapper.readValue(order, OrderVO.class);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            objectMapper.writeValueAsBytes(products);
+        }
+        long encodeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS * 1000; i++) {
+            objectMapper.readValue(order, OrderVO.class);
+        }
+        long decodeNanos = System.nanoTime() - start;
+
+        System.out.println(format + ": catalog of " + PRODUCTS + " products = " + catalog.length + " bytes, "
+                + "encoded in " + encodeNanos / ITERATIONS / 1_000 + " us; "
+                + "order = " + order.length + " bytes, decoded in " + decodeNanos / (ITERATIONS * 1000) + " ns");
+    }
+}
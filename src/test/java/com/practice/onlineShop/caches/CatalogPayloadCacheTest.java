@@ -0,0 +1,168 @@
+package com.practice.onlineShop.caches;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.services.ProductService;
+import com.practice.onlineShop.vos.ProductVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CatalogPayloadCacheTest {
+    private static final int READERS = 4;
+
+    private final ProductService productService = mock(ProductService.class);
+    private final ConvertedPriceTable convertedPriceTable = mock(ConvertedPriceTable.class);
+    private final AtomicReference<List<ProductVO>> catalog = new AtomicReference<>(Collections.singletonList(productVO("firstCode")));
+    private CatalogPayloadCache catalogPayloadCache;
+
+    @AfterEach
+    public void shutdown() {
+        if (catalogPayloadCache != null) {
+            catalogPayloadCache.shutdown();
+        }
+    }
+
+    @Test
+    public void getPayload_whenTheCatalogDidNotChange_shouldRenderItOnce() throws Exception {
+        when(productService.getProducts()).thenAnswer(invocation -> catalog.get());
+        catalogPayloadCache = catalogPayloadCache();
+
+        CatalogPayload first = catalogPayloadCache.getPayload(null);
+        CatalogPayload second = catalogPayloadCache.getPayload(null);
+
+        assertThat(second).isSameAs(first);
+        verify(productService, times(1)).getProducts();
+        assertThat(new String(first.getJson(), StandardCharsets.UTF_8)).contains("firstCode");
+        assertThat(gunzip(first.getGzippedJson())).isEqualTo(new String(first.getJson(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void getPayload_whileTheRebuildRuns_shouldServeThePreviousCatalog() throws Exception {
+        CountDownLatch rebuildStarted = new CountDownLatch(1);
+        CountDownLatch releaseRebuild = new CountDownLatch(1);
+        when(productService.getProducts())
+                .thenAnswer(invocation -> catalog.get())
+                .thenAnswer(invocation -> {
+                    rebuildStarted.countDown();
+                    releaseRebuild.await(10, TimeUnit.SECONDS);
+                    return catalog.get();
+                });
+        catalogPayloadCache = catalogPayloadCache();
+        CatalogPayload previous = catalogPayloadCache.getPayload(null);
+
+        catalog.set(Collections.singletonList(productVO("secondCode")));
+        catalogPayloadCache.onProductSaved(new Product());
+        assertThat(rebuildStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(catalogPayloadCache.getPayload(null)).isSameAs(previous);
+        releaseRebuild.countDown();
+        assertThat(awaitNewerThan(previous)).contains("secondCode");
+    }
+
+    @Test
+    public void getPayload_whenReadersFindNoPayloadYet_shouldRenderTheCatalogOnceForAllOfThem() throws Exception {
+        CountDownLatch renderStarted = new CountDownLatch(1);
+        CountDownLatch releaseRender = new CountDownLatch(1);
+        when(productService.getProducts()).thenAnswer(invocation -> {
+            renderStarted.countDown();
+            releaseRender.await(10, TimeUnit.SECONDS);
+            return catalog.get();
+        });
+        catalogPayloadCache = catalogPayloadCache();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<CatalogPayload>> readers = new ArrayList<>();
+            for (int reader = 0; reader < READERS; reader++) {
+                readers.add(executorService.submit(() -> catalogPayloadCache.getPayload(null)));
+            }
+            assertThat(renderStarted.await(10, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(100);
+            releaseRender.countDown();
+
+            CatalogPayload first = readers.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<CatalogPayload> reader : readers) {
+                assertThat(reader.get(10, TimeUnit.SECONDS)).isSameAs(first);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        verify(productService, times(1)).getProducts();
+    }
+
+    @Test
+    public void getPayload_whenACurrencyIsRequested_shouldConvertEveryProduct() throws Exception {
+        when(productService.getProducts()).thenAnswer(invocation -> catalog.get());
+        when(convertedPriceTable.convert(any(ProductVO.class), eq(Currencies.EUR))).thenAnswer(invocation -> {
+            ProductVO converted = productVO(((ProductVO) invocation.getArgument(0)).getCode());
+            converted.setPrice(20);
+            converted.setCurrency(Currencies.EUR);
+            return converted;
+        });
+        catalogPayloadCache = catalogPayloadCache();
+
+        String json = new String(catalogPayloadCache.getPayload(Currencies.EUR).getJson(), StandardCharsets.UTF_8);
+
+        assertThat(json).contains("\"currency\":\"EUR\"").contains("\"price\":20.0");
+        assertThat(new String(catalogPayloadCache.getPayload(null).getJson(), StandardCharsets.UTF_8)).contains("\"currency\":\"RON\"");
+    }
+
+    private String awaitNewerThan(CatalogPayload previous) throws Exception {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            CatalogPayload payload = catalogPayloadCache.getPayload(null);
+            if (payload.getVersion() > previous.getVersion()) {
+                return new String(payload.getJson(), StandardCharsets.UTF_8);
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("The catalog payload was not rebuilt");
+    }
+
+    private CatalogPayloadCache catalogPayloadCache() {
+        return new CatalogPayloadCache(productService, convertedPriceTable, new ObjectMapper(),
+                new MappingJackson2CborHttpMessageConverter());
+    }
+
+    private String gunzip(byte[] gzipped) throws Exception {
+        try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            byte[] buffer = new byte[gzipped.length * 20 + 1024];
+            int length = 0;
+            int read;
+            while ((read = gzipInputStream.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+            }
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static ProductVO productVO(String code) {
+        ProductVO productVO = new ProductVO();
+        productVO.setCode(code);
+        productVO.setPrice(100);
+        productVO.setCurrency(Currencies.RON);
+        productVO.setStock(1);
+        productVO.setValid(true);
+        return productVO;
+    }
+}
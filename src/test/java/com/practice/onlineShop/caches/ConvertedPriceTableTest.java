@@ -0,0 +1,89 @@
+package com.practice.onlineShop.caches;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.rates.ExchangeRates;
+import com.practice.onlineShop.rates.ExchangeRatesChangedEvent;
+import com.practice.onlineShop.vos.ProductVO;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConvertedPriceTableTest {
+    private final List<Object> publishedEvents = new ArrayList<>();
+    private String rates;
+
+    @Test
+    public void convert_shouldReturnACopyWithThePriceInTheRequestedCurrency() throws Exception {
+        ConvertedPriceTable convertedPriceTable = new ConvertedPriceTable(exchangeRates(1, "RON=1\nEUR=5\nUSD=4"));
+        convertedPriceTable.onProductSaved(product(1, 100, Currencies.RON));
+        ProductVO productVO = productVO(1, 100, Currencies.RON);
+
+        ProductVO convertedProductVO = convertedPriceTable.convert(productVO, Currencies.EUR);
+
+        assertThat(convertedProductVO.getPrice()).isEqualTo(20);
+        assertThat(convertedProductVO.getCurrency()).isEqualTo(Currencies.EUR);
+        assertThat(convertedProductVO.getCode()).isEqualTo("code1");
+        assertThat(productVO.getPrice()).isEqualTo(100);
+        assertThat(convertedPriceTable.convert(productVO, null)).isSameAs(productVO);
+    }
+
+    @Test
+    public void convert_whenTheRatesChange_shouldUseTheNewRates() throws Exception {
+        ExchangeRates exchangeRates = exchangeRates(1, "RON=1\nEUR=5\nUSD=4");
+        ConvertedPriceTable convertedPriceTable = new ConvertedPriceTable(exchangeRates);
+        convertedPriceTable.onProductSaved(product(1, 100, Currencies.RON));
+
+        rates = "version=2\nRON=1\nEUR=4\nUSD=4";
+        exchangeRates.reload();
+        publishedEvents.forEach(event -> convertedPriceTable.onExchangeRatesChanged((ExchangeRatesChangedEvent) event));
+
+        assertThat(publishedEvents).hasSize(1);
+        assertThat(convertedPriceTable.convert(productVO(1, 100, Currencies.RON), Currencies.EUR).getPrice()).isEqualTo(25);
+    }
+
+    @Test
+    public void convert_whenThePriceIsNotInTheTableYet_shouldConvertItOnTheSpot() throws Exception {
+        ConvertedPriceTable convertedPriceTable = new ConvertedPriceTable(exchangeRates(1, "RON=1\nEUR=5\nUSD=4"));
+        convertedPriceTable.onProductSaved(product(1, 100, Currencies.RON));
+
+        assertThat(convertedPriceTable.convert(productVO(1, 50, Currencies.RON), Currencies.EUR).getPrice()).isEqualTo(10);
+        assertThat(convertedPriceTable.convert(productVO(2, 8, Currencies.USD), Currencies.RON).getPrice()).isEqualTo(32);
+    }
+
+    private ExchangeRates exchangeRates(long version, String values) throws Exception {
+        rates = "version=" + version + "\n" + values;
+        ExchangeRates exchangeRates = new ExchangeRates(new ByteArrayResource(new byte[0]) {
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(rates.getBytes(StandardCharsets.UTF_8));
+            }
+        }, publishedEvents::add);
+        exchangeRates.load();
+        return exchangeRates;
+    }
+
+    private Product product(long id, double price, Currencies currency) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(price);
+        product.setCurrency(currency);
+        return product;
+    }
+
+    private ProductVO productVO(long id, double price, Currencies currency) {
+        ProductVO productVO = new ProductVO();
+        productVO.setId(id);
+        productVO.setCode("code" + id);
+        productVO.setPrice(price);
+        productVO.setCurrency(currency);
+        return productVO;
+    }
+}
@@ -0,0 +1,61 @@
+package com.practice.onlineShop.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    @Test
+    public void execute_whenCallsForTheSameKeyOverlap_shouldRunTheCallOnce() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executorService.submit(() -> {
+                try {
+                    return singleFlight.execute("aCode", () -> {
+                        executions.incrementAndGet();
+                        release.await();
+                        return "aProduct";
+                    });
+                } catch (Throwable throwable) {
+                    throw new IllegalStateException(throwable);
+                }
+            }));
+        }
+        while (singleFlight.getCoalescedCalls() < 3) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("aProduct");
+        }
+        assertThat(executions.get()).isEqualTo(1);
+        executorService.shutdown();
+    }
+
+    @Test
+    public void execute_whenTheCallFails_shouldRethrowTheOriginalException() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        try {
+            singleFlight.execute("aCode", () -> {
+                throw new IllegalArgumentException("bad code");
+            });
+        } catch (Throwable throwable) {
+            assertThat(throwable).isInstanceOf(IllegalArgumentException.class);
+            return;
+        }
+        assert false;
+    }
+}
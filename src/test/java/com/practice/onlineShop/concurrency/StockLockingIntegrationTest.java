@@ -0,0 +1,66 @@
+package com.practice.onlineShop.concurrency;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.entities.User;
+import com.practice.onlineShop.enums.Roles;
+import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.services.ProductService;
+import com.practice.onlineShop.utils.UtilsComponent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stockLockingTest",
+        "shop.stock.optimistic.max-attempts=50"
+})
+class StockLockingIntegrationTest {
+    private static final int WRITERS = 4;
+    private static final int ADDS_PER_WRITER = 5;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UtilsComponent utilsComponent;
+
+    @Test
+    public void addStock_whenWritersRaceOnTheSameProduct_shouldRetryTheConflictsAndKeepEveryAddition() throws Exception {
+        User admin = utilsComponent.saveUserWithRole(Roles.ADMIN);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForStockRace", "code2ForStockRace");
+
+        ExecutorService executorService = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            writers.add(executorService.submit(() -> {
+                start.await();
+                for (int add = 0; add < ADDS_PER_WRITER; add++) {
+                    productService.addStock(product.getCode(), 1, admin.getId());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        Product productFromDb = productRepository.findById(product.getId()).get();
+        assertThat(productFromDb.getStock()).isEqualTo(product.getStock() + WRITERS * ADDS_PER_WRITER);
+        assertThat(productFromDb.getVersion()).isGreaterThanOrEqualTo(WRITERS * ADDS_PER_WRITER);
+    }
+}
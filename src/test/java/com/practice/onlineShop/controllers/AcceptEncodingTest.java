@@ -0,0 +1,25 @@
+package com.practice.onlineShop.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcceptEncodingTest {
+
+    @Test
+    public void acceptsGzip_whenGzipIsListed_shouldAcceptItUnlessItsQualityIsZero() {
+        assertThat(AcceptEncoding.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(AcceptEncoding.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(AcceptEncoding.acceptsGzip("gzip;q=0, deflate")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("gzip; q=0.0")).isFalse();
+    }
+
+    @Test
+    public void acceptsGzip_whenOnlyAWildcardIsListed_shouldFollowTheWildcard() {
+        assertThat(AcceptEncoding.acceptsGzip("*")).isTrue();
+        assertThat(AcceptEncoding.acceptsGzip("*;q=0")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("identity")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip(null)).isFalse();
+    }
+}
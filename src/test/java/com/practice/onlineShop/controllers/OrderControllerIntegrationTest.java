@@ -4,9 +4,12 @@ import com.practice.onlineShop.entities.OrderItem;
 import com.practice.onlineShop.entities.Orders;
 import com.practice.onlineShop.entities.Product;
 import com.practice.onlineShop.entities.User;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.enums.OrderStatuses;
 import com.practice.onlineShop.enums.Roles;
 import com.practice.onlineShop.repositories.OrderRepository;
 import com.practice.onlineShop.utils.UtilsComponent;
+import com.practice.onlineShop.vos.OrderSummaryVO;
 import com.practice.onlineShop.vos.OrderVO;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,11 +26,14 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Instant;
 import java.util.*;
 
 import static com.practice.onlineShop.utils.UtilsComponent.LOCALHOST;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.OK;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class OrderControllerIntegrationTest {
@@ -286,6 +292,51 @@ class OrderControllerIntegrationTest {
         assertThat(orderFromDb.getOrderItems().get(0).getProduct().getStock()).isEqualTo(product.getStock() + orderWithProducts.getOrderItems().get(0).getQuantity());
     }
 
+    @Test
+    public void return_whenOrderWasAlreadyReturned_shouldAddTheStockBackOnce(){
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("productForReturnTwice1", "productForReturnTwice2");
+        Orders orderWithProducts = utilsComponent.saveDeliveredOrder(client, product);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            restTemplateForPatch.exchange(LOCALHOST + port + "/order/return/" + orderWithProducts.getId() + "/" + client.getId(),
+                    HttpMethod.PATCH, HttpEntity.EMPTY, Void.class);
+        }
+
+        assertThat(utilsComponent.getStock(product.getCode())).isEqualTo(product.getStock() + orderWithProducts.getOrderItems().get(0).getQuantity());
+    }
+
+    @Test
+    public void return_whenOrderWasArchived_shouldMoveItBackAndReturnIt(){
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("productForArchivedReturn1", "productForArchivedReturn2");
+        Orders orderWithProducts = utilsComponent.saveDeliveredOrder(client, product);
+        utilsComponent.archiveOrders(orderWithProducts);
+        assertThat(orderRepository.findById(orderWithProducts.getId())).isNotPresent();
+
+        restTemplateForPatch.exchange(LOCALHOST + port + "/order/return/" + orderWithProducts.getId() + "/" + client.getId(),
+                HttpMethod.PATCH, HttpEntity.EMPTY, Void.class);
+
+        Optional<Orders> orderFromDb = orderRepository.findById(orderWithProducts.getId());
+        assertThat(orderFromDb).isPresent();
+        assertThat(orderFromDb.get().isReturned()).isTrue();
+    }
+
+    @Test
+    public void cancel_whenArchivedOrderWasDelivered_shouldLeaveItArchived(){
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("productForArchivedCancel1", "productForArchivedCancel2");
+        Orders orderWithProducts = utilsComponent.saveDeliveredOrder(client, product);
+        utilsComponent.archiveOrders(orderWithProducts);
+
+        assertThatThrownBy(() -> restTemplateForPatch.exchange(LOCALHOST + port + "/order/cancel/" + orderWithProducts.getId() + "/" + client.getId(),
+                HttpMethod.PATCH, HttpEntity.EMPTY, Void.class))
+                .isInstanceOf(RestClientException.class)
+                .hasMessage("400 : [Comanda a fost deja expediata!]");
+
+        assertThat(orderRepository.findById(orderWithProducts.getId())).isNotPresent();
+    }
+
     @Test
     public void return_whenOrderIsNotDelivered_shouldThrowException(){
         User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
@@ -346,6 +397,179 @@ class OrderControllerIntegrationTest {
         }
     }
 
+    @Test
+    public void exportOrders_whenRequestIsMadeByAdmin_shouldStreamTheOrderLinesInTheRange(){
+        User admin = utilsComponent.saveUserWithRole(Roles.ADMIN);
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForExport", "code2ForExport");
+        Orders order = utilsComponent.saveDeliveredOrder(client, product);
+
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(LOCALHOST + port + "/order/export/" + admin.getId() +
+                "?fromOrderId=" + order.getId() + "&toOrderId=" + order.getId(), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+        String[] lines = responseEntity.getBody().split("\n");
+        assertThat(lines.length).isEqualTo(2);
+        assertThat(lines[0]).isEqualTo("order_id,user_id,username,delivered,returned,canceled,created_at,item_id,product_id,product_code,quantity,price,currency");
+        assertThat(lines[1]).startsWith(order.getId() + "," + client.getId() + ",,true,false,false,");
+        assertThat(lines[1]).endsWith("," + product.getId() + ",code1ForExport,1,100.0,RON");
+    }
+
+    @Test
+    public void exportOrders_whenOrdersWereArchived_shouldStillStreamThem(){
+        User admin = utilsComponent.saveUserWithRole(Roles.ADMIN);
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForArchivedExport", "code2ForArchivedExport");
+        Orders order = utilsComponent.saveCanceledAndDeliveredOrder(client, product);
+        utilsComponent.archiveOrders(order);
+
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(LOCALHOST + port + "/order/export/" + admin.getId() +
+                "?fromOrderId=" + order.getId() + "&toOrderId=" + order.getId(), String.class);
+
+        assertThat(orderRepository.findById(order.getId())).isNotPresent();
+        String[] lines = responseEntity.getBody().split("\n");
+        assertThat(lines.length).isEqualTo(2);
+        assertThat(lines[1]).startsWith(order.getId() + "," + client.getId() + ",,true,false,true,");
+    }
+
+    @Test
+    public void exportOrders_whenSomeOrdersWereArchived_shouldStreamTheArchivedOnesFirst(){
+        User admin = utilsComponent.saveUserWithRole(Roles.ADMIN);
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForMixedExport", "code2ForMixedExport");
+        Orders liveOrder = utilsComponent.saveDeliveredOrder(client, product);
+        Orders archivedOrder = utilsComponent.saveCanceledAndDeliveredOrder(client, product);
+        utilsComponent.archiveOrders(archivedOrder);
+
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(LOCALHOST + port + "/order/export/" + admin.getId() +
+                "?fromOrderId=" + liveOrder.getId() + "&toOrderId=" + archivedOrder.getId(), String.class);
+
+        String[] lines = responseEntity.getBody().split("\n");
+        assertThat(lines.length).isEqualTo(3);
+        assertThat(lines[1]).startsWith(archivedOrder.getId() + ",");
+        assertThat(lines[2]).startsWith(liveOrder.getId() + ",");
+    }
+
+    @Test
+    public void exportOrders_whenADateRangeIsGiven_shouldOnlyStreamTheOrdersCreatedInIt(){
+        User admin = utilsComponent.saveUserWithRole(Roles.ADMIN);
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForDatedExport", "code2ForDatedExport");
+        Instant beforeOrder = Instant.now().minusSeconds(1);
+        testRestTemplate.postForEntity(LOCALHOST + port + "/order", createOrderVo(client, product), Void.class);
+        Instant afterOrder = Instant.now().plusSeconds(1);
+
+        ResponseEntity<String> inRange = testRestTemplate.getForEntity(LOCALHOST + port + "/order/export/" + admin.getId() +
+                "?fromDate=" + beforeOrder + "&toDate=" + afterOrder, String.class);
+        ResponseEntity<String> afterRange = testRestTemplate.getForEntity(LOCALHOST + port + "/order/export/" + admin.getId() +
+                "?fromDate=" + afterOrder, String.class);
+
+        assertThat(inRange.getBody()).contains(",code1ForDatedExport,1,100.0,RON");
+        assertThat(afterRange.getBody().split("\n").length).isEqualTo(1);
+    }
+
+    @Test
+    public void exportOrders_whenNdjsonIsRequested_shouldWriteOneJsonObjectPerLine(){
+        User admin = utilsComponent.saveUserWithRole(Roles.ADMIN);
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForNdjsonExport", "code2ForNdjsonExport");
+        Orders order = utilsComponent.saveOrder(client, product);
+
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(LOCALHOST + port + "/order/export/" + admin.getId() +
+                "?format=NDJSON&fromOrderId=" + order.getId() + "&toOrderId=" + order.getId(), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+        assertThat(responseEntity.getBody()).startsWith("{\"orderId\":" + order.getId() + ",");
+        assertThat(responseEntity.getBody()).contains("\"productCode\":\"code1ForNdjsonExport\"");
+        assertThat(responseEntity.getBody()).endsWith("}\n");
+    }
+
+    @Test
+    public void exportOrders_whenRequestIsMadeByClient_shouldThrowAnException(){
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(LOCALHOST + port + "/order/export/" + client.getId(), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(BAD_REQUEST);
+        assertThat(responseEntity.getBody()).isEqualTo("Utilizatorul nu are permisiunea de a executa aceasta operatiune!");
+    }
+
+    @Test
+    public void getOrder_whenOrderIsPlacedAndCanceled_shouldReadItsSummary(){
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForSummary", "code2ForSummary");
+
+        testRestTemplate.postForEntity(LOCALHOST + port + "/order", createOrderVo(client, product), Void.class);
+        OrderSummaryVO[] orderSummaries = testRestTemplate.getForObject(LOCALHOST + port + "/order/user/" + client.getId(), OrderSummaryVO[].class);
+
+        assertThat(orderSummaries.length).isEqualTo(1);
+        assertThat(orderSummaries[0].getStatus()).isEqualTo(OrderStatuses.PLACED);
+        assertThat(orderSummaries[0].getLineCount()).isEqualTo(1);
+        assertThat(orderSummaries[0].getTotalQuantity()).isEqualTo(1);
+        assertThat(orderSummaries[0].getTotals().get(Currencies.RON)).isEqualTo(100.0);
+
+        long orderId = orderSummaries[0].getOrderId();
+        restTemplateForPatch.exchange(LOCALHOST + port + "/order/cancel/" + orderId + "/" + client.getId(),
+                HttpMethod.PATCH, HttpEntity.EMPTY, Void.class);
+        OrderSummaryVO orderSummary = testRestTemplate.getForObject(LOCALHOST + port + "/order/" + orderId + "/" + client.getId(), OrderSummaryVO.class);
+
+        assertThat(orderSummary.getStatus()).isEqualTo(OrderStatuses.CANCELED);
+        assertThat(orderSummary.getUserId()).isEqualTo(client.getId());
+    }
+
+    @Test
+    public void getOrder_whenOrderBelongsToAnotherUser_shouldThrowAnException(){
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        User anotherClient = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForForeignSummary", "code2ForForeignSummary");
+
+        testRestTemplate.postForEntity(LOCALHOST + port + "/order", createOrderVo(client, product), Void.class);
+        OrderSummaryVO[] orderSummaries = testRestTemplate.getForObject(LOCALHOST + port + "/order/user/" + client.getId(), OrderSummaryVO[].class);
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(LOCALHOST + port + "/order/" +
+                orderSummaries[0].getOrderId() + "/" + anotherClient.getId(), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(BAD_REQUEST);
+        assertThat(responseEntity.getBody()).isEqualTo("Id-ul comenzii nu este valid!");
+    }
+
+    @Test
+    public void getOrders_whenOrdersWereArchivedAndSummariesRebuilt_shouldStillListThem(){
+        User admin = utilsComponent.saveUserWithRole(Roles.ADMIN);
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForArchivedSummary", "code2ForArchivedSummary");
+        Orders order = utilsComponent.saveCanceledAndDeliveredOrder(client, product);
+        utilsComponent.archiveOrders(order);
+
+        testRestTemplate.postForEntity(LOCALHOST + port + "/order/summaries/rebuild/" + admin.getId(), null, Integer.class);
+        OrderSummaryVO[] orderSummaries = testRestTemplate.getForObject(LOCALHOST + port + "/order/user/" + client.getId(), OrderSummaryVO[].class);
+
+        assertThat(orderRepository.findById(order.getId())).isNotPresent();
+        assertThat(orderSummaries.length).isEqualTo(1);
+        assertThat(orderSummaries[0].getOrderId()).isEqualTo(order.getId());
+        assertThat(orderSummaries[0].getStatus()).isEqualTo(OrderStatuses.CANCELED);
+        assertThat(orderSummaries[0].getTotalQuantity()).isEqualTo(order.getOrderItems().get(0).getQuantity());
+    }
+
+    @Test
+    public void rebuildOrderSummaries_whenASummaryIsWrong_shouldComputeItAgainAtThePlacementPrices(){
+        User admin = utilsComponent.saveUserWithRole(Roles.ADMIN);
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForRebuiltSummary", "code2ForRebuiltSummary");
+        testRestTemplate.postForEntity(LOCALHOST + port + "/order", createOrderVo(client, product), Void.class);
+        long orderId = testRestTemplate.getForObject(LOCALHOST + port + "/order/user/" + client.getId(), OrderSummaryVO[].class)[0].getOrderId();
+        utilsComponent.changePrice(product.getCode(), 250L);
+        utilsComponent.corruptOrderSummary(orderId);
+
+        testRestTemplate.postForEntity(LOCALHOST + port + "/order/summaries/rebuild/" + admin.getId(), null, Integer.class);
+        OrderSummaryVO[] orderSummaries = testRestTemplate.getForObject(LOCALHOST + port + "/order/user/" + client.getId(), OrderSummaryVO[].class);
+
+        assertThat(orderSummaries.length).isEqualTo(1);
+        assertThat(orderSummaries[0].getStatus()).isEqualTo(OrderStatuses.PLACED);
+        assertThat(orderSummaries[0].getLineCount()).isEqualTo(1);
+        assertThat(orderSummaries[0].getTotalQuantity()).isEqualTo(1);
+        assertThat(orderSummaries[0].getTotals().get(Currencies.RON)).isEqualTo(100.0);
+    }
+
     private OrderVO createOrderVo(User user, Product product) {
         OrderVO orderVO = new OrderVO();
         orderVO.setUserId((int) user.getId());
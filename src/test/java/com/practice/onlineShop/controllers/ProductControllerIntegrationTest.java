@@ -7,6 +7,9 @@ import com.practice.onlineShop.enums.Currencies;
 import com.practice.onlineShop.enums.Roles;
 import com.practice.onlineShop.repositories.ProductRepository;
 import com.practice.onlineShop.repositories.UserRepository;
+import com.practice.onlineShop.vos.ProductBatchVO;
+import com.practice.onlineShop.vos.ProductFacetsResultVO;
+import com.practice.onlineShop.vos.ProductSearchResultVO;
 import com.practice.onlineShop.vos.ProductVO;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,21 +19,27 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import com.practice.onlineShop.utils.UtilsComponent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
 
 import static com.practice.onlineShop.utils.UtilsComponent.LOCALHOST;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// its own database: the tests count the products of the catalog listing
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:productControllerTest")
 class ProductControllerIntegrationTest {
 
     @TestConfiguration
@@ -144,6 +153,17 @@ class ProductControllerIntegrationTest {
         assertThat(productResponse.getCode()).isEqualTo(product.getCode());
     }
 
+    @Test
+    public void getProductByCode_whenCurrencyIsRequested_shouldReturnThePriceInThatCurrency() {
+        Product product = utilsComponent.storeTwoProductsInDatabase("aConvertedCode", "anotherConvertedCode");
+
+        ProductVO productResponse = testRestTemplate.getForObject(LOCALHOST + port + "/product/" + product.getCode() + "?currency=EUR", ProductVO.class);
+
+        assertThat(productResponse.getCurrency()).isEqualTo(Currencies.EUR);
+        assertThat(productResponse.getPrice()).isEqualTo(20.12);
+        deleteProducts("aConvertedCode", "anotherConvertedCode");
+    }
+
     @Test
     public void getProductByCode_whenProductCodeIsNotPreset_shouldReturnErrorMessage() {
         String response = testRestTemplate.getForObject(LOCALHOST + port + "/product/12321", String.class);
@@ -152,10 +172,10 @@ class ProductControllerIntegrationTest {
     }
 
     @Test
-    public void getProducts(){
+    public void getProducts() throws InterruptedException {
         productRepository.deleteAll();
         utilsComponent.storeTwoProductsInDatabase("aWonderfulCode500", "anotherCode500");
-        ProductVO[] products = testRestTemplate.getForObject(LOCALHOST + port + "/product", ProductVO[].class);
+        ProductVO[] products = awaitCatalogWith(new HttpHeaders(), "aWonderfulCode500", "anotherCode500").getBody();
 
         assertThat(products).hasSize(2);
         assertThat(products[0].getCode()).contains("aWonderfulCode500");
@@ -163,6 +183,108 @@ class ProductControllerIntegrationTest {
 
     }
 
+    @Test
+    public void getProductByCode_whenCborIsAccepted_shouldReturnTheProductAsCbor() {
+        Product product = utilsComponent.storeTwoProductsInDatabase("aCborCode", "anotherCborCode");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_CBOR));
+
+        ResponseEntity<ProductVO> response = testRestTemplate.exchange(LOCALHOST + port + "/product/" + product.getCode(),
+                HttpMethod.GET, new HttpEntity<>(headers), ProductVO.class);
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(response.getBody().getCode()).isEqualTo(product.getCode());
+        deleteProducts("aCborCode", "anotherCborCode");
+    }
+
+    @Test
+    public void getProducts_whenCborIsAccepted_shouldReturnTheCatalogAsCbor() throws InterruptedException {
+        utilsComponent.storeTwoProductsInDatabase("aCborCatalogCode", "anotherCborCatalogCode");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_CBOR));
+
+        ResponseEntity<ProductVO[]> response = awaitCatalogWith(headers, "aCborCatalogCode", "anotherCborCatalogCode");
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(response.getBody()).extracting(ProductVO::getCode).contains("aCborCatalogCode", "anotherCborCatalogCode");
+        deleteProducts("aCborCatalogCode", "anotherCborCatalogCode");
+    }
+
+    @Test
+    public void getProductsByCodes_shouldReturnTheFoundProductsAndTheMissingCodes() {
+        utilsComponent.storeTwoProductsInDatabase("aMultiGetCode", "anotherMultiGetCode");
+
+        ProductBatchVO response = testRestTemplate.getForObject(LOCALHOST + port + "/product?codes=aMissingMultiGetCode,aMultiGetCode,anotherMissingMultiGetCode,anotherMultiGetCode", ProductBatchVO.class);
+
+        assertThat(response.getProducts()).extracting(ProductVO::getCode).containsExactly("aMultiGetCode", "anotherMultiGetCode");
+        assertThat(response.getMissingKeys()).containsExactly("aMissingMultiGetCode", "anotherMissingMultiGetCode");
+        deleteProducts("aMultiGetCode", "anotherMultiGetCode");
+    }
+
+    @Test
+    public void getProductsByCodes_whenFieldsAreAlsoRequested_shouldReturnBadRequest() {
+        ResponseEntity<String> response = testRestTemplate.getForEntity(LOCALHOST + port + "/product?codes=aCode&fields=code", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("Parametrii cererii nu pot fi folositi impreuna!");
+    }
+
+    @Test
+    public void getProducts_whenSearchAndAutocompleteAreCombined_shouldReturnBadRequest() {
+        for (String query : Arrays.asList("q=aWord&prefix=aCode", "prefix=aCode&codes=aCode", "ids=1&q=aWord", "fields=code&prefix=aCode")) {
+            ResponseEntity<String> response = testRestTemplate.getForEntity(LOCALHOST + port + "/product?" + query, String.class);
+
+            assertThat(response.getStatusCode()).as(query).isEqualTo(BAD_REQUEST);
+            assertThat(response.getBody()).isEqualTo("Parametrii cererii nu pot fi folositi impreuna!");
+        }
+    }
+
+    @Test
+    public void getProductsByIds_shouldReturnTheFoundProductsAndTheMissingIds() {
+        Product product = utilsComponent.storeTwoProductsInDatabase("aMultiGetCodeById", "anotherMultiGetCodeById");
+
+        ProductBatchVO response = testRestTemplate.getForObject(LOCALHOST + port + "/product?ids=" + product.getId() + ",987654", ProductBatchVO.class);
+
+        assertThat(response.getProducts()).extracting(ProductVO::getCode).containsExactly("aMultiGetCodeById");
+        assertThat(response.getMissingKeys()).containsExactly("987654");
+        deleteProducts("aMultiGetCodeById", "anotherMultiGetCodeById");
+    }
+
+    @Test
+    public void getProductsByFacets_shouldReturnTheMatchingProductsAndTheFacetCounts() {
+        Product product = utilsComponent.generateProduct("aFilteredProduct");
+        product.setCurrency(Currencies.USD);
+        product.setPrice(123456.5);
+        productRepository.save(product);
+
+        ProductFacetsResultVO response = testRestTemplate.getForObject(LOCALHOST + port + "/product/filter?currencies=USD&minPrice=123456&maxPrice=123457", ProductFacetsResultVO.class);
+
+        assertThat(response.getProducts()).extracting(ProductVO::getCode).containsExactly("aFilteredProduct");
+        assertThat(response.getFacets().get("currency").get("USD")).isEqualTo(1);
+        deleteProducts("aFilteredProduct");
+    }
+
+    @Test
+    public void getProductCodes_shouldReturnTheCodesStartingWithThePrefix() {
+        utilsComponent.storeTwoProductsInDatabase("autocompleteCode1", "autocompleteCode2");
+
+        String[] response = testRestTemplate.getForObject(LOCALHOST + port + "/product?prefix=autocompleteCode&limit=5", String[].class);
+
+        assertThat(response).containsExactly("autocompleteCode1", "autocompleteCode2");
+    }
+
+    @Test
+    public void searchProducts_shouldFindTheProductByWordsOfTheDescriptionWithoutDiacritics() {
+        Product product = utilsComponent.generateProduct("aSearchedProduct");
+        product.setDescription("Căciulă tricotată din lână de Brașovcăutare");
+        productRepository.save(product);
+
+        ProductSearchResultVO response = testRestTemplate.getForObject(LOCALHOST + port + "/product?q=caciula brasovcautare", ProductSearchResultVO.class);
+
+        assertThat(response.getTotalHits()).isGreaterThanOrEqualTo(1);
+        assertThat(response.getProducts().get(0).getCode()).isEqualTo("aSearchedProduct");
+    }
+
     @Test
     public void updateProduct_whenUserIsEditor_shouldUpdateTheProduct() {
         Product product = utilsComponent.generateProduct("aProduct");
@@ -275,4 +397,27 @@ class ProductControllerIntegrationTest {
         assertThat(productFromDb.getStock()).isEqualTo(4);
 
     }
+
+    /**
+     * The catalog listing is rebuilt in the background after a change, the previous one is served meanwhile.
+     */
+    private ResponseEntity<ProductVO[]> awaitCatalogWith(HttpHeaders headers, String... codes) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (true) {
+            ResponseEntity<ProductVO[]> response = testRestTemplate.exchange(LOCALHOST + port + "/product",
+                    HttpMethod.GET, new HttpEntity<>(headers), ProductVO[].class);
+            Collection<String> listedCodes = new ArrayList<>();
+            for (ProductVO product : response.getBody()) {
+                listedCodes.add(product.getCode());
+            }
+            if (listedCodes.containsAll(Arrays.asList(codes)) || System.currentTimeMillis() > deadline) {
+                return response;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private void deleteProducts(String... codes) {
+        productRepository.deleteAll(productRepository.findByCodeIn(Arrays.asList(codes)));
+    }
 }
\ No newline at end of file
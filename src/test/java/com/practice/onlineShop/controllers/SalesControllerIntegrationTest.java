@@ -0,0 +1,155 @@
+package com.practice.onlineShop.controllers;
+
+import com.practice.onlineShop.entities.Orders;
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.entities.User;
+import com.practice.onlineShop.enums.Roles;
+import com.practice.onlineShop.repositories.OrderRepository;
+import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.repositories.ProductSalesRepository;
+import com.practice.onlineShop.sales.SalesCounters;
+import com.practice.onlineShop.utils.UtilsComponent;
+import com.practice.onlineShop.vos.OrderVO;
+import com.practice.onlineShop.vos.ProductSalesVO;
+import com.practice.onlineShop.vos.SalesPointVO;
+import com.practice.onlineShop.vos.SalesSeriesVO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.practice.onlineShop.utils.UtilsComponent.LOCALHOST;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SalesControllerIntegrationTest {
+
+    @TestConfiguration
+    static class SalesControllerIntegrationTestContextConfiguration {
+        @Bean
+        public RestTemplate restTemplateForPatch() {
+            return new RestTemplate(new HttpComponentsClientHttpRequestFactory());
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private RestTemplate restTemplateForPatch;
+
+    @Autowired
+    private UtilsComponent utilsComponent;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSalesRepository productSalesRepository;
+
+    @Autowired
+    private SalesCounters salesCounters;
+
+    @Test
+    public void getProductSales_whenAnOrderIsPlaced_shouldCountItsUnitsAndRankTheProductAfterAFlush() {
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForSales", "code2ForSales");
+
+        testRestTemplate.postForEntity(LOCALHOST + port + "/order", createOrderVo(client, product), Void.class);
+
+        ProductSalesVO productSales = testRestTemplate.getForObject(LOCALHOST + port + "/sales/" + product.getId(), ProductSalesVO.class);
+        assertThat(productSales.getUnitsSold()).isEqualTo(1);
+
+        salesCounters.flush();
+
+        assertThat(productSalesRepository.findById(product.getId()).get().getUnitsSold()).isEqualTo(1);
+        ProductSalesVO[] topSellers = testRestTemplate.getForObject(LOCALHOST + port + "/sales/top?limit=100", ProductSalesVO[].class);
+        assertThat(Arrays.asList(topSellers)).contains(new ProductSalesVO(product.getId(), 1));
+    }
+
+    @Test
+    public void getProductSales_whenAnOrderIsCanceled_shouldTakeItsUnitsBack() {
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForCanceledSales", "code2ForCanceledSales");
+
+        testRestTemplate.postForEntity(LOCALHOST + port + "/order", createOrderVo(client, product), Void.class);
+        Orders order = findOrderOf(client);
+
+        restTemplateForPatch.exchange(LOCALHOST + port + "/order/cancel/" + order.getId() + "/" + client.getId(),
+                HttpMethod.PATCH, HttpEntity.EMPTY, Void.class);
+        restTemplateForPatch.exchange(LOCALHOST + port + "/order/cancel/" + order.getId() + "/" + client.getId(),
+                HttpMethod.PATCH, HttpEntity.EMPTY, Void.class);
+
+        ProductSalesVO productSales = testRestTemplate.getForObject(LOCALHOST + port + "/sales/" + product.getId(), ProductSalesVO.class);
+        assertThat(productSales.getUnitsSold()).isEqualTo(0);
+    }
+
+    @Test
+    public void getSalesSeries_whenAnOrderIsPlaced_shouldCountItInTheCurrentMinute() {
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForSalesSeries", "code2ForSalesSeries");
+
+        testRestTemplate.postForEntity(LOCALHOST + port + "/order", createOrderVo(client, product), Void.class);
+
+        SalesSeriesVO salesSeries = testRestTemplate.getForObject(LOCALHOST + port + "/sales/series?productId=" + product.getId(), SalesSeriesVO.class);
+        assertThat(salesSeries.getPoints()).hasSize(60);
+        long units = salesSeries.getPoints().stream().mapToLong(SalesPointVO::getUnits).sum();
+        double revenue = salesSeries.getPoints().stream().mapToDouble(SalesPointVO::getRevenue).sum();
+        assertThat(units).isEqualTo(1);
+        assertThat(revenue).isEqualTo(100);
+    }
+
+    @Test
+    public void getSalesSeries_whenTheProductHasNoCurrency_shouldCountItsUnitsWithoutRevenue() {
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.generateProduct("codeWithoutCurrencyForSalesSeries");
+        product.setCurrency(null);
+        productRepository.save(product);
+
+        ResponseEntity<Void> response = testRestTemplate.postForEntity(LOCALHOST + port + "/order", createOrderVo(client, product), Void.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        SalesSeriesVO salesSeries = testRestTemplate.getForObject(LOCALHOST + port + "/sales/series?productId=" + product.getId(), SalesSeriesVO.class);
+        long units = salesSeries.getPoints().stream().mapToLong(SalesPointVO::getUnits).sum();
+        double revenue = salesSeries.getPoints().stream().mapToDouble(SalesPointVO::getRevenue).sum();
+        assertThat(units).isEqualTo(1);
+        assertThat(revenue).isEqualTo(0);
+    }
+
+    private Orders findOrderOf(User user) {
+        for (Orders order : orderRepository.findAll()) {
+            if (order.getUser().getId() == user.getId()) {
+                return order;
+            }
+        }
+        throw new IllegalStateException("No order for user " + user.getId());
+    }
+
+    private OrderVO createOrderVo(User user, Product product) {
+        OrderVO orderVO = new OrderVO();
+        orderVO.setUserId((int) user.getId());
+        Map<Integer, Integer> orderMap = new HashMap<>();
+        orderMap.put((int) product.getId(), 1);
+        orderVO.setProductsIdsToQuantity(orderMap);
+        return orderVO;
+    }
+}
@@ -0,0 +1,39 @@
+package com.practice.onlineShop.indexes;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    public void mightContain_whenKeysWereAdded_shouldNeverReturnFalse() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.put("code" + i);
+            bloomFilter.put(i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(bloomFilter.mightContain("code" + i)).isTrue();
+            assertThat(bloomFilter.mightContain(i)).isTrue();
+        }
+    }
+
+    @Test
+    public void mightContain_whenKeysWereNotAdded_shouldMostlyReturnFalse() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.put("code" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (bloomFilter.mightContain("missing" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
@@ -0,0 +1,70 @@
+package com.practice.onlineShop.indexes;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    @Test
+    public void tokenize_shouldLowercaseAndFoldRomanianDiacritics() {
+        assertThat(TextNormalizer.tokenize("Șosete ROȘII, mărimea 42; ştrampi țesuţi"))
+                .containsExactly("sosete", "rosii", "marimea", "42", "strampi", "tesuti");
+    }
+
+    @Test
+    public void search_shouldRankDocumentsMatchingMoreTermsFirst() {
+        InvertedIndex invertedIndex = new InvertedIndex();
+        invertedIndex.put(1, "tricou de bumbac alb");
+        invertedIndex.put(2, "tricou de bumbac negru");
+        invertedIndex.put(3, "pantaloni negri");
+
+        InvertedIndex.SearchHits searchHits = invertedIndex.search("tricou negru", 0, 10);
+
+        assertThat(searchHits.getTotalHits()).isEqualTo(2);
+        assertThat(searchHits.getKeys()).containsExactly(2L, 1L);
+        assertThat(searchHits.getScores()[0]).isGreaterThan(searchHits.getScores()[1]);
+    }
+
+    @Test
+    public void search_shouldReturnTheRequestedPage() {
+        InvertedIndex invertedIndex = new InvertedIndex();
+        for (long key = 0; key < 25; key++) {
+            invertedIndex.put(key, "ciorapi");
+        }
+
+        InvertedIndex.SearchHits searchHits = invertedIndex.search("ciorapi", 20, 10);
+
+        assertThat(searchHits.getTotalHits()).isEqualTo(25);
+        assertThat(searchHits.getKeys()).containsExactly(20L, 21L, 22L, 23L, 24L);
+    }
+
+    @Test
+    public void search_whenDocumentsWereReplacedOrRemoved_shouldOnlyMatchTheCurrentTexts() {
+        InvertedIndex invertedIndex = new InvertedIndex();
+        invertedIndex.put(1, "geaca de iarna");
+        invertedIndex.put(2, "geaca de vara");
+        invertedIndex.put(1, "palton de iarna");
+        invertedIndex.remove(2);
+
+        assertThat(invertedIndex.search("geaca", 0, 10).getTotalHits()).isZero();
+        assertThat(invertedIndex.search("palton", 0, 10).getKeys()).containsExactly(1L);
+        assertThat(invertedIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void search_afterManyRemovals_shouldStillFindTheLiveDocuments() {
+        InvertedIndex invertedIndex = new InvertedIndex();
+        for (long key = 0; key < 5000; key++) {
+            invertedIndex.put(key, "produs numarul " + key);
+        }
+        for (long key = 0; key < 4990; key++) {
+            invertedIndex.remove(key);
+        }
+        invertedIndex.put(4995, "produs reinnoit");
+
+        assertThat(invertedIndex.search("produs", 0, 100).getTotalHits()).isEqualTo(10);
+        assertThat(invertedIndex.search("reinnoit", 0, 10).getKeys()).containsExactly(4995L);
+        assertThat(invertedIndex.search("4993", 0, 10).getKeys()).containsExactly(4993L);
+    }
+}
@@ -0,0 +1,60 @@
+package com.practice.onlineShop.indexes;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Currencies;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFacetIndexTest {
+
+    @Test
+    public void filter_shouldAndTheFacetsAndCountEachFacetWithoutItsOwnFilter() {
+        ProductFacetIndex productFacetIndex = new ProductFacetIndex(new double[]{50, 100});
+        productFacetIndex.onProductSaved(product(1, Currencies.EUR, 20, 5, true));
+        productFacetIndex.onProductSaved(product(2, Currencies.EUR, 75, 0, true));
+        productFacetIndex.onProductSaved(product(3, Currencies.RON, 75, 3, true));
+        productFacetIndex.onProductSaved(product(4, Currencies.RON, 150, 3, false));
+
+        ProductFacetIndex.FacetHits facetHits = productFacetIndex.filter(Collections.singletonList(Currencies.RON),
+                60.0, null, true, true, 0, 10);
+
+        assertThat(facetHits.getProductIds()).containsExactly(3L);
+        assertThat(facetHits.getFacetCounts().get(ProductFacetIndex.CURRENCY_FACET))
+                .containsEntry("EUR", 0).containsEntry("RON", 1).containsEntry("USD", 0);
+        assertThat(facetHits.getFacetCounts().get(ProductFacetIndex.PRICE_FACET))
+                .containsEntry("*-50", 0).containsEntry("50-100", 1).containsEntry("100-*", 0);
+        assertThat(facetHits.getFacetCounts().get(ProductFacetIndex.VALID_FACET))
+                .containsEntry("true", 1).containsEntry("false", 1);
+        assertThat(facetHits.getFacetCounts().get(ProductFacetIndex.IN_STOCK_FACET))
+                .containsEntry("true", 1).containsEntry("false", 0);
+    }
+
+    @Test
+    public void filter_whenProductsAreUpdatedOrDeleted_shouldUseTheirCurrentValues() {
+        ProductFacetIndex productFacetIndex = new ProductFacetIndex(new double[]{50, 100});
+        productFacetIndex.onProductSaved(product(1, Currencies.EUR, 20, 5, true));
+        productFacetIndex.onProductSaved(product(2, Currencies.EUR, 30, 5, true));
+        productFacetIndex.onProductSaved(product(1, Currencies.USD, 200, 0, true));
+        productFacetIndex.onProductDeleted(product(2, Currencies.EUR, 30, 5, true));
+        productFacetIndex.onProductSaved(product(3, Currencies.EUR, 40, 1, false));
+
+        assertThat(productFacetIndex.filter(null, null, 100.0, null, null, 0, 10).getProductIds()).containsExactly(3L);
+        assertThat(productFacetIndex.filter(Collections.singletonList(Currencies.USD), null, null, null, false, 0, 10).getProductIds())
+                .containsExactly(1L);
+        assertThat(productFacetIndex.filter(null, null, null, null, null, 0, 10).getTotalHits()).isEqualTo(2);
+    }
+
+    private Product product(long id, Currencies currency, double price, int stock, boolean valid) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode("code" + id);
+        product.setCurrency(currency);
+        product.setPrice(price);
+        product.setStock(stock);
+        product.setValid(valid);
+        return product;
+    }
+}
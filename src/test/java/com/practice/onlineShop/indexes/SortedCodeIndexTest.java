@@ -0,0 +1,52 @@
+package com.practice.onlineShop.indexes;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedCodeIndexTest {
+
+    @Test
+    public void startingWith_shouldReturnTheFirstMatchingCodesInOrder() {
+        SortedCodeIndex sortedCodeIndex = new SortedCodeIndex();
+        sortedCodeIndex.add("SKU-20");
+        sortedCodeIndex.add("SKU-100");
+        sortedCodeIndex.add("ABC-1");
+        sortedCodeIndex.add("SKU-3");
+        sortedCodeIndex.add("SKV-1");
+
+        assertThat(sortedCodeIndex.startingWith("SKU-", 10)).containsExactly("SKU-100", "SKU-20", "SKU-3");
+        assertThat(sortedCodeIndex.startingWith("SKU-", 2)).containsExactly("SKU-100", "SKU-20");
+        assertThat(sortedCodeIndex.startingWith("XYZ", 10)).isEmpty();
+    }
+
+    @Test
+    public void startingWith_shouldSeeAdditionsAndRemovalsBeforeAndAfterMerging() {
+        SortedCodeIndex sortedCodeIndex = new SortedCodeIndex();
+        for (int i = 0; i < 5000; i++) {
+            sortedCodeIndex.add(String.format("P%05d", i));
+        }
+        sortedCodeIndex.remove("P00010");
+        sortedCodeIndex.add("P00010-B");
+        sortedCodeIndex.remove("P00011");
+        sortedCodeIndex.add("P00011");
+
+        assertThat(sortedCodeIndex.startingWith("P0001", 4)).containsExactly("P00010-B", "P00011", "P00012", "P00013");
+        assertThat(sortedCodeIndex.size()).isEqualTo(5000);
+
+        for (int i = 0; i < 5000; i += 2) {
+            sortedCodeIndex.remove(String.format("P%05d", i));
+        }
+        assertThat(sortedCodeIndex.startingWith("P0000", 10)).containsExactly("P00001", "P00003", "P00005", "P00007", "P00009");
+        assertThat(sortedCodeIndex.size()).isEqualTo(2501);
+    }
+
+    @Test
+    public void startingWith_shouldMatchCodesWithDiacritics() {
+        SortedCodeIndex sortedCodeIndex = new SortedCodeIndex();
+        sortedCodeIndex.add("ȘAL-1");
+        sortedCodeIndex.add("SAL-1");
+
+        assertThat(sortedCodeIndex.startingWith("Ș", 10)).containsExactly("ȘAL-1");
+    }
+}
@@ -0,0 +1,95 @@
+package com.practice.onlineShop.inventory;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.vos.InventoryValuationVO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryValuationTest {
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InventoryValuation inventoryValuation = new InventoryValuation(productRepository, meterRegistry);
+
+    @Test
+    public void getValuation_shouldFollowEveryProductChange() {
+        inventoryValuation.onProductSaved(product(1, 0, 10.5, 4, Currencies.RON));
+        inventoryValuation.onProductSaved(product(2, 0, 3, 10, Currencies.EUR));
+        inventoryValuation.onProductSaved(product(1, 1, 10.5, 3, Currencies.RON));
+        inventoryValuation.onProductSaved(product(3, 0, 1, 1, Currencies.USD));
+        inventoryValuation.onProductDeleted(product(3, 0, 1, 1, Currencies.USD));
+
+        InventoryValuationVO inventoryValuationVO = inventoryValuation.getValuation();
+
+        assertThat(inventoryValuationVO.getValues().get(Currencies.RON)).isEqualTo(31.5);
+        assertThat(inventoryValuationVO.getValues().get(Currencies.EUR)).isEqualTo(30);
+        assertThat(inventoryValuationVO.getValues().get(Currencies.USD)).isEqualTo(0);
+    }
+
+    @Test
+    public void onProductSaved_whenAnOlderVersionArrivesLate_shouldIgnoreIt() {
+        inventoryValuation.onProductSaved(product(1, 2, 10, 1, Currencies.RON));
+        inventoryValuation.onProductSaved(product(1, 1, 10, 5, Currencies.RON));
+        inventoryValuation.onProductDeleted(product(2, 0, 10, 1, Currencies.RON));
+        inventoryValuation.onProductSaved(product(2, 0, 10, 1, Currencies.RON));
+
+        assertThat(inventoryValuation.getValuation().getValues().get(Currencies.RON)).isEqualTo(10);
+    }
+
+    @Test
+    public void reconcile_shouldCorrectTheMissedChangesAndReportTheDrift() {
+        inventoryValuation.onProductSaved(product(1, 0, 10, 1, Currencies.RON));
+        inventoryValuation.onProductSaved(product(2, 0, 5, 2, Currencies.EUR));
+        inventoryValuation.onProductSaved(product(3, 0, 7, 1, Currencies.RON));
+        inventoryValuation.onInitialLoadCompleted();
+        when(productRepository.findAllStateless()).thenReturn(Arrays.asList(
+                product(1, 1, 10, 4, Currencies.RON),
+                product(2, 0, 5, 2, Currencies.EUR)));
+
+        inventoryValuation.reconcile();
+
+        InventoryValuationVO inventoryValuationVO = inventoryValuation.getValuation();
+        assertThat(inventoryValuationVO.getValues().get(Currencies.RON)).isEqualTo(40);
+        assertThat(inventoryValuationVO.getValues().get(Currencies.EUR)).isEqualTo(10);
+        assertThat(inventoryValuationVO.getLastDrift().get(Currencies.RON)).isEqualTo(23);
+        assertThat(inventoryValuationVO.getLastDrift().get(Currencies.EUR)).isEqualTo(0);
+        assertThat(inventoryValuationVO.getLastReconciledAt()).isNotNull();
+    }
+
+    @Test
+    public void reconcile_whenTheScanNoLongerFindsADeletedProduct_shouldForgetIt() {
+        inventoryValuation.onProductSaved(product(1, 0, 10, 1, Currencies.RON));
+        inventoryValuation.onProductSaved(product(2, 0, 5, 2, Currencies.RON));
+        inventoryValuation.onInitialLoadCompleted();
+        inventoryValuation.onProductDeleted(product(2, 0, 5, 2, Currencies.RON));
+        when(productRepository.findAllStateless()).thenReturn(Arrays.asList(product(1, 0, 10, 1, Currencies.RON)));
+
+        assertThat(trackedProducts()).isEqualTo(2);
+        inventoryValuation.reconcile();
+
+        assertThat(trackedProducts()).isEqualTo(1);
+        assertThat(inventoryValuation.getValuation().getValues().get(Currencies.RON)).isEqualTo(10);
+        assertThat(inventoryValuation.getValuation().getLastDrift().get(Currencies.RON)).isEqualTo(0);
+    }
+
+    private double trackedProducts() {
+        return meterRegistry.get("shop.inventory.valuation.products").gauge().value();
+    }
+
+    private Product product(long id, long version, double price, int stock, Currencies currency) {
+        Product product = new Product();
+        product.setId(id);
+        product.setVersion(version);
+        product.setPrice(price);
+        product.setStock(stock);
+        product.setCurrency(currency);
+        return product;
+    }
+}
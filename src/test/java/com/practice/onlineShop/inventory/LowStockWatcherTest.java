@@ -0,0 +1,109 @@
+package com.practice.onlineShop.inventory;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.entities.StockThreshold;
+import com.practice.onlineShop.repositories.StockThresholdRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LowStockWatcherTest {
+    private static final long DEBOUNCE_MILLIS = 1000;
+
+    private final StockThresholdRepository stockThresholdRepository = mock(StockThresholdRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LowStockWatcher lowStockWatcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        StockThreshold stockThreshold = new StockThreshold();
+        stockThreshold.setProductId(1);
+        stockThreshold.setThreshold(5);
+        when(stockThresholdRepository.findAll()).thenReturn(Collections.singletonList(stockThreshold));
+        lowStockWatcher = new LowStockWatcher(stockThresholdRepository, mock(ObjectProvider.class), meterRegistry, 0, DEBOUNCE_MILLIS);
+        lowStockWatcher.loadThresholds();
+    }
+
+    @Test
+    public void takeDueAlerts_shouldAlertOnceTheCrossingOutlastedTheDebouncePeriod() {
+        lowStockWatcher.onProductSaved(product(1, 0, 10));
+        lowStockWatcher.onInitialLoadCompleted();
+        lowStockWatcher.onProductSaved(product(1, 1, 4));
+
+        assertThat(lowStockWatcher.takeDueAlerts(System.currentTimeMillis() - 1)).isEmpty();
+        List<LowStockAlert> alerts = lowStockWatcher.takeDueAlerts(System.currentTimeMillis() + DEBOUNCE_MILLIS);
+
+        assertThat(alerts).hasSize(1);
+        assertThat(alerts.get(0).getProductCode()).isEqualTo("code1");
+        assertThat(alerts.get(0).getStock()).isEqualTo(4);
+        assertThat(alerts.get(0).isLowOnStock()).isTrue();
+        assertThat(lowStockWatcher.takeDueAlerts(System.currentTimeMillis() + DEBOUNCE_MILLIS)).isEmpty();
+        assertThat(lowStockWatcher.getLowOnStock()).extracting("productId").containsExactly(1L);
+    }
+
+    @Test
+    public void takeDueAlerts_whenTheStockGoesBackBeforeTheAlert_shouldNotAlert() {
+        lowStockWatcher.onInitialLoadCompleted();
+        lowStockWatcher.onProductSaved(product(1, 0, 10));
+        lowStockWatcher.onProductSaved(product(1, 1, 5));
+        lowStockWatcher.onProductSaved(product(1, 2, 8));
+        lowStockWatcher.onProductSaved(product(1, 1, 2));
+
+        assertThat(lowStockWatcher.takeDueAlerts(System.currentTimeMillis() + DEBOUNCE_MILLIS)).isEmpty();
+        assertThat(lowStockWatcher.getLowOnStock()).isEmpty();
+    }
+
+    @Test
+    public void onProductSaved_whenLowOnStockAtStartup_shouldListItWithoutAlerting() {
+        lowStockWatcher.onProductSaved(product(1, 0, 3));
+        lowStockWatcher.onProductSaved(product(2, 0, 0));
+        lowStockWatcher.onProductSaved(product(3, 0, 7));
+        lowStockWatcher.onInitialLoadCompleted();
+
+        assertThat(lowStockWatcher.takeDueAlerts(System.currentTimeMillis() + DEBOUNCE_MILLIS)).isEmpty();
+        assertThat(lowStockWatcher.getLowOnStock()).extracting("productId").containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void onThresholdChanged_shouldReevaluateTheProduct() {
+        lowStockWatcher.onProductSaved(product(3, 0, 7));
+        lowStockWatcher.onInitialLoadCompleted();
+
+        lowStockWatcher.onThresholdChanged(new StockThresholdChangedEvent(3, 10));
+        List<LowStockAlert> alerts = lowStockWatcher.takeDueAlerts(System.currentTimeMillis() + DEBOUNCE_MILLIS);
+
+        assertThat(alerts).extracting("threshold").containsExactly(10);
+        lowStockWatcher.onProductDeleted(product(3, 0, 7));
+        assertThat(lowStockWatcher.getLowOnStock()).isEmpty();
+    }
+
+    @Test
+    public void onProductDeleted_shouldForgetTheThresholdOfTheProduct() {
+        lowStockWatcher.onProductSaved(product(1, 0, 10));
+        lowStockWatcher.onInitialLoadCompleted();
+
+        assertThat(meterRegistry.get("shop.inventory.low-stock.thresholds").gauge().value()).isEqualTo(1);
+        lowStockWatcher.onProductDeleted(product(1, 0, 10));
+        lowStockWatcher.onThresholdChanged(new StockThresholdChangedEvent(1, 20));
+
+        assertThat(meterRegistry.get("shop.inventory.low-stock.thresholds").gauge().value()).isEqualTo(0);
+    }
+
+    private Product product(long id, long version, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setVersion(version);
+        product.setCode("code" + id);
+        product.setStock(stock);
+        return product;
+    }
+}
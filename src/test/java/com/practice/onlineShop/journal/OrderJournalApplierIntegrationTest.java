@@ -0,0 +1,140 @@
+package com.practice.onlineShop.journal;
+
+import com.practice.onlineShop.entities.OrderJournalCheckpoint;
+import com.practice.onlineShop.entities.Orders;
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.entities.User;
+import com.practice.onlineShop.enums.Roles;
+import com.practice.onlineShop.repositories.OrderJournalCheckpointRepository;
+import com.practice.onlineShop.repositories.OrderRepository;
+import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.services.OrderService;
+import com.practice.onlineShop.utils.UtilsComponent;
+import com.practice.onlineShop.vos.OrderVO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.practice.onlineShop.utils.UtilsComponent.LOCALHOST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.OK;
+
+// the journal applied by hand only: the scheduled applier would race the assertions
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderJournalTest",
+        "shop.orders.journal.enabled=true",
+        "shop.orders.journal.apply-interval-millis=3600000"
+})
+class OrderJournalApplierIntegrationTest {
+    private static final int SEGMENT_BYTES = 1 << 20;
+    private static Path directory;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) throws IOException {
+        directory = Files.createTempDirectory("order-journal-test");
+        registry.add("shop.orders.journal.directory", directory::toString);
+        registry.add("shop.orders.journal.segment-bytes", () -> SEGMENT_BYTES);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private UtilsComponent utilsComponent;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderJournalCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OrderJournal orderJournal;
+
+    @Autowired
+    private OrderJournalApplier orderJournalApplier;
+
+    @Test
+    public void applyPending_whenReplayedAfterARestart_shouldPlaceEachJournaledOrderOnce() throws Exception {
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.generateProduct("codeForJournalReplay");
+        product.setStock(5);
+        productRepository.save(product);
+
+        assertThat(placeOrder(client, product, 2).getStatusCode()).isEqualTo(OK);
+        assertThat(placeOrder(client, product, 2).getStatusCode()).isEqualTo(OK);
+        // 5 in stock, 4 held back by the orders not placed yet
+        assertThat(placeOrder(client, product, 2).getStatusCode()).isEqualTo(BAD_REQUEST);
+
+        assertThat(orderJournalApplier.applyPending()).isEqualTo(2);
+        assertThat(countOrdersOf(client)).isEqualTo(2);
+        assertThat(productRepository.findById(product.getId()).get().getStock()).isEqualTo(1);
+        assertThat(orderJournal.getReservedQuantities(Collections.singleton((int) product.getId()))).isEmpty();
+
+        // acknowledged but not placed when the application stops
+        assertThat(placeOrder(client, product, 1).getStatusCode()).isEqualTo(OK);
+        OrderJournalApplier restartedApplier = restart();
+        assertThat(restartedApplier.applyPending()).isEqualTo(1);
+        OrderJournalApplier restartedAgainApplier = restart();
+        assertThat(restartedAgainApplier.applyPending()).isEqualTo(0);
+
+        assertThat(countOrdersOf(client)).isEqualTo(3);
+        assertThat(productRepository.findById(product.getId()).get().getStock()).isEqualTo(0);
+        assertThat(checkpointRepository.findById(OrderJournalCheckpoint.ID).get().getAppliedSequence()).isEqualTo(orderJournal.getLastSequence());
+    }
+
+    private OrderJournalApplier restart() throws IOException {
+        OrderJournal restartedJournal = new OrderJournal(checkpointRepository, directory.toString(), SEGMENT_BYTES);
+        restartedJournal.open();
+        OrderJournalApplier restartedApplier = new OrderJournalApplier(restartedJournal, orderService, checkpointRepository,
+                transactionManager, new SimpleMeterRegistry(), 500);
+        restartedApplier.loadCheckpoint();
+        return restartedApplier;
+    }
+
+    private ResponseEntity<String> placeOrder(User client, Product product, int quantity) {
+        OrderVO orderVO = new OrderVO();
+        orderVO.setUserId((int) client.getId());
+        Map<Integer, Integer> orderMap = new HashMap<>();
+        orderMap.put((int) product.getId(), quantity);
+        orderVO.setProductsIdsToQuantity(orderMap);
+        return testRestTemplate.postForEntity(LOCALHOST + port + "/order", orderVO, String.class);
+    }
+
+    private long countOrdersOf(User user) {
+        long orders = 0;
+        for (Orders order : orderRepository.findAll()) {
+            if (order.getUser().getId() == user.getId()) {
+                orders++;
+            }
+        }
+        return orders;
+    }
+}
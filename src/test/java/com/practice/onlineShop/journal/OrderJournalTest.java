@@ -0,0 +1,136 @@
+package com.practice.onlineShop.journal;
+
+import com.practice.onlineShop.entities.OrderJournalCheckpoint;
+import com.practice.onlineShop.repositories.OrderJournalCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderJournalTest {
+    // a header and three records of two items
+    private static final int SEGMENT_BYTES = 16 + 3 * 48;
+
+    private final OrderJournalCheckpointRepository checkpointRepository = mock(OrderJournalCheckpointRepository.class);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void append_shouldKeepTheOrdersAcrossSegmentsAndRestarts() throws Exception {
+        OrderJournal orderJournal = openJournal();
+        for (int userId = 1; userId <= 7; userId++) {
+            assertThat(orderJournal.append(userId, 1000 + userId, items(1, userId, 2, 3))).isEqualTo(userId);
+        }
+        orderJournal.close();
+
+        OrderJournal reopenedJournal = openJournal();
+        List<OrderJournalRecord> records = OrderJournalReader.readAll(directory);
+
+        assertThat(OrderJournal.listSegments(directory)).hasSize(3);
+        assertThat(records).extracting("sequence").containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(records.get(4).getUserId()).isEqualTo(5);
+        assertThat(records.get(4).getCreatedAtMillis()).isEqualTo(1005);
+        assertThat(records.get(4).getProductsIdsToQuantity()).isEqualTo(items(1, 5, 2, 3));
+        assertThat(reopenedJournal.read(3, 2)).extracting("sequence").containsExactly(3L, 4L);
+        assertThat(reopenedJournal.read(5, 10)).extracting("sequence").containsExactly(5L, 6L, 7L);
+        assertThat(reopenedJournal.append(8, 0, items(1, 1))).isEqualTo(8);
+    }
+
+    @Test
+    public void open_whenTheLastRecordIsDamaged_shouldDropItAndReuseItsSequence() throws Exception {
+        OrderJournal orderJournal = openJournal();
+        orderJournal.append(1, 0, items(1, 1, 2, 2));
+        orderJournal.append(2, 0, items(1, 1, 2, 2));
+        orderJournal.close();
+        Path segment = OrderJournal.listSegments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            // a byte of the user id of the second record
+            mapped.order(ByteOrder.LITTLE_ENDIAN).put(16 + 48 + 16, (byte) 9);
+            mapped.force();
+        }
+
+        OrderJournal reopenedJournal = openJournal();
+
+        assertThat(reopenedJournal.getLastSequence()).isEqualTo(1);
+        assertThat(reopenedJournal.append(3, 0, items(4, 4))).isEqualTo(2);
+        assertThat(OrderJournalReader.readAll(directory)).extracting("userId").containsExactly(1, 3);
+    }
+
+    @Test
+    public void release_shouldDeleteTheSegmentsAppliedInFull() throws Exception {
+        OrderJournal orderJournal = openJournal();
+        for (int userId = 1; userId <= 7; userId++) {
+            orderJournal.append(userId, 0, items(1, 1, 2, 2));
+        }
+        orderJournal.read(1, 4);
+
+        orderJournal.release(4);
+
+        assertThat(OrderJournal.listSegments(directory)).hasSize(2);
+        assertThat(orderJournal.read(5, 10)).extracting("sequence").containsExactly(5L, 6L, 7L);
+        assertThat(OrderJournalReader.replay(directory, 1, record -> {})).isEqualTo(4);
+    }
+
+    @Test
+    public void open_whenTheCheckpointIsAheadOfTheSegments_shouldNumberTheOrdersAfterIt() throws Exception {
+        OrderJournalCheckpoint checkpoint = new OrderJournalCheckpoint();
+        checkpoint.setAppliedSequence(100);
+        when(checkpointRepository.findById(OrderJournalCheckpoint.ID)).thenReturn(Optional.of(checkpoint));
+
+        OrderJournal orderJournal = openJournal();
+
+        assertThat(orderJournal.append(1, 0, Collections.singletonMap(1, 1))).isEqualTo(101);
+        assertThat(orderJournal.read(101, 10)).hasSize(1);
+    }
+
+    @Test
+    public void getReservedQuantities_shouldHoldTheQuantitiesOfTheRecordsNotSettled() throws Exception {
+        OrderJournalCheckpoint checkpoint = new OrderJournalCheckpoint();
+        checkpoint.setAppliedSequence(1);
+        when(checkpointRepository.findById(OrderJournalCheckpoint.ID)).thenReturn(Optional.of(checkpoint));
+        OrderJournal orderJournal = openJournal();
+        orderJournal.append(1, 0, items(1, 2, 2, 1));
+        orderJournal.append(2, 0, items(1, 3));
+        orderJournal.append(3, 0, items(2, 4));
+
+        assertThat(orderJournal.getReservedQuantities(Arrays.asList(1, 2, 3))).isEqualTo(items(1, 5, 2, 5));
+        orderJournal.settle(orderJournal.read(2, 1).get(0));
+        assertThat(orderJournal.getReservedQuantities(Arrays.asList(1, 2))).isEqualTo(items(1, 3, 2, 4));
+        orderJournal.close();
+
+        // the first record was applied, the two others are left to the applier
+        checkpoint.setAppliedSequence(2);
+        OrderJournal reopenedJournal = openJournal();
+        assertThat(reopenedJournal.getReservedQuantities(Arrays.asList(1, 2))).isEqualTo(items(1, 3, 2, 4));
+    }
+
+    private OrderJournal openJournal() throws Exception {
+        OrderJournal orderJournal = new OrderJournal(checkpointRepository, directory.toString(), SEGMENT_BYTES);
+        orderJournal.open();
+        return orderJournal;
+    }
+
+    private Map<Integer, Integer> items(int... productIdsAndQuantities) {
+        Map<Integer, Integer> items = new LinkedHashMap<>();
+        for (int index = 0; index < productIdsAndQuantities.length; index += 2) {
+            items.put(productIdsAndQuantities[index], productIdsAndQuantities[index + 1]);
+        }
+        return items;
+    }
+}
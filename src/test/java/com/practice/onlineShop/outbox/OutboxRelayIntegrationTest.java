@@ -0,0 +1,82 @@
+package com.practice.onlineShop.outbox;
+
+import com.practice.onlineShop.entities.OutboxEvent;
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.entities.User;
+import com.practice.onlineShop.enums.OutboxEventTypes;
+import com.practice.onlineShop.enums.Roles;
+import com.practice.onlineShop.repositories.OutboxEventRepository;
+import com.practice.onlineShop.utils.UtilsComponent;
+import com.practice.onlineShop.vos.OrderVO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.practice.onlineShop.utils.UtilsComponent.LOCALHOST;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:outboxRelayTest",
+        "shop.outbox.sink=queue"
+})
+class OutboxRelayIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private UtilsComponent utilsComponent;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private QueueOutboxSink queueOutboxSink;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    public void relay_whenAnOrderIsPlaced_shouldPublishItsEventsInOrderAndEmptyTheOutbox() {
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForOutbox", "code2ForOutbox");
+
+        testRestTemplate.postForEntity(LOCALHOST + port + "/order", createOrderVo(client, product), Void.class);
+        outboxRelay.relay();
+
+        List<OutboxEvent> published = new ArrayList<>();
+        queueOutboxSink.drainTo(published);
+        List<OutboxEvent> productEvents = published.stream()
+                .filter(event -> event.getType() == OutboxEventTypes.STOCK_CHANGED && event.getAggregateId() == product.getId())
+                .collect(Collectors.toList());
+        List<OutboxEvent> orderEvents = published.stream()
+                .filter(event -> event.getType() == OutboxEventTypes.ORDER_PLACED && event.getPayload().contains("\"userId\":" + client.getId()))
+                .collect(Collectors.toList());
+
+        assertThat(productEvents).hasSize(1);
+        assertThat(productEvents.get(0).getPayload()).contains("\"delta\":-1");
+        assertThat(orderEvents).hasSize(1);
+        assertThat(published).isSortedAccordingTo((first, second) -> Long.compare(first.getId(), second.getId()));
+        assertThat(outboxEventRepository.count()).isEqualTo(0);
+    }
+
+    private OrderVO createOrderVo(User user, Product product) {
+        OrderVO orderVO = new OrderVO();
+        orderVO.setUserId((int) user.getId());
+        Map<Integer, Integer> orderMap = new HashMap<>();
+        orderMap.put((int) product.getId(), 1);
+        orderVO.setProductsIdsToQuantity(orderMap);
+        return orderVO;
+    }
+}
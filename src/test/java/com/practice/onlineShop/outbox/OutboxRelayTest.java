@@ -0,0 +1,64 @@
+package com.practice.onlineShop.outbox;
+
+import com.practice.onlineShop.entities.OutboxEvent;
+import com.practice.onlineShop.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final OutboxSink outboxSink = mock(OutboxSink.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboxRelay outboxRelay = new OutboxRelay(outboxEventRepository, outboxSink, meterRegistry, 200);
+
+    @Test
+    public void relay_whenTheSinkKeepsFailing_shouldKeepTheEventsAndLogOnlyTheFirstFailure() {
+        List<OutboxEvent> events = Collections.singletonList(event(1));
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class))).thenReturn(events, events, events, Collections.emptyList());
+        doThrow(new IllegalStateException("The outbox queue is full")).doThrow(new IllegalStateException("The outbox queue is full"))
+                .doNothing().when(outboxSink).publish(events);
+
+        String output = captureOutput(() -> {
+            outboxRelay.relay();
+            outboxRelay.relay();
+            outboxRelay.relay();
+        });
+
+        assertThat(meterRegistry.get("shop.outbox.failures").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("shop.outbox.published").counter().count()).isEqualTo(1);
+        verify(outboxEventRepository, times(1)).deleteByIds(anyList());
+        assertThat(output.split("Could not publish", -1)).hasSize(2);
+        assertThat(output).contains("Published the outbox events again after 2 failed runs");
+    }
+
+    private String captureOutput(Runnable runnable) {
+        PrintStream out = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true));
+        try {
+            runnable.run();
+        } finally {
+            System.setOut(out);
+        }
+        return output.toString();
+    }
+
+    private OutboxEvent event(long id) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setCreatedAt(Instant.now());
+        return event;
+    }
+}
@@ -0,0 +1,86 @@
+package com.practice.onlineShop.ratelimit;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.entities.User;
+import com.practice.onlineShop.enums.Roles;
+import com.practice.onlineShop.utils.UtilsComponent;
+import com.practice.onlineShop.vos.OrderVO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.practice.onlineShop.utils.UtilsComponent.LOCALHOST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:rateLimitTest",
+        "shop.rate-limit.default-rate.permits-per-second=0.01",
+        "shop.rate-limit.default-rate.burst=2",
+        "shop.rate-limit.roles.CLIENT.permits-per-second=0.01",
+        "shop.rate-limit.roles.CLIENT.burst=2"
+})
+class RateLimitIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private UtilsComponent utilsComponent;
+
+    @Test
+    public void addOrder_whenTheClientSendsMoreThanItsBurst_shouldBeThrottledUntilTheNextToken() {
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForRateLimit", "code2ForRateLimit");
+        // more than the stock: rejected by the order service, once the security checks have seen the client
+        OrderVO orderVO = createOrderVo(client, product, 100);
+
+        // the first request is counted in the table of the customers not seen yet, the next two use the client's burst
+        for (int request = 0; request < 3; request++) {
+            ResponseEntity<String> response = testRestTemplate.postForEntity(LOCALHOST + port + "/order", orderVO, String.class);
+            assertThat(response.getStatusCode()).isEqualTo(BAD_REQUEST);
+        }
+        ResponseEntity<String> throttled = testRestTemplate.postForEntity(LOCALHOST + port + "/order", orderVO, String.class);
+
+        assertThat(throttled.getStatusCode()).isEqualTo(TOO_MANY_REQUESTS);
+        assertThat(throttled.getBody()).isEqualTo("Ati trimis prea multe cereri, va rugam reincercati mai tarziu!");
+        assertThat(Long.parseLong(throttled.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))).isBetween(90L, 100L);
+    }
+
+    @Test
+    public void addOrder_whenMadeUpCustomerIdsAreThrottled_shouldStillLetANewClientThrough() {
+        User madeUpCustomer = new User();
+        madeUpCustomer.setId(987654);
+        User client = utilsComponent.saveUserWithRole(Roles.CLIENT);
+        Product product = utilsComponent.storeTwoProductsInDatabase("code1ForUnknownRateLimit", "code2ForUnknownRateLimit");
+
+        ResponseEntity<String> throttled = null;
+        for (int request = 0; request < 3; request++) {
+            throttled = testRestTemplate.postForEntity(LOCALHOST + port + "/order", createOrderVo(madeUpCustomer, product, 100), String.class);
+        }
+        ResponseEntity<String> response = testRestTemplate.postForEntity(LOCALHOST + port + "/order", createOrderVo(client, product, 100), String.class);
+
+        assertThat(throttled.getStatusCode()).isEqualTo(TOO_MANY_REQUESTS);
+        assertThat(response.getStatusCode()).isEqualTo(BAD_REQUEST);
+    }
+
+    private OrderVO createOrderVo(User user, Product product, int quantity) {
+        OrderVO orderVO = new OrderVO();
+        orderVO.setUserId((int) user.getId());
+        Map<Integer, Integer> orderMap = new HashMap<>();
+        orderMap.put((int) product.getId(), quantity);
+        orderVO.setProductsIdsToQuantity(orderMap);
+        return orderVO;
+    }
+}
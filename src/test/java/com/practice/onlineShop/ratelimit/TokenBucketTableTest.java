@@ -0,0 +1,58 @@
+package com.practice.onlineShop.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTableTest {
+    private static final long ONE_SECOND = 1_000_000_000L;
+
+    @Test
+    public void tryAcquire_whenBurstIsUsed_shouldThrottleUntilTokensAreRefilled() {
+        TokenBucketTable table = new TokenBucketTable(16);
+        long now = ONE_SECOND;
+
+        assertThat(table.tryAcquire(1L, "addOrder", 2, 3, now)).isTrue();
+        assertThat(table.tryAcquire(1L, "addOrder", 2, 3, now)).isTrue();
+        assertThat(table.tryAcquire(1L, "addOrder", 2, 3, now)).isTrue();
+        assertThat(table.tryAcquire(1L, "addOrder", 2, 3, now)).isFalse();
+
+        assertThat(table.tryAcquire(1L, "addOrder", 2, 3, now + ONE_SECOND / 2)).isTrue();
+        assertThat(table.tryAcquire(1L, "addOrder", 2, 3, now + ONE_SECOND / 2)).isFalse();
+    }
+
+    @Test
+    public void tryAcquire_shouldKeepSeparateBucketsPerCustomerAndEndpoint() {
+        TokenBucketTable table = new TokenBucketTable(1024);
+        long now = ONE_SECOND;
+
+        assertThat(table.tryAcquire(1L, "addOrder", 1, 1, now)).isTrue();
+        assertThat(table.tryAcquire(1L, "addOrder", 1, 1, now)).isFalse();
+
+        assertThat(table.tryAcquire(2L, "addOrder", 1, 1, now)).isTrue();
+        assertThat(table.tryAcquire(1L, "addStock", 1, 1, now)).isTrue();
+    }
+
+    @Test
+    public void acquire_whenThrottled_shouldTellHowLongUntilTheNextToken() {
+        TokenBucketTable table = new TokenBucketTable(16);
+        long now = ONE_SECOND;
+
+        assertThat(table.acquire(1L, "addOrder", 2, 1, now)).isEqualTo(0);
+        assertThat(table.acquire(1L, "addOrder", 2, 1, now + ONE_SECOND / 4)).isEqualTo(ONE_SECOND / 4);
+    }
+
+    @Test
+    public void tryAcquire_whenOtherKeysTakeTheSlots_shouldNotHandOutAFullBucket() {
+        TokenBucketTable table = new TokenBucketTable(4);
+        long now = ONE_SECOND;
+
+        assertThat(table.tryAcquire(1L, "addOrder", 1, 1, now)).isTrue();
+        for (long customerId = 2; customerId < 40; customerId++) {
+            table.tryAcquire(customerId, "addOrder", 1, 1, now);
+        }
+
+        assertThat(table.tryAcquire(1L, "addOrder", 1, 1, now)).isFalse();
+        assertThat(table.tryAcquire(1L, "addOrder", 1, 1, now + 2 * ONE_SECOND)).isTrue();
+    }
+}
@@ -9,6 +9,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -57,4 +60,24 @@ class ProductRepositoryIntegrationTest {
 
         assertThat(productFromDb).isNotPresent();
     }
+
+    @Test
+    public void findAllFields_shouldReturnOnlyTheRequestedFields(){
+        Product product = new Product();
+        product.setCode("aProductCodeForFields");
+        product.setPrice(100);
+        product.setStock(3);
+        product.setValid(true);
+        product.setCurrency(Currencies.EUR);
+        product.setDescription("a description which is not requested");
+        testEntityManager.persist(product);
+        testEntityManager.flush();
+
+        List<Map<String, Object>> products = productRepository.findAllFields(Arrays.asList("stock", "code", "unknownField"));
+
+        assertThat(products).hasSize(1);
+        assertThat(products.get(0)).containsOnlyKeys("code", "stock");
+        assertThat(products.get(0).get("code")).isEqualTo("aProductCodeForFields");
+        assertThat(products.get(0).get("stock")).isEqualTo(3);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.practice.onlineShop.sales;
+
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.rates.ExchangeRates;
+import com.practice.onlineShop.repositories.OrderLine;
+import com.practice.onlineShop.repositories.OrderRepository;
+import com.practice.onlineShop.vos.SalesPointVO;
+import com.practice.onlineShop.vos.SalesSeriesVO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class SalesTimeSeriesTest {
+    private final Instant now = Instant.now();
+
+    @Test
+    public void getSeries_shouldSumTheSalesOfEachMinuteInTheSeriesCurrency() throws Exception {
+        SalesTimeSeries salesTimeSeries = salesTimeSeries(10);
+        salesTimeSeries.record(now.toEpochMilli(), new ProductSale(1, 2, 20, Currencies.EUR));
+        salesTimeSeries.record(now.toEpochMilli(), new ProductSale(1, 1, 50, Currencies.RON));
+        salesTimeSeries.record(now.minus(2, ChronoUnit.MINUTES).toEpochMilli(), new ProductSale(2, 4, 8, Currencies.RON));
+
+        List<SalesPointVO> productPoints = salesTimeSeries.getSeries(1L, now.minus(4, ChronoUnit.MINUTES), now).getPoints();
+        List<SalesPointVO> overallPoints = salesTimeSeries.getSeries(null, now.minus(4, ChronoUnit.MINUTES), now).getPoints();
+
+        assertThat(productPoints).hasSize(5);
+        assertThat(productPoints.get(4).getUnits()).isEqualTo(3);
+        assertThat(productPoints.get(4).getRevenue()).isEqualTo(150);
+        assertThat(productPoints.get(2).getUnits()).isEqualTo(0);
+        assertThat(overallPoints.get(2).getUnits()).isEqualTo(4);
+        assertThat(overallPoints.get(2).getRevenue()).isEqualTo(8);
+        assertThat(overallPoints.get(4).getUnits()).isEqualTo(3);
+    }
+
+    @Test
+    public void getSeries_shouldOnlyAnswerForThePeriodKept() throws Exception {
+        SalesTimeSeries salesTimeSeries = salesTimeSeries(10);
+        salesTimeSeries.record(now.minus(30, ChronoUnit.MINUTES).toEpochMilli(), new ProductSale(1, 2, 20, Currencies.RON));
+        salesTimeSeries.record(now.minus(90, ChronoUnit.MINUTES).toEpochMilli(), new ProductSale(1, 5, 50, Currencies.RON));
+
+        SalesSeriesVO salesSeriesVO = salesTimeSeries.getSeries(1L, now.minus(2, ChronoUnit.HOURS), now.plus(1, ChronoUnit.HOURS));
+
+        assertThat(salesSeriesVO.getPoints()).hasSize(60);
+        assertThat(salesSeriesVO.getPoints().stream().mapToLong(SalesPointVO::getUnits).sum()).isEqualTo(2);
+        assertThat(salesSeriesVO.getCurrency()).isEqualTo(Currencies.RON);
+    }
+
+    @Test
+    public void record_whenTooManyProductsAreTracked_shouldForgetTheOneThatSoldLeastRecently() throws Exception {
+        SalesTimeSeries salesTimeSeries = salesTimeSeries(2);
+        salesTimeSeries.record(now.minus(3, ChronoUnit.MINUTES).toEpochMilli(), new ProductSale(1, 1, 10, Currencies.RON));
+        salesTimeSeries.record(now.minus(5, ChronoUnit.MINUTES).toEpochMilli(), new ProductSale(2, 1, 10, Currencies.RON));
+        salesTimeSeries.record(now.minus(1, ChronoUnit.MINUTES).toEpochMilli(), new ProductSale(1, 1, 10, Currencies.RON));
+        salesTimeSeries.record(now.toEpochMilli(), new ProductSale(3, 1, 10, Currencies.RON));
+
+        assertThat(totalUnits(salesTimeSeries, 1L)).isEqualTo(2);
+        assertThat(totalUnits(salesTimeSeries, 2L)).isEqualTo(0);
+        assertThat(totalUnits(salesTimeSeries, 3L)).isEqualTo(1);
+        assertThat(totalUnits(salesTimeSeries, null)).isEqualTo(4);
+    }
+
+    @Test
+    public void record_whenTheProductHasNoCurrency_shouldCountTheUnitsWithoutRevenue() throws Exception {
+        SalesTimeSeries salesTimeSeries = salesTimeSeries(10);
+        salesTimeSeries.record(now.toEpochMilli(), new ProductSale(1, 2, 20, null));
+        salesTimeSeries.record(now.toEpochMilli(), new ProductSale(1, 1, 50, Currencies.RON));
+
+        List<SalesPointVO> points = salesTimeSeries.getSeries(1L, now, now).getPoints();
+
+        assertThat(points).hasSize(1);
+        assertThat(points.get(0).getUnits()).isEqualTo(3);
+        assertThat(points.get(0).getRevenue()).isEqualTo(50);
+    }
+
+    @Test
+    public void load_whenAnOrderedProductHasNoCurrency_shouldCountItsUnitsWithoutRevenue() throws Exception {
+        OrderLine orderLine = new OrderLine();
+        orderLine.setCreatedAt(now);
+        orderLine.setProductId(1L);
+        orderLine.setQuantity(2);
+        orderLine.setPrice(10.0);
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<OrderLine>>getArgument(4).accept(orderLine);
+            return null;
+        }).when(orderRepository).streamOrderLines(isNull(), isNull(), any(Instant.class), isNull(), any());
+        SalesTimeSeries salesTimeSeries = new SalesTimeSeries(exchangeRates(), orderRepository, new SimpleMeterRegistry(), 60, 10, Currencies.RON);
+
+        salesTimeSeries.load();
+
+        List<SalesPointVO> points = salesTimeSeries.getSeries(1L, now, now).getPoints();
+        assertThat(points.get(0).getUnits()).isEqualTo(2);
+        assertThat(points.get(0).getRevenue()).isEqualTo(0);
+    }
+
+    private long totalUnits(SalesTimeSeries salesTimeSeries, Long productId) {
+        return salesTimeSeries.getSeries(productId, now.minus(10, ChronoUnit.MINUTES), now).getPoints().stream()
+                .mapToLong(SalesPointVO::getUnits)
+                .sum();
+    }
+
+    private SalesTimeSeries salesTimeSeries(int maxProducts) throws Exception {
+        return new SalesTimeSeries(exchangeRates(), null, new SimpleMeterRegistry(), 60, maxProducts, Currencies.RON);
+    }
+
+    private ExchangeRates exchangeRates() throws Exception {
+        ExchangeRates exchangeRates = new ExchangeRates(new ByteArrayResource(new byte[0]) {
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream("version=1\nRON=1\nEUR=5\nUSD=4".getBytes(StandardCharsets.UTF_8));
+            }
+        }, event -> {});
+        exchangeRates.load();
+        return exchangeRates;
+    }
+}
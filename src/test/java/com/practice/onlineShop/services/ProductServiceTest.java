@@ -1,10 +1,14 @@
 package com.practice.onlineShop.services;
 
+import com.practice.onlineShop.concurrency.StockLockingStrategy;
 import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.entities.StockThreshold;
 import com.practice.onlineShop.enums.Currencies;
 import com.practice.onlineShop.exceptions.InvalidProductCodeException;
 import com.practice.onlineShop.mappers.ProductMapper;
+import com.practice.onlineShop.outbox.Outbox;
 import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.repositories.StockThresholdRepository;
 import com.practice.onlineShop.vos.ProductVO;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -36,9 +40,18 @@ public class ProductServiceTest {
         @MockBean
         private ProductRepository productRepository;
 
+        @MockBean
+        private StockLockingStrategy stockLockingStrategy;
+
+        @MockBean
+        private Outbox outbox;
+
+        @MockBean
+        private StockThresholdRepository stockThresholdRepository;
+
         @Bean
         public ProductService productService() {
-            return new ProductService(productMapper, productRepository);
+            return new ProductService(productMapper, productRepository, stockLockingStrategy, outbox, stockThresholdRepository);
         }
     }
 
@@ -51,6 +64,9 @@ public class ProductServiceTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private StockThresholdRepository stockThresholdRepository;
+
     @Test
     public void addProduct() {
 
@@ -122,7 +138,7 @@ public class ProductServiceTest {
         ProductVO productVO2 = new ProductVO();
         productVO2.setCode("aCode2");
 
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findAllStateless()).thenReturn(products);
         when(productMapper.toVO(product1)).thenReturn(productVO1);
         when(productMapper.toVO(product2)).thenReturn(productVO2);
 
@@ -131,7 +147,7 @@ public class ProductServiceTest {
         assertThat(productList).hasSize(2);
         assertThat(productList).containsOnly(productVO1, productVO2);
 
-        verify(productRepository).findAll();
+        verify(productRepository).findAllStateless();
         verify(productMapper).toVO(product1);
         verify(productMapper).toVO(product2);
     }
@@ -203,13 +219,18 @@ public class ProductServiceTest {
     @Test
     public void deleteProduct_whenCodeIsValid_shouldDeleteTheProduct() throws InvalidProductCodeException {
         Product product = new Product();
+        product.setId(7);
         product.setCode("aCode");
+        StockThreshold stockThreshold = new StockThreshold();
+        stockThreshold.setProductId(7);
         when(productRepository.findByCode(any())).thenReturn(Optional.of(product));
+        when(stockThresholdRepository.findById(7L)).thenReturn(Optional.of(stockThreshold));
 
         productService.deleteProduct("aCode", 1L);
 
         verify(productRepository).findByCode("aCode");
         verify(productRepository).delete(product);
+        verify(stockThresholdRepository).delete(stockThreshold);
     }
 }
 
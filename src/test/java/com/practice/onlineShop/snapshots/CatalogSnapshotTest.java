@@ -0,0 +1,55 @@
+package com.practice.onlineShop.snapshots;
+
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.vos.ProductVO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTest {
+
+    @Test
+    public void build_shouldKeepEveryColumnOfEveryRow() {
+        CatalogSnapshot catalogSnapshot = CatalogSnapshot.build(rows());
+
+        ProductVO productVO = catalogSnapshot.toVO(catalogSnapshot.positionOfId(5));
+
+        assertThat(productVO.getCode()).isEqualTo("A-1");
+        assertThat(productVO.getDescription()).isEqualTo("Șosete de lână");
+        assertThat(productVO.getPrice()).isEqualTo(20.5);
+        assertThat(productVO.getStock()).isEqualTo(0);
+        assertThat(productVO.isValid()).isFalse();
+        assertThat(productVO.getCurrency()).isEqualTo(Currencies.EUR);
+        assertThat(catalogSnapshot.toVO(catalogSnapshot.positionOfId(9)).getCode()).isNull();
+    }
+
+    @Test
+    public void positionOfCodeAndOfId_shouldFindTheRowsOrReturnMinusOne() {
+        CatalogSnapshot catalogSnapshot = CatalogSnapshot.build(rows());
+
+        assertThat(catalogSnapshot.id(catalogSnapshot.positionOfCode("B-2"))).isEqualTo(1);
+        assertThat(catalogSnapshot.id(catalogSnapshot.positionOfCode("Ă-3"))).isEqualTo(12);
+        assertThat(catalogSnapshot.positionOfCode("C")).isEqualTo(-1);
+        assertThat(catalogSnapshot.positionOfId(6)).isEqualTo(-1);
+    }
+
+    @Test
+    public void constructor_shouldReadASnapshotFromItsBytes() {
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot(CatalogSnapshot.build(rows()).getData());
+
+        assertThat(catalogSnapshot.size()).isEqualTo(4);
+        assertThat(catalogSnapshot.toVO(3).getCode()).isEqualTo("Ă-3");
+    }
+
+    private List<CatalogSnapshot.Row> rows() {
+        List<CatalogSnapshot.Row> rows = new ArrayList<>();
+        rows.add(new CatalogSnapshot.Row(1, 0, "B-2", "Șosete de lână", 10.5, 3, true, Currencies.RON));
+        rows.add(new CatalogSnapshot.Row(5, 0, "A-1", "Șosete de lână", 20.5, 0, false, Currencies.EUR));
+        rows.add(new CatalogSnapshot.Row(9, 0, null, null, 1, 1, true, null));
+        rows.add(new CatalogSnapshot.Row(12, 0, "Ă-3", "Fular", 2, 1, true, Currencies.USD));
+        return rows;
+    }
+}
@@ -0,0 +1,72 @@
+package com.practice.onlineShop.snapshots;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.utils.UtilsComponent;
+import com.practice.onlineShop.vos.ProductBatchVO;
+import com.practice.onlineShop.vos.ProductVO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.util.function.Predicate;
+
+import static com.practice.onlineShop.utils.UtilsComponent.LOCALHOST;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:columnarCatalogTest",
+        "shop.catalog.columnar.enabled=true"
+})
+class ColumnarCatalogIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private UtilsComponent utilsComponent;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ColumnarCatalog columnarCatalog;
+
+    @Test
+    public void getProductsByCodes_whenProductsChange_shouldServeTheChangesFromTheColumnarCatalog() throws InterruptedException {
+        assertThat(columnarCatalog.isReady()).isTrue();
+        Product product = utilsComponent.storeTwoProductsInDatabase("aColumnarCode", "anotherColumnarCode");
+
+        ProductBatchVO stored = awaitBatch(batch -> batch.getProducts().size() == 2);
+        assertThat(stored.getProducts()).extracting(ProductVO::getCode).containsExactly("aColumnarCode", "anotherColumnarCode");
+
+        product.setPrice(250);
+        productRepository.save(product);
+        ProductBatchVO updated = awaitBatch(batch -> !batch.getProducts().isEmpty() && batch.getProducts().get(0).getPrice() == 250);
+        assertThat(updated.getProducts()).extracting(ProductVO::getPrice).containsExactly(250.0, 100.0);
+
+        productRepository.delete(productRepository.findByCode("aColumnarCode").get());
+        ProductBatchVO deleted = awaitBatch(batch -> batch.getProducts().size() == 1);
+        assertThat(deleted.getMissingKeys()).containsExactly("aColumnarCode");
+
+        productRepository.delete(productRepository.findByCode("anotherColumnarCode").get());
+    }
+
+    private ProductBatchVO awaitBatch(Predicate<ProductBatchVO> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        ProductBatchVO batch = null;
+        while (System.currentTimeMillis() < deadline) {
+            batch = testRestTemplate.getForObject(LOCALHOST + port + "/product?codes=aColumnarCode,anotherColumnarCode", ProductBatchVO.class);
+            if (condition.test(batch)) {
+                return batch;
+            }
+            Thread.sleep(10);
+        }
+        return batch;
+    }
+}
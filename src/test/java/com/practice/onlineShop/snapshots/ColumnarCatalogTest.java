@@ -0,0 +1,69 @@
+package com.practice.onlineShop.snapshots;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.vos.ProductBatchVO;
+import com.practice.onlineShop.vos.ProductVO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarCatalogTest {
+
+    @Test
+    public void onInitialLoadCompleted_shouldMergeTheLoadedAndChangedProducts() {
+        ColumnarCatalog columnarCatalog = new ColumnarCatalog(new SimpleMeterRegistry());
+        columnarCatalog.onProductSaved(product(3, "code3", 30));
+        columnarCatalog.onProductSaved(product(1, "code1", 10));
+        columnarCatalog.onProductSaved(product(2, "code2", 20));
+        columnarCatalog.onProductSaved(product(1, "code1", 15));
+        columnarCatalog.onProductDeleted(product(2, "code2", 20));
+
+        assertThat(columnarCatalog.isReady()).isFalse();
+        columnarCatalog.onInitialLoadCompleted();
+
+        assertThat(columnarCatalog.isReady()).isTrue();
+        assertThat(columnarCatalog.getProducts()).extracting(ProductVO::getCode).containsExactly("code1", "code3");
+        ProductBatchVO productBatchVO = columnarCatalog.getProductsByCodes(Arrays.asList("code3", "code2", "code1"));
+        assertThat(productBatchVO.getProducts()).extracting(ProductVO::getPrice).containsExactly(30.0, 15.0);
+        assertThat(productBatchVO.getMissingKeys()).containsExactly("code2");
+        assertThat(columnarCatalog.getProductsByIds(Arrays.asList(2L, 3L)).getMissingKeys()).containsExactly("2");
+    }
+
+    @Test
+    public void onInitialLoadCompleted_whenAProductChangesMeanwhile_shouldMergeTheChange() throws InterruptedException {
+        for (int attempt = 0; attempt < 2000; attempt++) {
+            ColumnarCatalog columnarCatalog = new ColumnarCatalog(new SimpleMeterRegistry());
+            columnarCatalog.onProductSaved(product(1, "code1", 10));
+            CountDownLatch started = new CountDownLatch(1);
+            Thread writer = new Thread(() -> {
+                started.countDown();
+                columnarCatalog.onProductSaved(product(2, "code2", 20));
+            });
+            writer.start();
+            started.await();
+            columnarCatalog.onInitialLoadCompleted();
+            writer.join();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (columnarCatalog.getSnapshot().size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            assertThat(columnarCatalog.getSnapshot().size()).as("attempt %d", attempt).isEqualTo(2);
+            columnarCatalog.shutdown();
+        }
+    }
+
+    private Product product(long id, String code, double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode(code);
+        product.setPrice(price);
+        product.setCurrency(Currencies.RON);
+        return product;
+    }
+}
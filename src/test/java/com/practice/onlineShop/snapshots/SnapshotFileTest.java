@@ -0,0 +1,59 @@
+package com.practice.onlineShop.snapshots;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void map_shouldReadBackTheWrittenSections() throws IOException {
+        Path path = directory.resolve("test.snapshot");
+        SnapshotFile.write(path, 1234L, sections());
+
+        SnapshotFile snapshotFile = SnapshotFile.map(path);
+
+        assertThat(snapshotFile.getCreatedAtMillis()).isEqualTo(1234L);
+        assertThat(snapshotFile.getSection(1).remaining()).isEqualTo(3);
+        assertThat(snapshotFile.getSection(1).get(2)).isEqualTo((byte) 3);
+        assertThat(snapshotFile.getSection(2).getLong(0)).isEqualTo(42L);
+        assertThatThrownBy(() -> snapshotFile.getSection(3)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void getSection_whenTheBytesWereChanged_shouldFailTheChecksum() throws IOException {
+        Path path = directory.resolve("corrupted.snapshot");
+        SnapshotFile.write(path, 1234L, sections());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{9}), 24 + 24 + 1);
+        }
+
+        SnapshotFile snapshotFile = SnapshotFile.map(path);
+
+        assertThatThrownBy(() -> snapshotFile.getSection(1)).isInstanceOf(IOException.class).hasMessageContaining("Corrupted");
+        assertThat(snapshotFile.getSection(2).getLong(0)).isEqualTo(42L);
+    }
+
+    private Map<Integer, ByteBuffer> sections() {
+        Map<Integer, ByteBuffer> sections = new LinkedHashMap<>();
+        sections.put(1, ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        ByteBuffer longSection = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        longSection.putLong(0, 42L);
+        sections.put(2, longSection);
+        return sections;
+    }
+}
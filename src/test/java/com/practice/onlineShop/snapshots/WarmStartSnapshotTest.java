@@ -0,0 +1,161 @@
+package com.practice.onlineShop.snapshots;
+
+import com.practice.onlineShop.entities.Product;
+import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.enums.Roles;
+import com.practice.onlineShop.ratelimit.UserRolesCache;
+import com.practice.onlineShop.repositories.CatalogFingerprint;
+import com.practice.onlineShop.repositories.ProductRepository;
+import com.practice.onlineShop.repositories.UserRepository;
+import com.practice.onlineShop.repositories.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WarmStartSnapshotTest {
+    private static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    @TempDir
+    Path directory;
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<ColumnarCatalog> columnarCatalogProvider = mock(ObjectProvider.class);
+    private final UserRolesCache userRolesCache = new UserRolesCache();
+    private Path path;
+
+    @BeforeEach
+    public void writeSnapshot() {
+        path = directory.resolve("test.snapshot");
+        when(productRepository.findAllStateless()).thenReturn(Arrays.asList(product(1, "code1", 3), product(2, "code2", 4)));
+        when(userRepository.findAllRoles()).thenReturn(Collections.singletonList(userRole(7, Roles.ADMIN)));
+        warmStartSnapshot().write();
+    }
+
+    @Test
+    public void load_whenTheSnapshotMatchesTheDatabase_shouldLoadTheCatalogAndTheRoles() {
+        when(productRepository.findCatalogFingerprint()).thenReturn(fingerprint(2, 2, 7));
+        WarmStartSnapshot warmStartSnapshot = warmStartSnapshot();
+
+        warmStartSnapshot.load();
+
+        CatalogSnapshot catalogSnapshot = warmStartSnapshot.takeLoadedCatalog();
+        assertThat(catalogSnapshot.size()).isEqualTo(2);
+        assertThat(catalogSnapshot.code(1)).isEqualTo("code2");
+        assertThat(userRolesCache.get(7)).containsExactly(Roles.ADMIN);
+    }
+
+    @Test
+    public void load_whenTheFingerprintDiffers_shouldFallBackToTheDatabase() {
+        when(productRepository.findCatalogFingerprint()).thenReturn(fingerprint(2, 2, 8));
+
+        assertFallsBackToTheDatabase(warmStartSnapshot());
+    }
+
+    @Test
+    public void load_whenTheSnapshotIsTooOld_shouldFallBackToTheDatabase() throws IOException {
+        when(productRepository.findCatalogFingerprint()).thenReturn(fingerprint(2, 2, 7));
+        SnapshotFile.write(path, System.currentTimeMillis() - MAX_AGE_MILLIS - 1000, Collections.singletonMap(
+                WarmStartSnapshot.CATALOG_SECTION, ByteBuffer.wrap(new byte[]{1, 2, 3})));
+
+        assertFallsBackToTheDatabase(warmStartSnapshot());
+    }
+
+    @Test
+    public void load_whenASectionFailsItsChecksum_shouldFallBackToTheDatabase() throws IOException {
+        when(productRepository.findCatalogFingerprint()).thenReturn(fingerprint(2, 2, 7));
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[catalogSectionOffset(bytes)] ^= 0xFF;
+        Files.write(path, bytes);
+
+        assertFallsBackToTheDatabase(warmStartSnapshot());
+    }
+
+    @Test
+    public void load_whenTheFileIsNotASnapshot_shouldFallBackToTheDatabase() throws IOException {
+        when(productRepository.findCatalogFingerprint()).thenReturn(fingerprint(2, 2, 7));
+        Files.write(path, new byte[]{1, 2, 3, 4, 5});
+
+        assertFallsBackToTheDatabase(warmStartSnapshot());
+    }
+
+    private void assertFallsBackToTheDatabase(WarmStartSnapshot warmStartSnapshot) {
+        warmStartSnapshot.load();
+
+        assertThat(warmStartSnapshot.takeLoadedCatalog()).isNull();
+        assertThat(userRolesCache.get(7)).isNull();
+    }
+
+    private int catalogSectionOffset(byte[] bytes) {
+        ByteBuffer data = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int offset = 24;
+        while (data.getInt(offset) != WarmStartSnapshot.CATALOG_SECTION) {
+            long length = data.getLong(offset + 8);
+            offset += 24 + length + (8 - length % 8) % 8;
+        }
+        return offset + 24;
+    }
+
+    private WarmStartSnapshot warmStartSnapshot() {
+        return new WarmStartSnapshot(productRepository, userRepository, userRolesCache, columnarCatalogProvider,
+                path.toString(), MAX_AGE_MILLIS);
+    }
+
+    private static Product product(long id, String code, long version) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode(code);
+        product.setVersion(version);
+        product.setPrice(10);
+        product.setCurrency(Currencies.RON);
+        return product;
+    }
+
+    private static UserRole userRole(long userId, Roles role) {
+        return new UserRole() {
+            @Override
+            public long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Roles getRole() {
+                return role;
+            }
+        };
+    }
+
+    private static CatalogFingerprint fingerprint(long products, long maxId, long versionSum) {
+        return new CatalogFingerprint() {
+            @Override
+            public long getProducts() {
+                return products;
+            }
+
+            @Override
+            public long getMaxId() {
+                return maxId;
+            }
+
+            @Override
+            public long getVersionSum() {
+                return versionSum;
+            }
+        };
+    }
+}
@@ -2,8 +2,10 @@ package com.practice.onlineShop.utils;
 
 import com.practice.onlineShop.entities.*;
 import com.practice.onlineShop.enums.Currencies;
+import com.practice.onlineShop.enums.OrderStatuses;
 import com.practice.onlineShop.enums.Roles;
 import com.practice.onlineShop.repositories.OrderRepository;
+import com.practice.onlineShop.repositories.OrderSummaryRepository;
 import com.practice.onlineShop.repositories.ProductRepository;
 import com.practice.onlineShop.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +13,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -21,6 +24,7 @@ public class UtilsComponent {
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
 
     public static final String LOCALHOST = "http://localhost:";
 
@@ -89,6 +93,40 @@ public class UtilsComponent {
         return orderWithProducts;
     }
 
+    /**
+     * Archives just the given orders, unlike the archiver, which would also take the closed orders of the other tests.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void archiveOrders(Orders... orders) {
+        List<Long> orderIds = new ArrayList<>();
+        for (Orders order : orders) {
+            orderIds.add(order.getId());
+        }
+        orderRepository.archiveOrders(orderIds, Instant.now());
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public int getStock(String productCode) {
+        return productRepository.findByCode(productCode).get().getStock();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void corruptOrderSummary(long orderId) {
+        OrderSummary orderSummary = orderSummaryRepository.findById(orderId).get();
+        orderSummary.setStatus(OrderStatuses.DELIVERED);
+        orderSummary.setLineCount(0);
+        orderSummary.setTotalQuantity(0);
+        orderSummary.setTotalRonCents(0);
+        orderSummaryRepository.save(orderSummary);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void changePrice(String productCode, long price) {
+        Product product = productRepository.findByCode(productCode).get();
+        product.setPrice(price);
+        productRepository.save(product);
+    }
+
     public Orders generateOrderItems(Product product, User user) {
         Orders order = new Orders();
         order.setUser(user);
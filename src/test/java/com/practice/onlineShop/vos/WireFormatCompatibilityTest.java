@@ -0,0 +1,71 @@
+package com.practice.onlineShop.vos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.onlineShop.enums.Currencies;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WireFormatCompatibilityTest {
+    private final ObjectMapper jsonObjectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cborObjectMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+    @Test
+    public void products_shouldSurviveACborRoundTrip() throws Exception {
+        ProductVO[] products = {generateProductVO("aCode", "Descriere cu diacritice: ăâîșț"), generateProductVO("anotherCode", null)};
+
+        ProductVO[] decodedProducts = cborObjectMapper.readValue(cborObjectMapper.writeValueAsBytes(products), ProductVO[].class);
+
+        assertThat(decodedProducts).containsExactly(products);
+    }
+
+    @Test
+    public void products_shouldDecodeTheSameFromJsonAndFromCbor() throws Exception {
+        ProductVO[] products = {generateProductVO("aCode", "a description")};
+
+        ProductVO[] fromJson = jsonObjectMapper.readValue(jsonObjectMapper.writeValueAsBytes(products), ProductVO[].class);
+        ProductVO[] fromCbor = cborObjectMapper.readValue(cborObjectMapper.writeValueAsBytes(products), ProductVO[].class);
+
+        assertThat(fromCbor).containsExactly(fromJson);
+    }
+
+    @Test
+    public void order_shouldSurviveACborRoundTrip() throws Exception {
+        OrderVO orderVO = new OrderVO();
+        orderVO.setUserId(2);
+        Map<Integer, Integer> productsIdsToQuantity = new HashMap<>();
+        productsIdsToQuantity.put(1, 3);
+        productsIdsToQuantity.put(7, 1);
+        orderVO.setProductsIdsToQuantity(productsIdsToQuantity);
+
+        OrderVO decodedOrder = cborObjectMapper.readValue(cborObjectMapper.writeValueAsBytes(orderVO), OrderVO.class);
+
+        assertThat(decodedOrder).isEqualTo(orderVO);
+    }
+
+    @Test
+    public void cbor_shouldBeSmallerThanJson() throws Exception {
+        ProductVO[] products = new ProductVO[100];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = generateProductVO("code" + i, "a description");
+        }
+
+        assertThat(cborObjectMapper.writeValueAsBytes(products).length).isLessThan(jsonObjectMapper.writeValueAsBytes(products).length);
+    }
+
+    static ProductVO generateProductVO(String code, String description) {
+        ProductVO productVO = new ProductVO();
+        productVO.setId(code.hashCode());
+        productVO.setCode(code);
+        productVO.setDescription(description);
+        productVO.setPrice(123.45);
+        productVO.setStock(7);
+        productVO.setValid(true);
+        productVO.setCurrency(Currencies.RON);
+        return productVO;
+    }
+}